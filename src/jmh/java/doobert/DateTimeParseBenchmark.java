@@ -0,0 +1,185 @@
+package doobert;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@code DateTimeLexer} against the regex-and-formatter parsing that {@code Deadline} and {@code Event}
+ * used before, per call, for each kind of input including invalid ones. An invalid input costs its exception,
+ * as it does in the commands. Setup checks that both parsers give the same result or error message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DateTimeParseBenchmark {
+    /**
+     * A {@code /by} input of a deadline.
+     */
+    @State(Scope.Benchmark)
+    public static class DeadlineInput {
+        @Param({"15/10/2019 1800", "2/12/2024 800", "15-10-2019 1800", "15/10/2019", "2019-10-15", "Sunday",
+            "31/13/2019 1800", "Funday"})
+        public String by;
+
+        @Setup(Level.Trial)
+        public void check() {
+            requireSameOutcome(by, DateTimeParseBenchmark::parseDeadline, Legacy::parseDeadline);
+        }
+    }
+
+    /**
+     * A {@code /from} input of an event.
+     */
+    @State(Scope.Benchmark)
+    public static class EventInput {
+        @Param({"2019-10-15 1800", "Oct 15 2019 1800", "2019/10/15 800", "Mon 2pm", "2019-13-15 1800",
+            "Funday 2pm", "tomorrow"})
+        public String from;
+
+        @Setup(Level.Trial)
+        public void check() {
+            requireSameOutcome(from, DateTimeLexer::parseEventStart, Legacy::parseEventStart);
+        }
+    }
+
+    @Benchmark
+    public Object deadlineLexer(DeadlineInput input) {
+        return outcome(DateTimeParseBenchmark::parseDeadline, input.by);
+    }
+
+    @Benchmark
+    public Object deadlineFormatter(DeadlineInput input) {
+        return outcome(Legacy::parseDeadline, input.by);
+    }
+
+    @Benchmark
+    public Object eventLexer(EventInput input) {
+        return outcome(DateTimeLexer::parseEventStart, input.from);
+    }
+
+    @Benchmark
+    public Object eventFormatter(EventInput input) {
+        return outcome(Legacy::parseEventStart, input.from);
+    }
+
+    private static Object parseDeadline(String by) {
+        LocalDateTime byDateTime = DateTimeLexer.parseDeadlineDateTime(by);
+        return byDateTime != null ? byDateTime : DateTimeLexer.parseDeadlineDate(by);
+    }
+
+    private static void requireSameOutcome(String input, Function<String, Object> lexer,
+            Function<String, Object> legacy) {
+        Object expected = outcome(legacy, input);
+        Object actual = outcome(lexer, input);
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Lexer and formatter disagree on '" + input + "': " + actual + " vs "
+                    + expected);
+        }
+    }
+
+    private static Object outcome(Function<String, Object> parser, String input) {
+        try {
+            return parser.apply(input);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * The parsing {@code Deadline} and {@code Event} did before {@code DateTimeLexer}, kept as the reference.
+     */
+    private static class Legacy {
+        private static final DateTimeFormatter[] EVENT_FORMATTERS = {DateTimeFormatter.ofPattern("yyyy-M-d Hmm"),
+            DateTimeFormatter.ofPattern("MMM dd yyyy HHmm"), DateTimeFormatter.ofPattern("yyyy/M/d Hmm")};
+        private static final String DEADLINE_ERROR = "Invalid deadline format: Use 'd/M/yyyy HHmm', "
+                + "'yyyy-MM-dd', or a weekday name like 'Sunday'.";
+
+        static Object parseDeadline(String by) {
+            try {
+                if (by.matches("\\d+/\\d+/\\d+ \\d+")) {
+                    String[] parts = by.split(" ");
+                    String time = parts[1].length() == 3 ? "0" + parts[1] : parts[1];
+                    return LocalDateTime.parse(parts[0] + " " + time, DateTimeFormatter.ofPattern("d/M/uuuu HHmm"));
+                } else if (by.matches("\\d{1,2}-\\d{1,2}-\\d{4} \\d{4}")) {
+                    return LocalDateTime.parse(by, DateTimeFormatter.ofPattern("d-M-yyyy HHmm"));
+                } else if (by.matches("\\d{1,2}/\\d{1,2}/\\d{4}")) {
+                    return LocalDate.parse(by, DateTimeFormatter.ofPattern("d/M/yyyy"));
+                } else if (by.matches("\\d{4}-\\d{1,2}-\\d{1,2}")) {
+                    return LocalDate.parse(by, DateTimeFormatter.ofPattern("yyyy-M-d"));
+                }
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(DEADLINE_ERROR);
+            }
+            try {
+                return nextOccurrence(DayOfWeek.valueOf(by.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid weekday name: Use a valid weekday like 'Sunday'.");
+            }
+        }
+
+        static Object parseEventStart(String from) {
+            for (DateTimeFormatter formatter : EVENT_FORMATTERS) {
+                try {
+                    return LocalDateTime.parse(from, formatter);
+                } catch (DateTimeParseException ignored) {
+                    // Try the next format
+                }
+            }
+            if (from.matches("\\d{1,2}[apAP][mM]")) {
+                return LocalDateTime.now().with(parseTimeOnly(from));
+            }
+            String[] parts = from.split(" ");
+            if (parts.length == 2 && parts[1].matches("\\d{1,2}[apAP][mM]")) {
+                for (DayOfWeek day : DayOfWeek.values()) {
+                    if (day.getDisplayName(TextStyle.SHORT, Locale.ENGLISH).equalsIgnoreCase(parts[0])
+                            || day.getDisplayName(TextStyle.FULL, Locale.ENGLISH).equalsIgnoreCase(parts[0])) {
+                        return LocalDateTime.of(nextOccurrence(day), parseTimeOnly(parts[1]));
+                    }
+                }
+                throw new IllegalArgumentException("Invalid weekday name: Use 'Mon', 'Tue', etc.");
+            }
+            throw new IllegalArgumentException("ERROR: Failed to parse event date/time -> " + from);
+        }
+
+        private static LocalTime parseTimeOnly(String time) {
+            time = time.trim().toUpperCase();
+            if (time.matches("\\d{1}[apAP][mM]")) {
+                time = "0" + time;
+            }
+            try {
+                return LocalTime.parse(time, DateTimeFormatter.ofPattern("hha", Locale.ENGLISH));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid time format: Use '2pm', '11AM', etc.");
+            }
+        }
+
+        private static LocalDate nextOccurrence(DayOfWeek targetDay) {
+            LocalDate today = LocalDate.now();
+            int daysUntilNext = (targetDay.getValue() - today.getDayOfWeek().getValue() + 7) % 7;
+            return today.plusDays(daysUntilNext == 0 ? 7 : daysUntilNext);
+        }
+    }
+}
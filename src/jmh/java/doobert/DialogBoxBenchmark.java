@@ -0,0 +1,117 @@
+package doobert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of creating one chat message's {@code DialogBox} in code against loading it from FXML per
+ * message as it was before, and of decoding the avatar per window against the shared display-size avatar.
+ * The boxes are not shown, so this is the cost of building them. Starts the JavaFX toolkit, so it needs a
+ * display.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DialogBoxBenchmark {
+    private static final String AVATAR = "/images/doobertbychatgpt.jpg";
+    private static final String MESSAGE = "Got it. I've added this task:\n  [T][ ] return book\n"
+            + "Now you have 5 tasks in the list.";
+
+    private Image fullSizeAvatar;
+    private Image avatar;
+
+    @Setup(Level.Trial)
+    public void startToolkit() {
+        Platform.startup(() -> { });
+        fullSizeAvatar = decodeAvatar();
+        avatar = DialogBox.getAvatar(AVATAR);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopToolkit() {
+        Platform.exit();
+    }
+
+    @Benchmark
+    public HBox fxmlDialogBox() {
+        return FxmlDialogBox.getDoobertDialog(MESSAGE, fullSizeAvatar);
+    }
+
+    @Benchmark
+    public HBox codeDialogBox() {
+        return DialogBox.getDoobertDialog(MESSAGE, avatar);
+    }
+
+    @Benchmark
+    public Image decodeAvatar() {
+        return new Image(DialogBoxBenchmark.class.getResourceAsStream(AVATAR));
+    }
+
+    @Benchmark
+    public Image sharedAvatar() {
+        return DialogBox.getAvatar(AVATAR);
+    }
+
+    /**
+     * The dialog box as it was built before, from FXML with a copied child list on every flip.
+     */
+    private static class FxmlDialogBox extends HBox {
+        @FXML
+        private Label dialog;
+        @FXML
+        private ImageView displayPicture;
+
+        private FxmlDialogBox(String text, Image img) {
+            try {
+                FXMLLoader fxmlLoader =
+                        new FXMLLoader(DialogBoxBenchmark.class.getResource("/view/FxmlDialogBox.fxml"));
+                fxmlLoader.setController(this);
+                fxmlLoader.setRoot(this);
+                fxmlLoader.load();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            dialog.setText(text);
+            displayPicture.setImage(img);
+        }
+
+        static FxmlDialogBox getDoobertDialog(String text, Image img) {
+            FxmlDialogBox db = new FxmlDialogBox(text, img);
+            ObservableList<Node> tmp = FXCollections.observableArrayList(db.getChildren());
+            Collections.reverse(tmp);
+            db.getChildren().setAll(tmp);
+            db.setAlignment(Pos.TOP_LEFT);
+            return db;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package doobert;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares substring {@code find} answered from the {@code TrigramIndex} against the linear scan it replaced,
+ * over {@code size} generated tasks, for keywords from common ({@code ook}) to absent ({@code xyz}). Setup
+ * checks that both give the same tasks and builds the index, so this is the cost of a query once the list is
+ * in use.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FindBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"ook", "report", "mum", "dinner plan", "xyz"})
+    public String keyword;
+
+    private TaskList tasks;
+    private List<Task> list;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        tasks = new TaskList(new TaskGenerator(42).tasks(size));
+        list = tasks.snapshot();
+        if (!scan(list, keyword).equals(tasks.findTasksContaining(keyword))) {
+            throw new IllegalStateException("Index and scan disagree on '" + keyword + "'");
+        }
+    }
+
+    @Benchmark
+    public List<Task> trigramIndex() {
+        return tasks.findTasksContaining(keyword);
+    }
+
+    @Benchmark
+    public List<Task> linearScan() {
+        return scan(list, keyword);
+    }
+
+    private static List<Task> scan(List<Task> tasks, String keyword) {
+        return tasks.stream()
+                .filter(task -> task.getDescription().toLowerCase().contains(keyword))
+                .collect(Collectors.toList());
+    }
+}
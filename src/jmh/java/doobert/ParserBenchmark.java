@@ -0,0 +1,80 @@
+package doobert;
+
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code Parser.parse} over a mix of commands as they are typed, half of them adding tasks. Parsing an
+ * add command also parses its dates, since the command builds its task up front. Each call takes the next of
+ * {@code size} generated commands.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParserBenchmark {
+    private static final DateTimeFormatter VIEW_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private final Parser parser = new Parser();
+    private String[] commands;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        TaskGenerator generator = new TaskGenerator(42);
+        commands = new String[size];
+        for (int i = 0; i < size; i++) {
+            commands[i] = nextCommand(generator);
+        }
+    }
+
+    private String nextCommand(TaskGenerator generator) {
+        switch (generator.nextInt(10)) {
+        case 0:
+        case 1:
+            return "todo " + generator.nextDescription();
+        case 2:
+        case 3:
+            return "deadline " + generator.nextDescription() + " /by " + generator.nextDeadlineInput();
+        case 4: {
+            String[] event = generator.nextEventInput();
+            return "event " + generator.nextDescription() + " /from " + event[0] + " /to " + event[1];
+        }
+        case 5:
+            return "mark " + (1 + generator.nextInt(size));
+        case 6:
+            return "delete " + (1 + generator.nextInt(size));
+        case 7:
+            return "find " + generator.nextWord();
+        case 8:
+            return "view " + generator.nextDate().format(VIEW_FORMAT);
+        default:
+            return "list " + (1 + generator.nextInt(10));
+        }
+    }
+
+    @Benchmark
+    public Command parse() throws DoobertException {
+        int i = next;
+        next = i + 1 == size ? 0 : i + 1;
+        return parser.parse(commands[i]);
+    }
+}
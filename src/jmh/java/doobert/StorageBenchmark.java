@@ -0,0 +1,93 @@
+package doobert;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading a task file of {@code size} generated tasks in each format, saving the whole list, and
+ * saving one edit to the journal. Files go to a temporary directory that is deleted afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StorageBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"TEXT", "BINARY"})
+    public TaskFileFormat format;
+
+    private Path directory;
+    private TaskList tasks;
+    private Storage storage;
+    private TaskList journalledTasks;
+    private Storage journalledStorage;
+
+    @Setup(Level.Trial)
+    public void writeTaskFiles() throws IOException {
+        directory = Files.createTempDirectory("doobert-benchmark");
+        tasks = new TaskList(new TaskGenerator(42).tasks(size));
+        storage = new Storage(directory.resolve("doobert.txt").toString());
+        storage.setFileFormat(format);
+        storage.saveTask(tasks);
+
+        journalledTasks = new TaskList(new TaskGenerator(42).tasks(size));
+        // Compaction would rewrite the whole file in the background now and then, so it is kept out of the way
+        journalledStorage = new Storage(directory.resolve("journalled.txt").toString(), true, Long.MAX_VALUE);
+        journalledStorage.setFileFormat(format);
+        journalledStorage.saveTask(journalledTasks);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTaskFiles() throws IOException {
+        journalledStorage.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public List<Task> loadTasks() throws DoobertException {
+        return storage.loadTasks();
+    }
+
+    @Benchmark
+    public void saveTask() {
+        storage.saveTask(tasks);
+    }
+
+    @Benchmark
+    public void saveOneEditToJournal() {
+        Task task = journalledTasks.getTask(0);
+        if (task.isDone) {
+            journalledTasks.unmarkTask(0);
+        } else {
+            journalledTasks.markTask(0);
+        }
+        journalledStorage.saveTask(journalledTasks);
+    }
+}
@@ -0,0 +1,103 @@
+package doobert;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the read commands over a list of {@code size} generated tasks: {@code find} as a word query, a
+ * substring and a misspelt word, {@code view} of one day and of a week, and {@code list} of one page and of
+ * the whole list. The indexes are built during setup, so this is the cost once the list is in use.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TaskListBenchmark {
+    private static final int INPUT_COUNT = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private TaskList tasks;
+    private String[] wordQueries = new String[INPUT_COUNT];
+    private String[] substrings = new String[INPUT_COUNT];
+    private String[] misspellings = new String[INPUT_COUNT];
+    private LocalDate[] dates = new LocalDate[INPUT_COUNT];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        TaskGenerator generator = new TaskGenerator(42);
+        tasks = new TaskList(generator.tasks(size));
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            wordQueries[i] = generator.nextWord() + " AND " + generator.nextWord();
+            String word = generator.nextWord();
+            substrings[i] = word.substring(1);
+            misspellings[i] = "~" + word.charAt(word.length() - 1) + word.substring(0, word.length() - 1);
+            dates[i] = generator.nextDate();
+        }
+
+        tasks.findTasks("warm");
+        tasks.findTasksContaining("warm");
+        tasks.findTasksFuzzy("warm");
+        tasks.viewSchedule(dates[0]);
+    }
+
+    @Benchmark
+    public String findWordQuery() {
+        return new FindCommand(wordQueries[advance()]).execute(tasks, null, null);
+    }
+
+    @Benchmark
+    public String findSubstring() {
+        return new FindCommand(substrings[advance()]).execute(tasks, null, null);
+    }
+
+    @Benchmark
+    public String findFuzzy() {
+        return new FindCommand(misspellings[advance()]).execute(tasks, null, null);
+    }
+
+    @Benchmark
+    public String viewScheduleDay() {
+        return tasks.viewSchedule(dates[advance()]);
+    }
+
+    @Benchmark
+    public String viewScheduleWeek() {
+        LocalDate from = dates[advance()];
+        return tasks.viewSchedule(from, from.plusDays(6));
+    }
+
+    @Benchmark
+    public String listPage() throws DoobertException {
+        return new ListCommand(String.valueOf(1 + advance() % (size / 20))).execute(tasks, null, null);
+    }
+
+    @Benchmark
+    public void listAll(Blackhole blackhole) throws DoobertException {
+        new ListCommand("").execute(tasks, null, null, blackhole::consume);
+    }
+
+    private int advance() {
+        int i = next;
+        next = (i + 1) % INPUT_COUNT;
+        return i;
+    }
+}
@@ -0,0 +1,78 @@
+package doobert;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures turning text into tasks: a task file line through {@code Task.fromFileString}, and a deadline or
+ * an event built from the dates a user typed. Each call takes the next of {@code size} generated inputs, so
+ * the larger sizes also measure inputs that are no longer in the CPU caches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TaskParseBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private String[] fileLines;
+    private String[] descriptions;
+    private String[] deadlines;
+    private String[][] events;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        TaskGenerator generator = new TaskGenerator(42);
+        List<Task> tasks = new TaskList(generator.tasks(size)).getList();
+        fileLines = new String[size];
+        descriptions = new String[size];
+        deadlines = new String[size];
+        events = new String[size][];
+        for (int i = 0; i < size; i++) {
+            fileLines[i] = tasks.get(i).toFileString().trim();
+            descriptions[i] = generator.nextDescription();
+            deadlines[i] = generator.nextDeadlineInput();
+            events[i] = generator.nextEventInput();
+        }
+    }
+
+    @Benchmark
+    public Task fromFileString() throws DoobertException {
+        return Task.fromFileString(fileLines[advance()]);
+    }
+
+    @Benchmark
+    public Task newDeadline() {
+        int i = advance();
+        return new Deadline(descriptions[i], deadlines[i]);
+    }
+
+    @Benchmark
+    public Task newEvent() throws DoobertException {
+        int i = advance();
+        return new Event(descriptions[i], events[i][0], events[i][1]);
+    }
+
+    private int advance() {
+        int i = next;
+        next = i + 1 == size ? 0 : i + 1;
+        return i;
+    }
+}
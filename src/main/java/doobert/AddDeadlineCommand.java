@@ -38,11 +38,11 @@ public class AddDeadlineCommand extends Command {
     @Override
     public String execute(TaskList tasks, Ui ui, Storage storage) {
         Deadline deadline = new Deadline(description, by);
-        tasks.addTask(deadline);
+        int taskCount = tasks.addTask(deadline);
         storage.saveTask(tasks);
 
         return  "Got it. I've added this task:\n" + "   "
-                + deadline + "\n   Now you have " + tasks.getList().size()
+                + deadline + "\n   Now you have " + taskCount
                 + " tasks in the list.";
 
     }
@@ -48,11 +48,11 @@ public class AddEventCommand extends Command {
     @Override
     public String execute(TaskList tasks, Ui ui, Storage storage) throws DoobertException {
         Event eventTask = new Event(description, from, to);
-        tasks.addTask(eventTask);
+        int taskCount = tasks.addTask(eventTask);
         storage.saveTask(tasks);
 
         return  "Got it. I've added this task:\n" + "   "
-                + eventTask + "\n   Now you have " + tasks.getList().size()
+                + eventTask + "\n   Now you have " + taskCount
                 + " tasks in the list.";
 
     }
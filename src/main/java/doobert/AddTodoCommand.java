@@ -31,12 +31,12 @@ public class AddTodoCommand extends Command {
     public String execute(TaskList tasks, Ui ui, Storage storage) throws DoobertException  {
         DoobertException.validateTodoDescription(description);
         Todo todoTask = new Todo(description);
-        tasks.addTask(todoTask);
+        int taskCount = tasks.addTask(todoTask);
         storage.saveTask(tasks);
 
         return  "Got it. I've added this task: \n" + "      "
                 + todoTask + "\n" + "   Now you have "
-                + tasks.getList().size() + " tasks in your list.";
+                + taskCount + " tasks in your list.";
 
     }
 
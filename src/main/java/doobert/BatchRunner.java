@@ -0,0 +1,154 @@
+package doobert;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Runs a script of commands without interaction, such as a bulk import of tasks.
+ * <p>
+ * Saves are deferred while the script runs, so the task list is written once at the end instead of once per
+ * command. A line that fails is reported with its line number and the script carries on. Responses are not
+ * shown; only errors and a summary of where the time went are printed. A transaction left open at the end of
+ * the script is rolled back.
+ */
+public class BatchRunner {
+    private static final String COMMENT_PREFIX = "#";
+    private static final ResponseSink DISCARD = text -> { };
+
+    private final TaskList tasks;
+    private final Ui ui;
+    private final Storage storage;
+    private final Parser parser;
+    private final PrintStream out;
+
+    /**
+     * Constructs a {@code BatchRunner} that runs commands against the given task list and storage.
+     *
+     * @param tasks   The list of tasks the commands operate on.
+     * @param ui      The user interface passed to the commands.
+     * @param storage The storage the task list is saved to.
+     * @param parser  The parser that turns each line into a command.
+     * @param out     Where errors are reported.
+     */
+    public BatchRunner(TaskList tasks, Ui ui, Storage storage, Parser parser, PrintStream out) {
+        this.tasks = tasks;
+        this.ui = ui;
+        this.storage = storage;
+        this.parser = parser;
+        this.out = out;
+    }
+
+    /**
+     * Runs every command in the script, then saves the task list and closes the storage, which waits for
+     * the tasks to reach the disk. Blank lines and lines starting with {@code #} are skipped, and the script
+     * stops early at {@code bye}.
+     *
+     * @param script The commands to run, one per line.
+     * @return How many commands ran and how long each stage took.
+     * @throws IOException If the script cannot be read. The commands run so far are still saved.
+     */
+    public Summary run(BufferedReader script) throws IOException {
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+        storage.beginDeferredSaves();
+        try {
+            runCommands(script, summary);
+        } finally {
+            if (tasks.isInTransaction()) {
+                int editCount = tasks.rollbackTransaction();
+                storage.endDeferredSaves(tasks);
+                out.println("The script ended inside a transaction, so its " + editCount
+                        + " change(s) were rolled back.");
+            }
+            long persistStart = System.nanoTime();
+            summary.deferredSaveCount = storage.endDeferredSaves(tasks);
+            storage.close();
+            long end = System.nanoTime();
+            summary.persistNanos = end - persistStart;
+            summary.totalNanos = end - start;
+        }
+        return summary;
+    }
+
+    private void runCommands(BufferedReader script, Summary summary) throws IOException {
+        int lineNumber = 0;
+        String line;
+        while ((line = script.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+
+            Command command;
+            long parseStart = System.nanoTime();
+            try {
+                command = parser.parse(line);
+            } catch (DoobertException | RuntimeException e) {
+                summary.commandCount++;
+                reportError(lineNumber, e, summary);
+                continue;
+            } finally {
+                summary.parseNanos += System.nanoTime() - parseStart;
+            }
+            if (command.isExit()) {
+                return;
+            }
+
+            summary.commandCount++;
+            long executeStart = System.nanoTime();
+            try {
+                command.execute(tasks, ui, storage, DISCARD);
+            } catch (DoobertException | RuntimeException e) {
+                reportError(lineNumber, e, summary);
+            } finally {
+                summary.executeNanos += System.nanoTime() - executeStart;
+            }
+        }
+    }
+
+    private void reportError(int lineNumber, Exception e, Summary summary) {
+        summary.errorCount++;
+        out.println("Line " + lineNumber + ": " + e.getMessage());
+    }
+
+    /**
+     * How many commands a batch ran and where the time went.
+     */
+    public static class Summary {
+        private int commandCount;
+        private int errorCount;
+        private int deferredSaveCount;
+        private long parseNanos;
+        private long executeNanos;
+        private long persistNanos;
+        private long totalNanos;
+
+        public int getCommandCount() {
+            return commandCount;
+        }
+
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        public int getDeferredSaveCount() {
+            return deferredSaveCount;
+        }
+
+        /**
+         * Returns the throughput and a breakdown of the time spent parsing, executing and saving.
+         *
+         * @return A two-line summary of the batch.
+         */
+        @Override
+        public String toString() {
+            double seconds = totalNanos / 1e9;
+            return String.format("Ran %d commands (%d failed) in %.1f ms, %.0f commands/s.%n"
+                            + "Parse: %.1f ms, execute: %.1f ms, persist: %.1f ms (%d saves written as one).",
+                    commandCount, errorCount, totalNanos / 1e6, seconds == 0 ? 0 : commandCount / seconds,
+                    parseNanos / 1e6, executeNanos / 1e6, persistNanos / 1e6, deferredSaveCount);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package doobert;
+
+/**
+ * Represents a command to start a transaction, grouping the edits that follow so that they are saved
+ * together on {@code commit} or undone together on {@code rollback}.
+ */
+public class BeginCommand extends Command {
+
+    /**
+     * Executes the begin command by starting a transaction and deferring saves until it ends.
+     *
+     * @param tasks   The task list whose edits are grouped.
+     * @param ui      The UI instance (not used here).
+     * @param storage The storage instance, which holds back saves until the transaction ends.
+     * @throws DoobertException If a transaction is already open.
+     * @return A message confirming that the transaction has started.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui, Storage storage) throws DoobertException {
+        if (tasks.isInTransaction()) {
+            throw new DoobertException("A transaction is already open. Use 'commit' or 'rollback' to end it first.");
+        }
+        tasks.beginTransaction();
+        storage.beginDeferredSaves();
+
+        return "Started a transaction. Your edits will be saved together when you enter 'commit', "
+                + "or undone with 'rollback'.";
+    }
+}
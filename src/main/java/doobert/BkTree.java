@@ -0,0 +1,118 @@
+package doobert;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A BK-tree of words keyed by Levenshtein distance, for finding every word within a few typos of a query.
+ * <p>
+ * Each child hangs off its parent under its distance to the parent's word. By the triangle inequality, words
+ * within {@code k} of the query can only be under children whose distance lies within {@code k} of the
+ * query's distance to the parent, so a lookup only visits a small part of the tree.
+ */
+public class BkTree {
+    private Node root;
+    private int size;
+
+    /**
+     * Adds a word to the tree if it is not already there.
+     *
+     * @param word The word to add.
+     */
+    public void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Finds every word within the given distance of the query.
+     *
+     * @param query The word to look up.
+     * @param maxDistance The largest edit distance to accept.
+     * @param consumer Receives each matching word with its distance to the query.
+     */
+    public void search(String query, int maxDistance, ObjIntConsumer<String> consumer) {
+        if (root == null) {
+            return;
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(query, node.word);
+            if (distance <= maxDistance) {
+                consumer.accept(node.word, distance);
+            }
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                    pending.push(child.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct words in the tree.
+     *
+     * @return The size of the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the Levenshtein distance between two words: the fewest single-character insertions,
+     * deletions and substitutions that turn one into the other.
+     *
+     * @param first The first word.
+     * @param second The second word.
+     * @return The edit distance.
+     */
+    public static int distance(String first, String second) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= second.length(); j++) {
+                int substitution = previous[j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+
+    private static class Node {
+        private final String word;
+        private final Map<Integer, Node> children = new HashMap<>(4);
+
+        private Node(String word) {
+            this.word = word;
+        }
+    }
+}
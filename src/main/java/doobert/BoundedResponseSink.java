@@ -0,0 +1,78 @@
+package doobert;
+
+/**
+ * Collects a response for display up to a fixed number of characters and only counts the lines after that,
+ * so that showing a response takes bounded memory however long the response is.
+ */
+public class BoundedResponseSink implements ResponseSink {
+    private final int maxLength;
+    private final StringBuilder text = new StringBuilder();
+    private int omittedLines;
+    private boolean isTruncated;
+    private boolean isMidLine;
+
+    /**
+     * Constructs a {@code BoundedResponseSink} keeping at most the given number of characters.
+     *
+     * @param maxLength The most characters of the response to keep.
+     */
+    public BoundedResponseSink(int maxLength) {
+        assert maxLength > 0 : "Maximum length should be positive.";
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Appends whole lines of the text while they fit, and counts the rest as omitted.
+     *
+     * @param part The next part of the response.
+     */
+    @Override
+    public void write(CharSequence part) {
+        int start = 0;
+        while (start < part.length()) {
+            int end = start;
+            while (end < part.length() && part.charAt(end) != '\n') {
+                end++;
+            }
+            boolean isLineEnd = end < part.length();
+            if (isLineEnd) {
+                end++;
+            }
+
+            if (!isTruncated && text.length() + (end - start) <= maxLength) {
+                text.append(part, start, end);
+            } else {
+                isTruncated = true;
+                if (!isMidLine) {
+                    omittedLines++;
+                }
+            }
+            isMidLine = !isLineEnd;
+            start = end;
+        }
+    }
+
+    /**
+     * Returns whether part of the response was left out.
+     *
+     * @return {@code true} if the response was longer than the maximum length.
+     */
+    public boolean isTruncated() {
+        return isTruncated;
+    }
+
+    /**
+     * Returns the kept part of the response, followed by a note on how many lines were left out.
+     *
+     * @return The response to display.
+     */
+    @Override
+    public String toString() {
+        if (!isTruncated) {
+            return text.toString();
+        }
+        String separator = text.length() == 0 || text.charAt(text.length() - 1) == '\n' ? "" : "\n";
+        return text + separator + "...and " + omittedLines + (omittedLines == 1 ? " more line" : " more lines")
+                + ". Use 'list [page] [size]' to see your tasks a page at a time.";
+    }
+}
@@ -17,6 +17,20 @@ public abstract class Command {
      */
     public abstract String execute(TaskList tasks, Ui ui, Storage storage) throws DoobertException;
 
+    /**
+     * Executes the command, writing its response to the given sink instead of returning it.
+     * Commands with potentially long responses override this to write them in parts.
+     *
+     * @param tasks   The list of tasks on which the command operates.
+     * @param ui      The user interface for displaying messages.
+     * @param storage The storage handler for saving and loading tasks.
+     * @param out     The sink receiving the response.
+     * @throws DoobertException If there is an error while executing the command.
+     */
+    public void execute(TaskList tasks, Ui ui, Storage storage, ResponseSink out) throws DoobertException {
+        out.write(execute(tasks, ui, storage));
+    }
+
     /**
      * Determines whether the command is an exit command.
      * This method can be overridden by specific commands such as "exit" to terminate the program.
@@ -26,4 +40,14 @@ public abstract class Command {
     public boolean isExit() {
         return false;
     }
+
+    /**
+     * Determines whether the command only reads the task list, so that it can run alongside other reads.
+     * Commands that edit the list or save it keep the default.
+     *
+     * @return {@code false} by default, indicating that the command may edit the task list.
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
 }
@@ -0,0 +1,242 @@
+package doobert;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how long each class of command spends being parsed, executed and saved, as one
+ * {@code LatencyHistogram} per class and stage.
+ * <p>
+ * Commands save the task list themselves from inside {@code execute}, so {@code Storage} reports the time each
+ * save takes on the thread that made it, and that time is counted as persist time instead of execute time. A
+ * command that does not save records no persist time. Input that cannot be parsed is recorded as
+ * {@code InvalidCommand}.
+ */
+public class CommandMetrics {
+    static final String INVALID_COMMAND = "InvalidCommand";
+    // Bucket bounds of the Prometheus histograms, in seconds
+    private static final double[] PROMETHEUS_BOUNDS = {1e-6, 2.5e-6, 5e-6, 1e-5, 2.5e-5, 5e-5, 1e-4, 2.5e-4, 5e-4,
+        1e-3, 2.5e-3, 5e-3, 1e-2, 2.5e-2, 5e-2, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    // The time the current command has spent saving so far, per thread
+    private static final ThreadLocal<long[]> persistNanos = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * The stages of handling a command.
+     */
+    public enum Stage {
+        PARSE, EXECUTE, PERSIST
+    }
+
+    private final Map<String, LatencyHistogram[]> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Parses the input and records how long it took under the class of the command.
+     *
+     * @param parser The parser.
+     * @param input The full user input.
+     * @return The command.
+     * @throws DoobertException If the input is not a valid command.
+     */
+    public Command parse(Parser parser, String input) throws DoobertException {
+        long start = System.nanoTime();
+        String commandClass = INVALID_COMMAND;
+        try {
+            Command command = parser.parse(input);
+            commandClass = command.getClass().getSimpleName();
+            return command;
+        } finally {
+            histogramsOf(commandClass)[Stage.PARSE.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executes the command and records how long it took, split into the time spent saving and the rest.
+     *
+     * @param command The command.
+     * @param tasks The list of tasks the command operates on.
+     * @param ui The user interface passed to the command.
+     * @param storage The storage the task list is saved to.
+     * @param out The sink receiving the response.
+     * @throws DoobertException If the command fails. Its time is recorded all the same.
+     */
+    public void execute(Command command, TaskList tasks, Ui ui, Storage storage, ResponseSink out)
+            throws DoobertException {
+        long[] persisted = persistNanos.get();
+        persisted[0] = 0;
+        long start = System.nanoTime();
+        try {
+            command.execute(tasks, ui, storage, out);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            LatencyHistogram[] stages = histogramsOf(command.getClass().getSimpleName());
+            stages[Stage.EXECUTE.ordinal()].record(elapsed - persisted[0]);
+            if (persisted[0] > 0) {
+                stages[Stage.PERSIST.ordinal()].record(persisted[0]);
+            }
+        }
+    }
+
+    /**
+     * Counts time spent saving the task list towards the command running on this thread.
+     *
+     * @param nanos The time the save took.
+     */
+    static void recordPersist(long nanos) {
+        persistNanos.get()[0] += nanos;
+    }
+
+    /**
+     * Returns the histogram of one stage of a command class.
+     *
+     * @param commandClass The simple name of the command class, such as {@code ListCommand}.
+     * @param stage The stage.
+     * @return The histogram, or {@code null} if no command of that class has been recorded.
+     */
+    public LatencyHistogram getHistogram(String commandClass, Stage stage) {
+        LatencyHistogram[] stages = histograms.get(commandClass);
+        return stages == null ? null : stages[stage.ordinal()];
+    }
+
+    private LatencyHistogram[] histogramsOf(String commandClass) {
+        LatencyHistogram[] stages = histograms.get(commandClass);
+        if (stages != null) {
+            return stages;
+        }
+        return histograms.computeIfAbsent(commandClass, name -> {
+            LatencyHistogram[] created = new LatencyHistogram[Stage.values().length];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new LatencyHistogram();
+            }
+            return created;
+        });
+    }
+
+    private Map<String, LatencyHistogram[]> sorted() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * Returns a table of the count and p50, p99 and maximum time of each stage of each command class.
+     *
+     * @return The table, one line per command class and stage.
+     */
+    public String format() {
+        if (histograms.isEmpty()) {
+            return "No commands have been recorded yet.";
+        }
+        StringBuilder table = new StringBuilder(String.format("%-22s %-8s %8s %11s %11s %11s%n", "Command",
+                "Stage", "Count", "p50 (ms)", "p99 (ms)", "max (ms)"));
+        for (Map.Entry<String, LatencyHistogram[]> entry : sorted().entrySet()) {
+            for (Stage stage : Stage.values()) {
+                LatencyHistogram histogram = entry.getValue()[stage.ordinal()];
+                long count = histogram.getCount();
+                if (count == 0) {
+                    continue;
+                }
+                table.append(String.format("%-22s %-8s %8d %11.3f %11.3f %11.3f%n", entry.getKey(),
+                        stage.toString().toLowerCase(Locale.ROOT), count, histogram.getPercentileNanos(0.50) / 1e6,
+                        histogram.getPercentileNanos(0.99) / 1e6, histogram.getMaxNanos() / 1e6));
+            }
+        }
+        return table.toString().stripTrailing();
+    }
+
+    /**
+     * Returns every histogram as JSON, with its summary figures and the lower bound and count of each bucket
+     * that is not empty. All times are in nanoseconds.
+     *
+     * @return The JSON document.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"commands\": {");
+        String commandSeparator = "\n";
+        for (Map.Entry<String, LatencyHistogram[]> entry : sorted().entrySet()) {
+            json.append(commandSeparator).append("    \"").append(entry.getKey()).append("\": {");
+            commandSeparator = ",\n";
+            String stageSeparator = "\n";
+            for (Stage stage : Stage.values()) {
+                LatencyHistogram histogram = entry.getValue()[stage.ordinal()];
+                json.append(stageSeparator).append("      \"").append(stage.toString().toLowerCase(Locale.ROOT))
+                        .append("\": ");
+                stageSeparator = ",\n";
+                appendJson(json, histogram);
+            }
+            json.append("\n    }");
+        }
+        return json.append("\n  }\n}\n").toString();
+    }
+
+    private static void appendJson(StringBuilder json, LatencyHistogram histogram) {
+        json.append(String.format("{\"count\": %d, \"totalNanos\": %d, \"p50Nanos\": %d, \"p99Nanos\": %d, "
+                        + "\"p999Nanos\": %d, \"maxNanos\": %d, \"buckets\": [", histogram.getCount(),
+                histogram.getTotalNanos(), histogram.getPercentileNanos(0.50), histogram.getPercentileNanos(0.99),
+                histogram.getPercentileNanos(0.999), histogram.getMaxNanos()));
+        long[] counts = histogram.snapshot();
+        String separator = "";
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                json.append(separator).append('[').append(LatencyHistogram.lowerBoundOf(i)).append(", ")
+                        .append(counts[i]).append(']');
+                separator = ", ";
+            }
+        }
+        json.append("]}");
+    }
+
+    /**
+     * Writes every histogram as JSON to a file, as on exit. A failure is reported rather than thrown.
+     *
+     * @param file The file to write.
+     */
+    public void writeJson(Path file) {
+        try {
+            Files.writeString(file, toJson(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.out.println("Error writing command statistics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns every histogram in the Prometheus text exposition format, as the histogram
+     * {@code doobert_command_duration_seconds} labelled by command class and stage.
+     * <p>
+     * The {@code le} bounds are the usual fixed Prometheus bounds rather than the 488 native bucket bounds, so
+     * that each series stays small. A native bucket that a bound falls inside is apportioned to it by the part
+     * of the bucket at or below the bound (see {@link LatencyHistogram#getCountAtMost}), as the HELP line says.
+     *
+     * @return The metrics text.
+     */
+    public String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP doobert_command_duration_seconds Time spent on each stage of a command. Bucket counts "
+                + "are estimated from log-linear buckets an eighth of a power of two wide, apportioning the bucket "
+                + "each le bound falls inside.\n");
+        text.append("# TYPE doobert_command_duration_seconds histogram\n");
+        for (Map.Entry<String, LatencyHistogram[]> entry : sorted().entrySet()) {
+            for (Stage stage : Stage.values()) {
+                LatencyHistogram histogram = entry.getValue()[stage.ordinal()];
+                String labels = "command=\"" + entry.getKey() + "\",stage=\""
+                        + stage.toString().toLowerCase(Locale.ROOT) + "\"";
+                for (double bound : PROMETHEUS_BOUNDS) {
+                    text.append("doobert_command_duration_seconds_bucket{").append(labels).append(",le=\"")
+                            .append(bound).append("\"} ").append(histogram.getCountAtMost(Math.round(bound * 1e9)))
+                            .append('\n');
+                }
+                long count = histogram.getCount();
+                text.append("doobert_command_duration_seconds_bucket{").append(labels).append(",le=\"+Inf\"} ")
+                        .append(count).append('\n');
+                text.append("doobert_command_duration_seconds_sum{").append(labels).append("} ")
+                        .append(histogram.getTotalNanos() / 1e9).append('\n');
+                text.append("doobert_command_duration_seconds_count{").append(labels).append("} ")
+                        .append(count).append('\n');
+            }
+        }
+        return text.toString();
+    }
+}
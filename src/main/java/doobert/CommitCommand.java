@@ -0,0 +1,27 @@
+package doobert;
+
+/**
+ * Represents a command to end a transaction and save all of its edits at once.
+ */
+public class CommitCommand extends Command {
+
+    /**
+     * Executes the commit command by ending the transaction and saving its edits in a single write.
+     *
+     * @param tasks   The task list whose edits are kept.
+     * @param ui      The UI instance (not used here).
+     * @param storage The storage instance that saves the edits.
+     * @throws DoobertException If no transaction is open.
+     * @return A message with the number of edits saved.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui, Storage storage) throws DoobertException {
+        if (!tasks.isInTransaction()) {
+            throw new DoobertException("There is no open transaction. Use 'begin' to start one.");
+        }
+        int editCount = tasks.commitTransaction();
+        storage.endDeferredSaves(tasks);
+
+        return "Committed " + editCount + " change(s) in a single save.";
+    }
+}
@@ -0,0 +1,103 @@
+package doobert;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * The messages shown in the GUI, keeping only the most recent ones.
+ * <p>
+ * The window displays this list through a virtualized {@code ListView}, which only creates nodes for the
+ * messages on screen. Together with the retention limit, this keeps memory and layout cost constant however
+ * long a session runs.
+ */
+public class Conversation {
+    private final ObservableList<Message> messages = FXCollections.observableArrayList();
+    private final int capacity;
+
+    /**
+     * Constructs an empty {@code Conversation} retaining at most the given number of messages.
+     *
+     * @param capacity The number of most recent messages to keep.
+     */
+    public Conversation(int capacity) {
+        assert capacity > 0 : "Conversation capacity should be positive.";
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a message from the user.
+     *
+     * @param text The message text.
+     */
+    public void addUserMessage(String text) {
+        add(new Message(text, false));
+    }
+
+    /**
+     * Adds a message from Doobert.
+     *
+     * @param text The message text.
+     * @return The added message, which can later be replaced with {@link #replaceMessage}.
+     */
+    public Message addDoobertMessage(String text) {
+        Message message = new Message(text, true);
+        add(message);
+        return message;
+    }
+
+    /**
+     * Replaces a message from Doobert with new text, keeping its place in the conversation.
+     * This is how a placeholder shown while a command runs becomes the command's response.
+     *
+     * @param message The message to replace.
+     * @param text The new message text.
+     * @return The position of the replaced message, or -1 if it is no longer retained.
+     */
+    public int replaceMessage(Message message, String text) {
+        // The message is usually one of the last few, so search from the end
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) == message) {
+                messages.set(i, new Message(text, message.isFromDoobert()));
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the retained messages, oldest first. The list is observable so that a view can follow it.
+     *
+     * @return The retained messages.
+     */
+    public ObservableList<Message> getMessages() {
+        return messages;
+    }
+
+    private void add(Message message) {
+        if (messages.size() >= capacity) {
+            messages.remove(0, messages.size() - capacity + 1);
+        }
+        messages.add(message);
+    }
+
+    /**
+     * A single message in the conversation.
+     */
+    public static class Message {
+        private final String text;
+        private final boolean isFromDoobert;
+
+        private Message(String text, boolean isFromDoobert) {
+            this.text = text;
+            this.isFromDoobert = isFromDoobert;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public boolean isFromDoobert() {
+            return isFromDoobert;
+        }
+    }
+}
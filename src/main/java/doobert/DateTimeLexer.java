@@ -0,0 +1,460 @@
+package doobert;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Recognizes and parses every date and time format accepted by {@code Deadline}, {@code Event} and the task file,
+ * without regular expressions and without exceptions on the normal path.
+ * <p>
+ * The input is split in one pass into tokens: runs of ASCII digits, runs of ASCII letters and single other
+ * characters. Each format is then a fixed token shape plus width and range checks. These reproduce exactly what
+ * the {@code DateTimeFormatter} patterns used before accepted in their default (smart) resolver style: a day past
+ * the end of its month becomes the last day of the month, {@code 2400} is midnight at the start of the next day,
+ * and {@code yyyy} years must be positive while {@code uuuu} years may be zero.
+ */
+public final class DateTimeLexer {
+    private static final int DIGITS = -1;
+    private static final int LETTERS = -2;
+    private static final int MAX_TOKENS = 12;
+    private static final int MAX_NUMBER_WIDTH = 19;
+    private static final long TOO_LARGE = 10_000_000_000L;
+
+    private static final String DEADLINE_FORMAT_ERROR = "Invalid deadline format: Use 'd/M/yyyy HHmm', "
+            + "'yyyy-MM-dd', or a weekday name like 'Sunday'.";
+    private static final String TIME_FORMAT_ERROR = "Invalid time format: Use '2pm', '11AM', etc.";
+
+    // Month abbreviations of the default locale, longest first, as DateTimeFormatter tries them when parsing
+    private static final String[] MONTH_NAMES = new String[12];
+    private static final Month[] MONTHS_BY_NAME_LENGTH = Month.values().clone();
+
+    static {
+        for (Month month : Month.values()) {
+            MONTH_NAMES[month.ordinal()] = Task.getFileMonthName(month.getValue());
+        }
+        Arrays.sort(MONTHS_BY_NAME_LENGTH,
+                Comparator.comparingInt((Month month) -> -MONTH_NAMES[month.ordinal()].length()));
+    }
+
+    private DateTimeLexer() {
+    }
+
+    /**
+     * Parses a deadline in {@code d/M/yyyy HHmm} (three-digit times allowed) or {@code d-M-yyyy HHmm} form.
+     *
+     * @param by The due date string.
+     * @return The due date and time, or {@code null} if the string is not in either form.
+     * @throws IllegalArgumentException If the string is in one of the forms but is not a valid date and time.
+     */
+    public static LocalDateTime parseDeadlineDateTime(String by) {
+        Tokens tokens = Tokens.of(by);
+        if (tokens.hasShape(DIGITS, '/', DIGITS, '/', DIGITS, ' ', DIGITS)) {
+            // Pattern "d/M/uuuu HHmm", after padding a three-digit time with a leading zero
+            int timeWidth = tokens.width(6);
+            boolean isValidWidth = tokens.width(0) <= MAX_NUMBER_WIDTH && tokens.width(2) <= MAX_NUMBER_WIDTH
+                    && tokens.width(4) == 4 && (timeWidth == 3 || timeWidth == 4);
+            LocalDateTime dateTime = isValidWidth
+                    ? toDateTime(tokens.value(4), false, tokens.value(2), tokens.value(0), tokens.value(6) / 100,
+                            tokens.value(6) % 100)
+                    : null;
+            return requireValid(dateTime, DEADLINE_FORMAT_ERROR);
+        } else if (tokens.hasShape(DIGITS, '-', DIGITS, '-', DIGITS, ' ', DIGITS)
+                && tokens.width(0) <= 2 && tokens.width(2) <= 2 && tokens.width(4) == 4 && tokens.width(6) == 4) {
+            // Pattern "d-M-yyyy HHmm"
+            return requireValid(toDateTime(tokens.value(4), true, tokens.value(2), tokens.value(0),
+                    tokens.value(6) / 100, tokens.value(6) % 100), DEADLINE_FORMAT_ERROR);
+        }
+        return null;
+    }
+
+    /**
+     * Parses a deadline in {@code d/M/yyyy} or {@code yyyy-M-d} form, or a weekday name such as {@code Sunday}
+     * meaning the next such day after today.
+     *
+     * @param by The due date string.
+     * @return The due date.
+     * @throws IllegalArgumentException If the string is not a valid date in one of these forms.
+     */
+    public static LocalDate parseDeadlineDate(String by) {
+        Tokens tokens = Tokens.of(by);
+        if (tokens.hasShape(DIGITS, '/', DIGITS, '/', DIGITS)
+                && tokens.width(0) <= 2 && tokens.width(2) <= 2 && tokens.width(4) == 4) {
+            return requireValid(toDate(tokens.value(4), true, tokens.value(2), tokens.value(0)),
+                    DEADLINE_FORMAT_ERROR);
+        } else if (tokens.hasShape(DIGITS, '-', DIGITS, '-', DIGITS)
+                && tokens.width(0) == 4 && tokens.width(2) <= 2 && tokens.width(4) <= 2) {
+            return requireValid(toDate(tokens.value(0), true, tokens.value(2), tokens.value(4)),
+                    DEADLINE_FORMAT_ERROR);
+        }
+
+        String dayName = by.toUpperCase(Locale.ROOT);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().equals(dayName)) {
+                return nextOccurrence(day);
+            }
+        }
+        throw new IllegalArgumentException("Invalid weekday name: Use a valid weekday like 'Sunday'.");
+    }
+
+    /**
+     * Parses the start of an event: {@code yyyy-M-d Hmm}, {@code yyyy/M/d Hmm}, {@code MMM dd yyyy HHmm},
+     * a time today such as {@code 2pm}, or a weekday and time such as {@code Mon 2pm}.
+     *
+     * @param from The start date and time string.
+     * @return The start date and time.
+     * @throws IllegalArgumentException If the string is not a valid date and time in one of these forms.
+     */
+    public static LocalDateTime parseEventStart(String from) {
+        Tokens tokens = Tokens.of(from);
+        LocalDateTime dateTime = parseNumericEventStart(tokens);
+        if (dateTime == null) {
+            dateTime = parseTextDateTime(from);
+        }
+        if (dateTime != null) {
+            return dateTime;
+        }
+
+        if (isTwelveHourTime(tokens)) {
+            return LocalDateTime.now().with(toTwelveHourTime(tokens));
+        }
+
+        // A weekday and a time separated by one space, as String.split(" ") would find them
+        int end = from.length();
+        while (end > 0 && from.charAt(end - 1) == ' ') {
+            end--;
+        }
+        int space = from.indexOf(' ');
+        boolean isSingleSpace = space >= 0 && space < end && from.lastIndexOf(' ', end - 1) == space;
+        if (isSingleSpace) {
+            Tokens time = Tokens.of(from.substring(space + 1, end));
+            if (isTwelveHourTime(time)) {
+                DayOfWeek day = parseWeekdayName(from.substring(0, space));
+                return LocalDateTime.of(nextOccurrence(day), toTwelveHourTime(time));
+            }
+        }
+
+        throw new IllegalArgumentException("ERROR: Failed to parse event date/time -> " + from);
+    }
+
+    /**
+     * Returns whether a string is a twelve-hour clock time such as {@code 2pm} or {@code 11AM}.
+     *
+     * @param time The string to check.
+     * @return {@code true} if the string is one or two digits followed by {@code am} or {@code pm} in any case.
+     */
+    public static boolean isTwelveHourTime(String time) {
+        return isTwelveHourTime(Tokens.of(time));
+    }
+
+    /**
+     * Parses a twelve-hour clock time such as {@code 2pm} or {@code 11AM}.
+     *
+     * @param time A string for which {@link #isTwelveHourTime(String)} holds.
+     * @return The time of day.
+     * @throws IllegalArgumentException If the hour is greater than 12.
+     */
+    public static LocalTime parseTwelveHourTime(String time) {
+        Tokens tokens = Tokens.of(time.trim());
+        assert isTwelveHourTime(tokens) : "Time should be a twelve-hour clock time.";
+        return toTwelveHourTime(tokens);
+    }
+
+    /**
+     * Parses a date and time in the task file's {@code MMM dd yyyy HHmm} form, e.g. {@code Oct 15 2019 1800}.
+     *
+     * @param text The date and time string.
+     * @return The date and time, or {@code null} if the string is not a valid date and time in this form.
+     */
+    public static LocalDateTime parseTextDateTime(String text) {
+        int month = matchMonthName(text);
+        if (month == 0) {
+            return null;
+        }
+        Tokens tokens = Tokens.of(text, MONTH_NAMES[month - 1].length());
+        int yearToken = tokens.kind(3) == '+' ? 4 : 3;
+        boolean hasShape = yearToken == 3
+                ? tokens.hasShape(' ', DIGITS, ' ', DIGITS, ' ', DIGITS)
+                : tokens.hasShape(' ', DIGITS, ' ', '+', DIGITS, ' ', DIGITS);
+        if (!hasShape || tokens.width(1) != 2 || !isYearWidth(tokens, yearToken)
+                || tokens.width(yearToken + 2) != 4) {
+            return null;
+        }
+        long time = tokens.value(yearToken + 2);
+        return toDateTime(tokens.value(yearToken), true, month, tokens.value(1), time / 100, time % 100);
+    }
+
+    /**
+     * Parses a date in the {@code MMM dd yyyy} form, e.g. {@code Oct 15 2019}.
+     *
+     * @param text The date string.
+     * @return The date, or {@code null} if the string is not a valid date in this form.
+     */
+    public static LocalDate parseTextDate(String text) {
+        int month = matchMonthName(text);
+        if (month == 0) {
+            return null;
+        }
+        Tokens tokens = Tokens.of(text, MONTH_NAMES[month - 1].length());
+        int yearToken = tokens.kind(3) == '+' ? 4 : 3;
+        boolean hasShape = yearToken == 3
+                ? tokens.hasShape(' ', DIGITS, ' ', DIGITS)
+                : tokens.hasShape(' ', DIGITS, ' ', '+', DIGITS);
+        if (!hasShape || tokens.width(1) != 2 || !isYearWidth(tokens, yearToken)) {
+            return null;
+        }
+        return toDate(tokens.value(yearToken), true, month, tokens.value(1));
+    }
+
+    /**
+     * Returns whether the string consists of three ASCII letters followed by the given digit groups, each
+     * preceded by a single space, such as {@code Oct 15 2019 1800} for widths {@code {2, 2}, {4, 4}, {4, 4}}.
+     *
+     * @param text The string to check.
+     * @param widths The minimum and maximum width of each digit group.
+     * @return {@code true} if the string has this shape.
+     */
+    static boolean hasMonthShape(String text, int[]... widths) {
+        Tokens tokens = Tokens.of(text);
+        if (tokens.count != 1 + 2 * widths.length || tokens.kind(0) != LETTERS || tokens.width(0) != 3) {
+            return false;
+        }
+        for (int i = 0; i < widths.length; i++) {
+            int width = tokens.width(2 + 2 * i);
+            if (tokens.kind(1 + 2 * i) != ' ' || tokens.kind(2 + 2 * i) != DIGITS
+                    || width < widths[i][0] || width > widths[i][1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the string is a date and time in {@code d/M/yyyy HHmm} form with one- or two-digit day and
+     * month and a three- or four-digit time.
+     *
+     * @param text The string to check.
+     * @return {@code true} if the string has this shape.
+     */
+    static boolean isSlashDateTime(String text) {
+        Tokens tokens = Tokens.of(text);
+        return tokens.hasShape(DIGITS, '/', DIGITS, '/', DIGITS, ' ', DIGITS)
+                && tokens.width(0) <= 2 && tokens.width(2) <= 2 && tokens.width(4) == 4
+                && (tokens.width(6) == 3 || tokens.width(6) == 4);
+    }
+
+    /**
+     * Returns whether the string is a date in {@code yyyy-M-d} form with one- or two-digit month and day.
+     *
+     * @param text The string to check.
+     * @return {@code true} if the string has this shape.
+     */
+    static boolean isDashDate(String text) {
+        Tokens tokens = Tokens.of(text);
+        return tokens.hasShape(DIGITS, '-', DIGITS, '-', DIGITS)
+                && tokens.width(0) == 4 && tokens.width(2) <= 2 && tokens.width(4) <= 2;
+    }
+
+    /**
+     * Parses "yyyy-M-d Hmm" or "yyyy/M/d Hmm", where the year may also be signed with more than four digits
+     * and the hour takes every digit of the time except the last two.
+     */
+    private static LocalDateTime parseNumericEventStart(Tokens tokens) {
+        int yearToken = tokens.kind(0) == '+' ? 1 : 0;
+        int separator = tokens.kind(yearToken + 1);
+        if (separator != '-' && separator != '/') {
+            return null;
+        }
+        boolean hasShape = yearToken == 0
+                ? tokens.hasShape(DIGITS, separator, DIGITS, separator, DIGITS, ' ', DIGITS)
+                : tokens.hasShape('+', DIGITS, separator, DIGITS, separator, DIGITS, ' ', DIGITS);
+        int timeWidth = tokens.width(yearToken + 6);
+        if (!hasShape || !isYearWidth(tokens, yearToken) || tokens.width(yearToken + 2) > MAX_NUMBER_WIDTH
+                || tokens.width(yearToken + 4) > MAX_NUMBER_WIDTH || timeWidth < 3
+                || timeWidth > MAX_NUMBER_WIDTH + 2) {
+            return null;
+        }
+
+        int timeStart = tokens.starts[yearToken + 6];
+        long hour = Tokens.parseNumber(tokens.text, timeStart, timeStart + timeWidth - 2);
+        long minute = Tokens.parseNumber(tokens.text, timeStart + timeWidth - 2, timeStart + timeWidth);
+        return toDateTime(tokens.value(yearToken), true, tokens.value(yearToken + 2), tokens.value(yearToken + 4),
+                hour, minute);
+    }
+
+    /**
+     * Checks the width of a "yyyy" year: exactly four digits, or five or more after a plus sign.
+     */
+    private static boolean isYearWidth(Tokens tokens, int yearToken) {
+        int width = tokens.width(yearToken);
+        return yearToken > 0 && tokens.kind(yearToken - 1) == '+'
+                ? width > 4 && width <= MAX_NUMBER_WIDTH
+                : width == 4;
+    }
+
+    private static boolean isTwelveHourTime(Tokens tokens) {
+        if (!tokens.hasShape(DIGITS, LETTERS) || tokens.width(0) > 2 || tokens.width(1) != 2) {
+            return false;
+        }
+        char meridiem = Character.toUpperCase(tokens.text.charAt(tokens.starts[1]));
+        char m = Character.toUpperCase(tokens.text.charAt(tokens.starts[1] + 1));
+        return (meridiem == 'A' || meridiem == 'P') && m == 'M';
+    }
+
+    private static LocalTime toTwelveHourTime(Tokens tokens) {
+        long hour = tokens.value(0);
+        if (hour > 12) {
+            throw new IllegalArgumentException(TIME_FORMAT_ERROR);
+        }
+        boolean isPm = Character.toUpperCase(tokens.text.charAt(tokens.starts[1])) == 'P';
+        return LocalTime.of((int) (hour % 12) + (isPm ? 12 : 0), 0);
+    }
+
+    private static DayOfWeek parseWeekdayName(String name) {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            String fullName = day.name().charAt(0) + day.name().substring(1).toLowerCase(Locale.ROOT);
+            if (fullName.substring(0, 3).equalsIgnoreCase(name) || fullName.equalsIgnoreCase(name)) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("Invalid weekday name: Use 'Mon', 'Tue', etc.");
+    }
+
+    private static LocalDate nextOccurrence(DayOfWeek targetDay) {
+        LocalDate today = LocalDate.now();
+        int daysUntilNext = (targetDay.getValue() - today.getDayOfWeek().getValue() + 7) % 7;
+        return today.plusDays(daysUntilNext == 0 ? 7 : daysUntilNext); // If today is the day, move to next week
+    }
+
+    /**
+     * Returns the month whose abbreviation starts the text, trying longer abbreviations first, or 0 if none does.
+     */
+    private static int matchMonthName(String text) {
+        for (Month month : MONTHS_BY_NAME_LENGTH) {
+            if (text.startsWith(MONTH_NAMES[month.ordinal()])) {
+                return month.getValue();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Resolves a date the way the smart resolver does, or returns {@code null} if it is out of range.
+     *
+     * @param isYearOfEra Whether the year came from a {@code yyyy} pattern, which does not allow year zero.
+     */
+    private static LocalDate toDate(long year, boolean isYearOfEra, long month, long day) {
+        boolean isValidYear = isYearOfEra ? year >= 1 && year <= Year.MAX_VALUE : year <= Year.MAX_VALUE;
+        if (!isValidYear || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        int monthLength = Month.of((int) month).length(Year.isLeap(year));
+        return LocalDate.of((int) year, (int) month, (int) Math.min(day, monthLength));
+    }
+
+    private static LocalDateTime toDateTime(long year, boolean isYearOfEra, long month, long day, long hour,
+            long minute) {
+        LocalDate date = toDate(year, isYearOfEra, month, day);
+        if (date == null || minute > 59) {
+            return null;
+        }
+        if (hour == 24 && minute == 0) {
+            return date.equals(LocalDate.MAX) ? null : date.plusDays(1).atStartOfDay();
+        }
+        return hour > 23 ? null : date.atTime((int) hour, (int) minute);
+    }
+
+    private static <T> T requireValid(T value, String errorMessage) {
+        if (value == null) {
+            throw new IllegalArgumentException(errorMessage);
+        }
+        return value;
+    }
+
+    /**
+     * The tokens of a string: runs of ASCII digits, runs of ASCII letters, and every other character on its own.
+     */
+    private static final class Tokens {
+        private final String text;
+        private final int[] kinds = new int[MAX_TOKENS];
+        private final int[] starts = new int[MAX_TOKENS];
+        private final int[] ends = new int[MAX_TOKENS];
+        private int count;
+
+        private Tokens(String text) {
+            this.text = text;
+        }
+
+        static Tokens of(String text) {
+            return of(text, 0);
+        }
+
+        /**
+         * Splits the text from the given index. Texts with more tokens than any format has get a count
+         * past {@code MAX_TOKENS}, which matches no shape.
+         */
+        static Tokens of(String text, int from) {
+            Tokens tokens = new Tokens(text);
+            for (int i = from; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int kind = c >= '0' && c <= '9' ? DIGITS
+                        : (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') ? LETTERS
+                        : c;
+                boolean isRun = kind < 0 && tokens.count > 0 && tokens.kinds[tokens.count - 1] == kind;
+                if (isRun) {
+                    tokens.ends[tokens.count - 1] = i + 1;
+                } else if (tokens.count == MAX_TOKENS) {
+                    tokens.count++;
+                    return tokens;
+                } else {
+                    tokens.kinds[tokens.count] = kind;
+                    tokens.starts[tokens.count] = i;
+                    tokens.ends[tokens.count] = i + 1;
+                    tokens.count++;
+                }
+            }
+            return tokens;
+        }
+
+        boolean hasShape(int... shape) {
+            if (count != shape.length) {
+                return false;
+            }
+            for (int i = 0; i < shape.length; i++) {
+                if (kinds[i] != shape[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int kind(int index) {
+            return index < count && index < MAX_TOKENS ? kinds[index] : 0;
+        }
+
+        int width(int index) {
+            return ends[index] - starts[index];
+        }
+
+        long value(int index) {
+            return parseNumber(text, starts[index], ends[index]);
+        }
+
+        /**
+         * Parses ASCII digits, saturating at a value larger than any valid date or time field.
+         */
+        static long parseNumber(String text, int start, int end) {
+            long value = 0;
+            for (int i = start; i < end; i++) {
+                value = Math.min(value * 10 + (text.charAt(i) - '0'), TOO_LARGE);
+            }
+            return value;
+        }
+    }
+}
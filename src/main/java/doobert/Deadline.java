@@ -1,10 +1,7 @@
 package doobert;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Locale;
 
 /**
  * Represents a deadline task with a specific due date and optional time.
@@ -12,12 +9,12 @@ import java.util.Locale;
  * - "d/M/yyyy HHmm" (e.g., "2/12/2024 1800")
  * - "yyyy-M-d" (e.g., "2024-12-02")
  * - A weekday name (e.g., "Sunday" → next occurrence)
+ * Parsing is done by {@code DateTimeLexer}.
  */
 public class Deadline extends Task {
-    private static final DateTimeFormatter FORMATTER_WITH_TIME = DateTimeFormatter.ofPattern("d/M/uuuu HHmm");
-    private static final DateTimeFormatter FORMATTER_DATE_ONLY = DateTimeFormatter.ofPattern("yyyy-M-d");
-    private static final DateTimeFormatter FORMATTER_WITH_DASH = DateTimeFormatter.ofPattern("d-M-yyyy HHmm");
-
+    private static final DateTimeFormatter OUTPUT_FORMATTER = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    private static final DateTimeFormatter OUTPUT_FORMATTER_WITH_TIME =
+            DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a");
 
     protected LocalDateTime byDateTime;
     protected LocalDate byDate;
@@ -35,139 +32,67 @@ public class Deadline extends Task {
         assert description != null && !description.trim().isEmpty() : "Deadline description cannot be empty!";
         assert by != null && !by.trim().isEmpty() : "Deadline due date cannot be empty!";
 
-        this.byDateTime = parseDateTime(by);
+        this.byDateTime = DateTimeLexer.parseDeadlineDateTime(by);
         if (this.byDateTime == null) {
-            this.byDate = parseDate(by);
-        }
-    }
-
-    /**
-     * Attempts to parse a date string into LocalDateTime.
-     *
-     * @param by The date string to be parsed.
-     * @return A valid LocalDateTime instance or null if not found.
-     */
-    private LocalDateTime parseDateTime(String by) {
-        if (by.matches("\\d+/\\d+/\\d+ \\d+")) {
-            return parseDateTimeWithTime(by, FORMATTER_WITH_TIME);
-        } else if (by.matches("\\d{1,2}-\\d{1,2}-\\d{4} \\d{4}")) {
-            return parseDateTimeWithTime(by, FORMATTER_WITH_DASH);
-        }
-        return null;
-    }
-
-    /**
-     * Parses a date string containing time using the specified formatter.
-     *
-     * @param dateTime The date string.
-     * @param formatter The formatter to use.
-     * @return A parsed LocalDateTime.
-     * @throws IllegalArgumentException If parsing fails.
-     */
-    private LocalDateTime parseDateTimeWithTime(String dateTime, DateTimeFormatter formatter) {
-        try {
-            String[] parts = dateTime.split(" ");
-            String datePart = parts[0];
-            String timePart = parts[1];
-
-            // Ensure time is 4-digit format (e.g., "800" → "0800")
-            if (timePart.length() == 3) {
-                timePart = "0" + timePart;
-            }
-
-            return LocalDateTime.parse(datePart + " " + timePart, formatter);
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Invalid deadline format: Use 'd/M/yyyy HHmm', "
-                    + "'yyyy-MM-dd', or a weekday name like 'Sunday'.");
+            this.byDate = DateTimeLexer.parseDeadlineDate(by);
         }
     }
 
     /**
-     * Attempts to parse a date-only format or a weekday name.
+     * Constructs a {@code Deadline} due at an already parsed date and time.
      *
-     * @param by The date string.
-     * @return A valid LocalDate instance.
-     * @throws IllegalArgumentException If parsing fails.
-     */
-    private LocalDate parseDate(String by) {
-        if (by.matches("\\d{1,2}/\\d{1,2}/\\d{4}")) {
-            return parseLocalDate(by, DateTimeFormatter.ofPattern("d/M/yyyy"));
-        } else if (by.matches("\\d{4}-\\d{1,2}-\\d{1,2}")) {
-            return parseLocalDate(by, FORMATTER_DATE_ONLY);
-        }
-        return parseNextWeekday(by);
-    }
-
-    /**
-     * Parses a LocalDate from a string using the given formatter.
-     *
-     * @param date The date string.
-     * @param formatter The formatter to use.
-     * @return The parsed LocalDate.
-     * @throws IllegalArgumentException If parsing fails.
+     * @param description The task description.
+     * @param byDateTime  The due date and time.
      */
-    private LocalDate parseLocalDate(String date, DateTimeFormatter formatter) {
-        try {
-            return LocalDate.parse(date, formatter);
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Invalid deadline format: Use 'd/M/yyyy HHmm', 'yyyy-MM-dd', "
-                    + "or a weekday name like 'Sunday'.");
-        }
+    public Deadline(String description, LocalDateTime byDateTime) {
+        super(description);
+        assert byDateTime != null : "Deadline due date cannot be null!";
+        this.byDateTime = byDateTime;
     }
 
     /**
-     * Converts a weekday name (e.g., "Sunday") to the next occurrence of that day.
+     * Constructs a {@code Deadline} due on an already parsed date.
      *
-     * @param dayName The name of the weekday.
-     * @return The {@code LocalDate} representing the next occurrence of the given weekday.
-     * @throws IllegalArgumentException If the provided day name is not valid.
+     * @param description The task description.
+     * @param byDate      The due date.
      */
-    private LocalDate parseNextWeekday(String dayName) {
-        try {
-            DayOfWeek targetDay = DayOfWeek.valueOf(dayName.toUpperCase(Locale.ROOT)); // Convert to uppercase
-            LocalDate today = LocalDate.now();
-            int daysUntilNext = (targetDay.getValue() - today.getDayOfWeek().getValue() + 7) % 7;
-            return today.plusDays(daysUntilNext == 0 ? 7 : daysUntilNext); // If today is the day, move to next week
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid weekday name: Use a valid weekday like 'Sunday'.");
-        }
+    public Deadline(String description, LocalDate byDate) {
+        super(description);
+        assert byDate != null : "Deadline due date cannot be null!";
+        this.byDate = byDate;
     }
 
     /**
-     * Returns a string representation of the deadline task.
+     * Renders a string representation of the deadline task.
      *
      * @return The formatted deadline task as a string.
      */
     @Override
-    public String toString() {
-        DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("MMM dd yyyy");
-
+    protected String renderDisplayString() {
         if (byDateTime != null) {
-            DateTimeFormatter outputFormatterWithTime = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a");
             return "[D] [" + getStatusIcon() + "] " + description + " (by: "
-                    + byDateTime.format(outputFormatterWithTime) + ")";
+                    + byDateTime.format(OUTPUT_FORMATTER_WITH_TIME) + ")";
         } else {
             return "[D] [" + getStatusIcon() + "] " + description + " (by: "
-                    + byDate.format(outputFormatter) + ")";
+                    + byDate.format(OUTPUT_FORMATTER) + ")";
         }
     }
 
     /**
-     * Returns a string representation of the deadline task formatted for file storage.
+     * Appends the deadline task formatted for file storage.
      *
-     * @return A formatted string that can be saved in a file.
+     * @param out The builder to append the file representation to.
      */
     @Override
-    public String toFileString() {
-        DateTimeFormatter fileFormatterWithTime = DateTimeFormatter.ofPattern("MMM dd yyyy HHmm");
-        DateTimeFormatter fileFormatterDateOnly = DateTimeFormatter.ofPattern("MMM dd yyyy");
-
+    public void appendFileString(StringBuilder out) {
+        appendFilePrefix(out, 'D');
+        out.append(" | ");
         if (byDateTime != null) {
-            return "    D | " + (isDone ? "1" : "0") + " | " + description + " | "
-                    + byDateTime.format(fileFormatterWithTime);
+            appendFileDate(out, byDateTime.toLocalDate());
+            out.append(' ');
+            appendFileTime(out, byDateTime.toLocalTime());
         } else {
-            return "    D | " + (isDone ? "1" : "0") + " | " + description + " | "
-                    + byDate.format(fileFormatterDateOnly);
+            appendFileDate(out, byDate);
         }
     }
 }
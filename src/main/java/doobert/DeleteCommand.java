@@ -1,49 +1,63 @@
 package doobert;
 
+import java.util.List;
+
 /**
- * Represents a command to delete a task from the task list.
+ * Represents a command to delete a task, or a selection of tasks such as {@code delete 3-500} or
+ * {@code delete done}, from the task list.
  */
 public class DeleteCommand extends Command {
-    private final int index;
+    private final TaskSelection selection;
 
     /**
-     * Constructs a {@code DeleteCommand} with the specified task number.
+     * Constructs a {@code DeleteCommand} with the specified tasks.
      *
-     * @param arguments The task number to be deleted (1-based index).
-     * @throws DoobertException If the input is not a valid integer.
+     * @param arguments The task number (1-based) or {@code #<id>} of the task to be deleted, or a
+     *                  {@code TaskSelection} of several tasks.
+     * @throws DoobertException If the argument is not a task number, ID or selection.
      */
     public DeleteCommand(String arguments) throws DoobertException {
-        try {
-            this.index = Integer.parseInt(arguments.trim()) - 1; // Convert to 0-based index
-        } catch (NumberFormatException e) {
-            throw new DoobertException("Invalid task number. Please use: delete <task_number>");
-        }
+        this.selection = TaskSelection.parse(arguments,
+                "delete <task_number>, delete #<task_id>, delete 1,4,9, delete 3-500 or delete done");
     }
 
     /**
-     * Executes the delete command by removing the specified task from the task list.
+     * Executes the delete command by removing the selected tasks from the task list. A selection of several
+     * tasks is removed in a single sweep over the list and saved once.
      *
      * @param tasks   The list of tasks.
      * @param ui      The user interface for displaying messages.
      * @param storage The storage handler for saving task updates.
-     * @throws DoobertException If the task index is out of bounds.
-     * @return A string representation of the task deleted.
+     * @throws DoobertException If there is no such task.
+     * @return A string representation of the task deleted, or a summary of the tasks deleted.
      */
     @Override
     public String execute(TaskList tasks, Ui ui, Storage storage) throws DoobertException {
-        // Validate the index before deletion
-        DoobertException.validateTaskIndex(index, tasks.getList().size());
-        Task deletedTask = tasks.getList().get(index);
-
-        // Perform deletion
-        tasks.deleteTask(index);
+        // Find and validate the indexes before deletion
+        int[] indexes = selection.resolve(tasks);
 
-        // Save updated tasks
-        storage.saveTask(tasks);
+        if (selection.isSingleTask()) {
+            // Perform deletion, which checks the index again in case another client deleted a task meanwhile
+            Task deletedTask = tasks.deleteTask(indexes[0]);
+            if (deletedTask == null) {
+                throw new DoobertException("Invalid task number. No such task exists.");
+            }
 
+            // Save updated tasks
+            storage.saveTask(tasks);
 
-        return  "Noted. I've removed this task:\n   " + deletedTask
-                + "\n   Now you have " + tasks.getList().size() + " tasks in the list.";
+            return "Noted. I've removed this task:\n   " + deletedTask
+                    + "\n   Now you have " + tasks.size() + " tasks in the list.";
+        }
 
+        List<Task> deletedTasks = tasks.deleteTasks(indexes);
+        if (deletedTasks == null) {
+            throw new DoobertException("Invalid task number. No such task exists.");
+        }
+        if (!deletedTasks.isEmpty()) {
+            storage.saveTask(tasks);
+        }
+        return "Noted. I've removed " + deletedTasks.size() + " tasks matching '" + selection + "'."
+                + "\n   Now you have " + tasks.size() + " tasks in the list.";
     }
 }
@@ -1,52 +1,88 @@
 package doobert;
 
-import java.io.IOException;
-import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ * <p>
+ * Dialog boxes are built in code rather than loaded from FXML, since loading parses the FXML and wires it up
+ * by reflection for every message. Avatars are decoded once at display size and shared by every dialog box.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    private static final double AVATAR_SIZE = 99.0;
+    private static final Insets PADDING = new Insets(15.0, 5.0, 15.0, 5.0);
+    private static final Map<String, Image> AVATARS = new ConcurrentHashMap<>();
+
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+
+    private boolean isFlipped;
 
     private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        displayPicture.setFitHeight(AVATAR_SIZE);
+        displayPicture.setFitWidth(AVATAR_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(400.0);
+        setPadding(PADDING);
+        getChildren().addAll(dialog, displayPicture);
 
         dialog.setText(text);
         displayPicture.setImage(img);
+    }
 
+    /**
+     * Returns the avatar image at the given resource path, decoded at display size on first use and shared after.
+     *
+     * @param resourcePath The class path of the image, e.g. {@code /images/avatar.jpg}.
+     * @return The avatar image.
+     */
+    public static Image getAvatar(String resourcePath) {
+        return AVATARS.computeIfAbsent(resourcePath, path -> new Image(DialogBox.class.getResourceAsStream(path),
+                AVATAR_SIZE, AVATAR_SIZE, true, true));
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Flips the dialog box such that the ImageView is on the left and text on the right, or back again.
      */
     private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+        isFlipped = !isFlipped;
+        if (isFlipped) {
+            displayPicture.toBack();
+        } else {
+            displayPicture.toFront();
+        }
+        setAlignment(isFlipped ? Pos.TOP_LEFT : Pos.TOP_RIGHT);
+    }
+
+    /**
+     * Shows another message in this dialog box, so that one box can be reused for many messages.
+     *
+     * @param text The message text.
+     * @param img The speaker's picture.
+     * @param isDoobert Whether the message is from Doobert, whose picture is on the left.
+     */
+    public void setMessage(String text, Image img, boolean isDoobert) {
+        dialog.setText(text);
+        displayPicture.setImage(img);
+        if (isFlipped != isDoobert) {
+            flip();
+        }
     }
 
     public static DialogBox getUserDialog(String text, Image img) {
@@ -59,4 +95,3 @@ public class DialogBox extends HBox {
         return db;
     }
 }
-
@@ -1,6 +1,13 @@
 package doobert;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * The main class for the Doobert chatbot application.
@@ -16,11 +23,34 @@ public class Doobert {
     Parser: deals with making sense of the user command
     TaskList: contains the task list e.g., it has operations to add/delete tasks in the list
     FILE_PATH: The file path where tasks are stored.
+    DURABILITY_PROPERTY: System property choosing when edits reach the disk ("sync", the default, "async" or
+    "interval-<ms>"). Only "sync" has every edit on disk before its reply is shown.
+    FORMAT_PROPERTY: System property choosing the task file format ("text" or "binary").
+    LAZY_PROPERTY: System property choosing whether tasks are read from the file only when needed ("true", or
+    "false", the default).
+    STARTUP_PAGE_SIZE: The number of saved tasks shown in the welcome message.
+    BATCH_FLAG: Command line flag running a script of commands instead of the chat ("--batch script.txt",
+    or "--batch -" to read the script from standard input).
+    SERVER_FLAG: Command line flag serving the task list to local clients over TCP ("--server [port]").
+    METRICS_FILE_PROPERTY: System property naming a file the command histograms are written to as JSON on exit.
+    METRICS_PORT_PROPERTY: System property choosing a loopback port serving the command histograms to Prometheus.
      */
+    private static final String DURABILITY_PROPERTY = "doobert.durability";
+    private static final String FORMAT_PROPERTY = "doobert.format";
+    private static final String LAZY_PROPERTY = "doobert.lazy";
+    private static final String METRICS_FILE_PROPERTY = "doobert.metrics.file";
+    private static final String METRICS_PORT_PROPERTY = "doobert.metrics.port";
+    private static final int STARTUP_PAGE_SIZE = 10;
+    static final String BATCH_FLAG = "--batch";
+    static final String SERVER_FLAG = "--server";
+
     private Storage storage;
     private TaskList tasks;
     private Ui ui;
     private Parser parser;
+    private CommandMetrics metrics;
+    // Set once 'bye' has run, after which the storage is closed and no further command may edit the tasks
+    private volatile boolean isExiting;
 
     /**
      * Constructs a new Doobert instance.
@@ -29,11 +59,15 @@ public class Doobert {
      */
     public Doobert(String FILE_PATH) {
         ui = new Ui();
-        storage = new Storage(FILE_PATH);
-        parser = new Parser();
+        storage = WriteBehindStorage.of(FILE_PATH, true, System.getProperty(DURABILITY_PROPERTY, "sync"));
+        storage.setFileFormat(TaskFileFormat.of(System.getProperty(FORMAT_PROPERTY, "text")));
+        storage.setLazyLoading(Boolean.parseBoolean(System.getProperty(LAZY_PROPERTY, "false")));
+        metrics = new CommandMetrics();
+        parser = new Parser(metrics);
+        exportMetrics();
 
         try {
-            tasks = new TaskList(storage.loadTasks());
+            tasks = new TaskList(storage.loadTasks(), storage::getNextId);
         } catch (DoobertException e) {
             ui.showLoadingError();
             tasks = new TaskList();
@@ -49,9 +83,10 @@ public class Doobert {
         while (!isExit) {
             try {
                 String fullCommand = ui.readCommand();
-                Command c = parser.parse(fullCommand);
+                Command c = metrics.parse(parser, fullCommand);
                 assert c != null : "Parsed command should never be null.";
-                c.execute(tasks, ui, storage);
+                metrics.execute(c, tasks, ui, storage, ui.getResponseSink());
+                ui.endResponse();
                 isExit = c.isExit();
             } catch (DoobertException e) {
                 ui.showError(e.getMessage());
@@ -59,10 +94,91 @@ public class Doobert {
         }
     }
 
+    private void exportMetrics() {
+        String file = System.getProperty(METRICS_FILE_PROPERTY);
+        if (file != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> metrics.writeJson(Path.of(file)),
+                    "doobert-metrics-dump"));
+        }
+        String port = System.getProperty(METRICS_PORT_PROPERTY);
+        if (port != null) {
+            try {
+                new MetricsEndpoint(metrics).start(Integer.parseInt(port));
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid metrics port: " + port);
+            } catch (IOException e) {
+                System.out.println("Error starting metrics endpoint: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs a script of commands against the task list, saving the tasks once at the end.
+     *
+     * @param script The commands to run, one per line.
+     * @param out Where errors are reported.
+     * @return How many commands ran and how long each stage took.
+     * @throws IOException If the script cannot be read.
+     */
+    public BatchRunner.Summary runBatch(BufferedReader script, PrintStream out) throws IOException {
+        return new BatchRunner(tasks, ui, storage, parser, out).run(script);
+    }
+
+    /**
+     * Starts serving the task list to clients on this machine. The server keeps running on its own threads.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @return The running server.
+     * @throws IOException If the port cannot be bound.
+     */
+    public DoobertServer startServer(int port) throws IOException {
+        DoobertServer server = new DoobertServer(tasks, ui, storage, parser);
+        server.start(port);
+        return server;
+    }
+
+    /**
+     * Waits for the edits still being saved to reach the task file, then closes the storage.
+     */
+    public void close() {
+        storage.close();
+    }
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(BATCH_FLAG)) {
+            runBatchScript(args.length > 1 ? args[1] : "-");
+            return;
+        }
+        if (args.length > 0 && args[0].equals(SERVER_FLAG)) {
+            runServer(args.length > 1 ? args[1] : String.valueOf(DoobertServer.DEFAULT_PORT));
+            return;
+        }
         new Doobert("./data/doobert.txt").run();
     }
 
+    private static void runServer(String port) {
+        try {
+            DoobertServer server = new Doobert("./data/doobert.txt").startServer(Integer.parseInt(port));
+            System.out.println("Doobert is serving your tasks on localhost port " + server.getPort() + ".");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(server.getStatistics())));
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid port: " + port);
+        } catch (IOException e) {
+            System.out.println("Error starting server: " + e.getMessage());
+        }
+    }
+
+    private static void runBatchScript(String scriptPath) {
+        try (BufferedReader script = scriptPath.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(scriptPath), StandardCharsets.UTF_8)) {
+            BatchRunner.Summary summary = new Doobert("./data/doobert.txt").runBatch(script, System.out);
+            System.out.println(summary);
+        } catch (IOException e) {
+            System.out.println("Error reading script: " + e.getMessage());
+        }
+    }
+
     public String getStartupMessage() {
         File file = new File("./data/doobert.txt");
 
@@ -73,31 +189,62 @@ public class Doobert {
         }
         assert file.exists() : "File should be created but does not exist!";
 
-        if (tasks.getList().isEmpty()) {
+        if (!tasks.hasTask(0)) {
             return "Welcome to Doobert!\nYou have no saved tasks.";
         }
 
+        // Only the first page is shown, so startup does not wait for a large task file to finish loading
         StringBuilder response = new StringBuilder("Welcome to Doobert!\nHere are your saved tasks:\n");
-        for (int i = 0; i < tasks.getList().size(); i++) {
-            response.append((i + 1)).append(". ").append(tasks.getList().get(i)).append("\n");
+        for (int i = 0; i < STARTUP_PAGE_SIZE && tasks.hasTask(i); i++) {
+            response.append((i + 1)).append(". ").append(tasks.getTask(i)).append("\n");
+        }
+        if (tasks.hasTask(STARTUP_PAGE_SIZE)) {
+            response.append("...and more. Enter 'list' to see all your tasks.\n");
         }
         return response.toString();
     }
 
+    /**
+     * Returns whether 'bye' has run, after which every further message is answered with an error.
+     *
+     * @return Whether Doobert is closing.
+     */
+    public boolean isExiting() {
+        return isExiting;
+    }
+
     /**
      * Generates a response for the user's chat message.
      */
     public String getResponse(String input) {
+        StringBuilder response = new StringBuilder();
+        getResponse(input, response::append);
+        return response.toString();
+    }
+
+    /**
+     * Generates a response for the user's chat message, writing it to the sink as it is produced.
+     * Once 'bye' has run, the message is not run and an error is written instead.
+     *
+     * @param input The user's chat message.
+     * @param out The sink receiving the response.
+     */
+    public void getResponse(String input, ResponseSink out) {
+        if (isExiting) {
+            out.write("Error: Doobert is closing, so this command was not run.");
+            return;
+        }
         try {
             // 1. Parse the input into a Command object
-            Command c = parser.parse(input);
+            Command c = metrics.parse(parser, input);
 
-            // 2. Execute the command and return the output string
-            return c.execute(tasks, ui, storage);
+            // 2. Execute the command, streaming its output
+            isExiting = c.isExit();
+            metrics.execute(c, tasks, ui, storage, out);
 
         } catch (DoobertException e) {
-            // If an error occurs, return the error message
-            return "Error: " + e.getMessage();
+            // If an error occurs, write the error message
+            out.write("Error: " + e.getMessage());
         }
     }
 
@@ -0,0 +1,74 @@
+package doobert;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A connection to a {@code DoobertServer} on this machine, sending one command at a time and reading back
+ * its response.
+ */
+public class DoobertClient implements Closeable {
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+
+    /**
+     * Connects to a Doobert server on the loopback interface.
+     *
+     * @param port The port the server listens on.
+     * @throws IOException If the server cannot be reached.
+     */
+    public DoobertClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a command and waits for the response.
+     *
+     * @param command The command, as typed in the chat. It must not contain a line break.
+     * @return The response, with its lines separated by {@code \n}.
+     * @throws IOException If the connection fails or is closed before the response ends.
+     */
+    public String send(String command) throws IOException {
+        assert command.indexOf('\n') < 0 && command.indexOf('\r') < 0 : "Command should be a single line.";
+        out.write(command);
+        out.write('\n');
+        out.flush();
+        return readResponse();
+    }
+
+    private String readResponse() throws IOException {
+        StringBuilder response = new StringBuilder();
+        boolean isFirstLine = true;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals(DoobertServer.END_OF_RESPONSE)) {
+                return response.toString();
+            }
+            if (!isFirstLine) {
+                response.append('\n');
+            }
+            isFirstLine = false;
+            // Undo the extra dot the server puts in front of lines starting with a dot
+            response.append(line.startsWith(".") ? line.substring(1) : line);
+        }
+        throw new EOFException("The server closed the connection.");
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
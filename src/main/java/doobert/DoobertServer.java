@@ -0,0 +1,294 @@
+package doobert;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves Doobert over a plain TCP line protocol on the loopback interface, so that several local tools can
+ * share one in-memory task list instead of each reading the task file.
+ * <p>
+ * Each request is one line holding a command, as typed in the chat. The response is sent as lines of text
+ * followed by a line holding only {@code .}; a response line starting with {@code .} gets an extra {@code .}
+ * in front, as in SMTP. {@code bye} closes the connection without stopping the server, and {@code !stats}
+ * returns the server's request counters.
+ * <p>
+ * Connections are served by a fixed pool of workers with a bounded queue. A connection arriving when both
+ * are full is told that the server is busy and closed. Commands that only read the task list run alongside
+ * each other. Commands that edit it run one at a time under a lock, since each edit and its save must reach
+ * the storage together.
+ */
+public class DoobertServer {
+    static final int DEFAULT_PORT = 4242;
+    static final String END_OF_RESPONSE = ".";
+    static final String STATS_REQUEST = "!stats";
+    private static final int WORKER_COUNT = 8;
+    private static final int QUEUE_CAPACITY = 32;
+    // Frees the worker of a client that has gone quiet
+    private static final int IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+
+    private final TaskList tasks;
+    private final Ui ui;
+    private final Storage storage;
+    private final Parser parser;
+    private final CommandMetrics metrics;
+    // Held while a command edits the shared task list and saves it, so that edits reach the storage in order
+    private final Object commandLock = new Object();
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final LongAdder rejectedConnectionCount = new LongAdder();
+    private long startNanos;
+
+    private ServerSocket serverSocket;
+    private ThreadPoolExecutor workers;
+    // Accepted connections that are not closed yet, including those waiting for a worker
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs a {@code DoobertServer} serving the given task list.
+     *
+     * @param tasks   The list of tasks shared by every client.
+     * @param ui      The user interface passed to the commands.
+     * @param storage The storage the task list is saved to.
+     * @param parser  The parser that turns each request into a command, whose metrics record each command.
+     */
+    public DoobertServer(TaskList tasks, Ui ui, Storage storage, Parser parser) {
+        this.tasks = tasks;
+        this.ui = ui;
+        this.storage = storage;
+        this.parser = parser;
+        this.metrics = parser.getMetrics();
+    }
+
+    /**
+     * Starts listening on the loopback interface and accepting connections on a background thread.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @return The port the server is listening on.
+     * @throws IOException If the port cannot be bound.
+     */
+    public synchronized int start(int port) throws IOException {
+        assert serverSocket == null : "Server should only be started once.";
+        serverSocket = new ServerSocket(port, QUEUE_CAPACITY, InetAddress.getLoopbackAddress());
+        workers = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "doobert-server-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        startNanos = System.nanoTime();
+
+        Thread acceptor = new Thread(this::acceptConnections, "doobert-server-acceptor");
+        acceptor.start();
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The port.
+     */
+    public synchronized int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    public synchronized void stop() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.out.println("Error stopping server: " + e.getMessage());
+        }
+        workers.shutdownNow();
+        // Closing a socket is what wakes up a worker blocked reading from it
+        for (Socket socket : openSockets) {
+            close(socket);
+        }
+    }
+
+    /**
+     * Returns the request counters of the server.
+     *
+     * @return The number of requests and errors, their throughput and latency, and the connection counts.
+     */
+    public String getStatistics() {
+        long requests = requestCount.sum();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        double averageMillis = requests == 0 ? 0 : totalLatencyNanos.sum() / 1e6 / requests;
+        return String.format("Requests: %d (%d failed), %.0f requests/s, avg latency: %.3f ms, "
+                        + "max latency: %.3f ms, open connections: %d, rejected connections: %d",
+                requests, errorCount.sum(), seconds == 0 ? 0 : requests / seconds, averageMillis,
+                maxLatencyNanos.get() / 1e6, connectionCount.get(), rejectedConnectionCount.sum());
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.out.println("Error accepting connection: " + e.getMessage());
+                }
+                continue;
+            }
+
+            openSockets.add(socket);
+            try {
+                workers.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                rejectedConnectionCount.increment();
+                rejectBusy(socket);
+            }
+        }
+    }
+
+    private void rejectBusy(Socket socket) {
+        try (socket; Writer out = openWriter(socket)) {
+            writeResponse(out, "Error: The server is busy. Please try again later.");
+        } catch (IOException e) {
+            // The client has already gone
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing more can be done for this connection
+        }
+    }
+
+    private void serve(Socket socket) {
+        connectionCount.incrementAndGet();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                     StandardCharsets.UTF_8));
+             Writer out = openWriter(socket)) {
+            socket.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+            // Each response is flushed in one write, so there is nothing for Nagle's algorithm to batch
+            socket.setTcpNoDelay(true);
+            String request;
+            while ((request = in.readLine()) != null) {
+                if (!handle(request, out)) {
+                    return;
+                }
+            }
+        } catch (SocketTimeoutException | SocketException e) {
+            // The client went quiet or disconnected, or the server is stopping
+        } catch (IOException e) {
+            System.out.println("Error serving connection: " + e.getMessage());
+        } finally {
+            connectionCount.decrementAndGet();
+            openSockets.remove(socket);
+        }
+    }
+
+    private static Writer openWriter(Socket socket) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Answers one request.
+     *
+     * @return Whether the connection should stay open.
+     */
+    private boolean handle(String request, Writer out) throws IOException {
+        if (request.trim().equals(STATS_REQUEST)) {
+            writeResponse(out, getStatistics());
+            return true;
+        }
+
+        long start = System.nanoTime();
+        StringBuilder response = new StringBuilder();
+        boolean isOpen = true;
+        boolean isError = false;
+        try {
+            Command command = metrics.parse(parser, request);
+            if (command.isExit()) {
+                // Only this client is leaving, so the shared storage stays open
+                response.append("Goodbye! Hope to see you again soon!");
+                isOpen = false;
+            } else if (isTransactionCommand(command)) {
+                throw new DoobertException("Transactions are not available over the server, "
+                        + "since the task list is shared with other clients.");
+            } else if (command.isReadOnly()) {
+                metrics.execute(command, tasks, ui, storage, response::append);
+            } else {
+                synchronized (commandLock) {
+                    metrics.execute(command, tasks, ui, storage, response::append);
+                }
+            }
+        } catch (DoobertException | RuntimeException e) {
+            response.setLength(0);
+            response.append("Error: ").append(e.getMessage());
+            isError = true;
+        }
+        record(System.nanoTime() - start, isError);
+
+        writeResponse(out, response);
+        return isOpen;
+    }
+
+    private static boolean isTransactionCommand(Command command) {
+        return command instanceof BeginCommand || command instanceof CommitCommand
+                || command instanceof RollbackCommand;
+    }
+
+    private void record(long latencyNanos, boolean isError) {
+        requestCount.increment();
+        if (isError) {
+            errorCount.increment();
+        }
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    private static void writeResponse(Writer out, CharSequence response) throws IOException {
+        int start = 0;
+        while (start <= response.length()) {
+            int end = start;
+            while (end < response.length() && response.charAt(end) != '\n') {
+                end++;
+            }
+            // A trailing newline does not start another line
+            if (start == response.length() && start > 0) {
+                break;
+            }
+            if (end > start && response.charAt(start) == '.') {
+                out.write('.');
+            }
+            out.append(response, start, end).append('\n');
+            start = end + 1;
+        }
+        out.write(END_OF_RESPONSE);
+        out.write('\n');
+        out.flush();
+    }
+}
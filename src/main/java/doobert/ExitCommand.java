@@ -12,20 +12,29 @@ public class ExitCommand extends Command {
     /**
      * Executes the bye command, closing the application after displaying a message.
      *
-     * @param tasks   The task list (not used here).
+     * @param tasks   The task list, whose open transaction is discarded.
      * @param ui      The UI instance (not used in JavaFX mode).
-     * @param storage The storage instance (not used here).
+     * @param storage The storage instance, flushed so that no edits are lost on exit.
      * @return A farewell message before exiting.
      */
     @Override
     public String execute(TaskList tasks, Ui ui, Storage storage) {
-        // Schedule JavaFX to exit after a short delay
-        // Code generated by ChatGPT for line 24 to line 26 to display farewell message before closing GUI
-        PauseTransition delay = new PauseTransition(Duration.seconds(2)); // 2-seconds delay
-        delay.setOnFinished(event -> Platform.exit()); // Exit JavaFX after delay
-        delay.play();
+        // Edits in an open transaction were never saved, so leaving simply discards them
+        String discarded = tasks.isInTransaction()
+                ? "Your open transaction was not committed, so its " + tasks.rollbackTransaction()
+                        + " change(s) were not saved.\n"
+                : "";
+        storage.close();
 
-        return "Goodbye! Hope to see you again soon!";
+        // Schedule JavaFX to exit after a short delay, on the JavaFX thread since commands run off it
+        // Code generated by ChatGPT for the delay below to display farewell message before closing GUI
+        Platform.runLater(() -> {
+            PauseTransition delay = new PauseTransition(Duration.seconds(2)); // 2-seconds delay
+            delay.setOnFinished(event -> Platform.exit()); // Exit JavaFX after delay
+            delay.play();
+        });
+
+        return discarded + "Goodbye! Hope to see you again soon!";
     }
 
     @Override
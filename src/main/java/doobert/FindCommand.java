@@ -1,18 +1,32 @@
 package doobert;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Represents a command to find tasks by description. A plain keyword matches any task whose description
+ * contains it, answered from the {@code TrigramIndex}; a word query such as {@code read AND book*} is answered
+ * from the {@code TermIndex}. A keyword starting with {@code ~}, such as {@code find ~bok}, also matches
+ * words with a few typos, closest matches first.
+ */
 public class FindCommand extends Command {
+    private static final String FUZZY_MARKER = "~";
 
     private String keyword;
+    private String query;
+    private boolean isFuzzy;
 
     /**
      * Constructs a FindCommand with the given keyword.
      *
-     * @param keyword The keyword to search for in task descriptions.
+     * @param keyword The keyword or word query to search for in task descriptions.
      */
     public FindCommand(String keyword) {
+        if (keyword.trim().startsWith(FUZZY_MARKER)) {
+            this.isFuzzy = true;
+            keyword = keyword.trim().substring(FUZZY_MARKER.length());
+        } else if (TermIndex.isQuery(keyword)) {
+            this.query = keyword.trim();
+        }
         this.keyword = keyword.trim().toLowerCase();
     }
 
@@ -26,12 +40,14 @@ public class FindCommand extends Command {
      */
     @Override
     public String execute(TaskList tasks, Ui ui, Storage storage) {
-        List<Task> taskList = tasks.getList();
-
-        // Filter tasks based on keyword
-        List<Task> matchingTasks = taskList.stream()
-                .filter(task -> task.getDescription().toLowerCase().contains(keyword))
-                .collect(Collectors.toList());
+        List<Task> matchingTasks;
+        if (isFuzzy) {
+            matchingTasks = tasks.findTasksFuzzy(keyword);
+        } else if (query != null) {
+            matchingTasks = tasks.findTasks(query);
+        } else {
+            matchingTasks = tasks.findTasksContaining(keyword);
+        }
 
         if (matchingTasks.isEmpty()) {
             return "No matching tasks found.";
@@ -45,4 +61,9 @@ public class FindCommand extends Command {
 
         return response.toString();
     }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
@@ -0,0 +1,302 @@
+package doobert;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code Journal} class is an append-only log of {@code TaskChange} records kept next to the task file.
+ * <p>
+ * The journal is replayed on top of the base task file when loading. Once it grows past a threshold,
+ * {@code Storage} rotates it out and compacts it into a new base file. A rotated journal that is still
+ * present on load (e.g. the program stopped mid-compaction) is replayed before the active one.
+ * <p>
+ * Each journal file starts with its generation, one higher than any before it, and the base file records the
+ * generation of the newest journal compacted into it (see {@code TaskFileHeader}). Adding and deleting tasks
+ * cannot be replayed twice, so a journal whose generation the base file already includes, such as one left
+ * behind when the program stopped after writing the base file but before deleting the journal, is deleted
+ * instead of replayed. Journals written before generations existed have none and are always replayed.
+ */
+public class Journal {
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String ROTATED_SUFFIX = ".journal.compacting";
+    private static final String GENERATION_PREFIX = "GENERATION | ";
+
+    private final Path taskFile;
+    private final File journalFile;
+    private final File rotatedFile;
+    private volatile long sizeInBytes;
+
+    // Guarded by this and read from the files on first use. A generation of 0 means the file has none.
+    private boolean hasGenerations;
+    private long baseGeneration;
+    private long activeGeneration;
+    private long rotatedGeneration;
+    private long lastGeneration;
+
+    /**
+     * Constructs a {@code Journal} for the given task file.
+     *
+     * @param taskFilePath The path of the base task file the journal belongs to.
+     */
+    public Journal(String taskFilePath) {
+        assert taskFilePath != null : "Task file path should not be null.";
+        this.taskFile = Path.of(taskFilePath);
+        this.journalFile = new File(taskFilePath + JOURNAL_SUFFIX);
+        this.rotatedFile = new File(taskFilePath + ROTATED_SUFFIX);
+        this.sizeInBytes = journalFile.length();
+    }
+
+    /**
+     * Returns whether there are journal records that have not been compacted into the base file.
+     *
+     * @return {@code true} if either the active or the rotated journal exists.
+     */
+    public boolean exists() {
+        return journalFile.exists() || rotatedFile.exists();
+    }
+
+    /**
+     * Returns the size of the active journal.
+     *
+     * @return The number of bytes appended since the last rotation.
+     */
+    public long size() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Appends the given changes to the journal, one record per line.
+     *
+     * @param changes The changes to append.
+     * @throws IOException If the journal cannot be written.
+     */
+    public synchronized void append(List<TaskChange> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        readGenerations();
+        journalFile.getParentFile().mkdirs();
+        boolean isNew = !journalFile.exists();
+        try (BufferedWriter writer = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (isNew) {
+                activeGeneration = ++lastGeneration;
+                writer.write(GENERATION_PREFIX + activeGeneration);
+                writer.newLine();
+            }
+            for (TaskChange change : changes) {
+                writer.write(change.toJournalString());
+                writer.newLine();
+            }
+        }
+        sizeInBytes = journalFile.length();
+    }
+
+    /**
+     * Replays the rotated journal (if any) and then the active journal on top of the given tasks.
+     * Records that cannot be parsed or applied are skipped. A journal the base file already includes is
+     * deleted without being replayed.
+     *
+     * @param tasks The tasks loaded from the base file.
+     * @throws IOException If a journal cannot be read.
+     */
+    public void replay(List<Task> tasks) throws IOException {
+        apply(readChanges(), tasks);
+    }
+
+    /**
+     * Reads the records {@link #replay} would apply, in order, without applying them. Records that cannot be
+     * parsed are skipped. A journal the base file already includes is deleted without being read.
+     *
+     * @return The changes in the rotated journal (if any) and then the active journal.
+     * @throws IOException If a journal cannot be read.
+     */
+    public synchronized List<TaskChange> readChanges() throws IOException {
+        readGenerations();
+        if (isCompacted(rotatedGeneration)) {
+            discardRotated();
+        }
+        if (isCompacted(activeGeneration)) {
+            discardActive();
+        }
+        List<TaskChange> changes = new ArrayList<>();
+        read(rotatedFile, changes);
+        read(journalFile, changes);
+        return changes;
+    }
+
+    /**
+     * Applies changes read from a journal to the given tasks. Changes that refer to a missing task are skipped.
+     *
+     * @param changes The changes, in the order they were made.
+     * @param tasks The tasks to apply them to.
+     */
+    static void apply(List<TaskChange> changes, List<Task> tasks) {
+        for (TaskChange change : changes) {
+            try {
+                change.applyTo(tasks);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Skipping invalid journal record: " + change.toJournalString());
+            }
+        }
+    }
+
+    /**
+     * Returns one more than the highest ID of a task the changes add. Added tasks keep their ID in the journal
+     * even if a later change deletes them, so the journal alone shows which IDs it has given out.
+     *
+     * @param changes The changes read from the journal.
+     * @return The next ID after the added tasks, or 0 if no added task has an ID.
+     */
+    static int nextIdAfter(List<TaskChange> changes) {
+        int nextId = 0;
+        for (TaskChange change : changes) {
+            if (change.getType() == TaskChange.Type.ADD && change.getTask().getId() > 0) {
+                nextId = Math.max(nextId, change.getTask().getId() + 1);
+            }
+        }
+        return nextId;
+    }
+
+    private boolean isCompacted(long generation) {
+        return generation > 0 && generation <= baseGeneration;
+    }
+
+    private static void read(File file, List<TaskChange> changes) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith(GENERATION_PREFIX)) {
+                    continue;
+                }
+                try {
+                    changes.add(TaskChange.fromJournalString(line));
+                } catch (DoobertException | IllegalArgumentException e) {
+                    System.out.println("Skipping invalid journal record: " + line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether a rotated journal was left behind by a compaction that did not finish writing the
+     * base file.
+     *
+     * @return {@code true} if the rotated journal exists.
+     */
+    public boolean hasRotated() {
+        return rotatedFile.exists();
+    }
+
+    /**
+     * Returns the generation a base file including every journal record written so far should record.
+     *
+     * @return The generation of the newest journal, or 0 if an existing journal predates generations and so
+     *         could not be told apart from its records being included.
+     * @throws IOException If a journal cannot be read.
+     */
+    public synchronized long getGeneration() throws IOException {
+        readGenerations();
+        if ((rotatedFile.exists() && rotatedGeneration == 0) || (journalFile.exists() && activeGeneration == 0)) {
+            return 0;
+        }
+        return lastGeneration;
+    }
+
+    /**
+     * Moves the active journal aside so that it can be compacted while new records go to a fresh journal.
+     *
+     * @return The generation the compacted base file should record.
+     * @throws IOException If the journal cannot be renamed.
+     */
+    public synchronized long rotate() throws IOException {
+        assert !rotatedFile.exists() : "Previous compaction should have finished before rotating again.";
+        readGenerations();
+        if (journalFile.exists()) {
+            if (!journalFile.renameTo(rotatedFile)) {
+                throw new IOException("Unable to rotate journal " + journalFile);
+            }
+            rotatedGeneration = activeGeneration;
+            activeGeneration = 0;
+        } else {
+            // Nothing to compact, so the base file includes the same journals as before
+            rotatedGeneration = lastGeneration;
+        }
+        sizeInBytes = 0;
+        return rotatedGeneration;
+    }
+
+    /**
+     * Deletes the rotated journal once its records are part of the base file.
+     */
+    public synchronized void discardRotated() {
+        if (rotatedFile.exists() && !rotatedFile.delete()) {
+            System.out.println("Error deleting compacted journal: " + rotatedFile);
+            return;
+        }
+        baseGeneration = Math.max(baseGeneration, rotatedGeneration);
+        rotatedGeneration = 0;
+    }
+
+    /**
+     * Deletes both journals once a base file recording {@link #getGeneration()} includes all their records.
+     */
+    public synchronized void discardAll() {
+        discardRotated();
+        baseGeneration = Math.max(baseGeneration, activeGeneration);
+        discardActive();
+    }
+
+    private void discardActive() {
+        if (journalFile.exists() && !journalFile.delete()) {
+            System.out.println("Error deleting compacted journal: " + journalFile);
+            return;
+        }
+        activeGeneration = 0;
+        sizeInBytes = 0;
+    }
+
+    /**
+     * Reads the generations of the base file and of both journals, once.
+     */
+    private void readGenerations() throws IOException {
+        if (hasGenerations) {
+            return;
+        }
+        baseGeneration = TaskFileHeader.read(taskFile).getJournalGeneration();
+        rotatedGeneration = readGeneration(rotatedFile);
+        activeGeneration = readGeneration(journalFile);
+        lastGeneration = Math.max(baseGeneration, Math.max(rotatedGeneration, activeGeneration));
+        hasGenerations = true;
+    }
+
+    private static long readGeneration(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String firstLine = reader.readLine();
+            if (firstLine == null || !firstLine.startsWith(GENERATION_PREFIX)) {
+                return 0;
+            }
+            return Long.parseLong(firstLine.substring(GENERATION_PREFIX.length()).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package doobert;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in nanoseconds in log-linear buckets: each power of two is split into eight equal buckets,
+ * so a percentile read from the histogram is within an eighth of the true value, from one nanosecond up to
+ * centuries, in a fixed 488 counters.
+ * <p>
+ * Recording a duration is a few atomic increments and takes no lock, so threads can record alongside each other
+ * and alongside a reader. A reader may see a recording half done, which at worst puts one duration in the
+ * count but not yet in the sum.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos The duration in nanoseconds. A negative duration, from a clock adjustment, counts as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of the durations recorded.
+     *
+     * @return The sum in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns the longest duration recorded.
+     *
+     * @return The longest duration in nanoseconds, or 0 if there are none.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the duration that the given fraction of the recorded durations do not exceed, rounded up to the
+     * end of its bucket.
+     *
+     * @param fraction The fraction, such as 0.99 for the 99th percentile.
+     * @return The duration in nanoseconds, or 0 if there are none.
+     */
+    public long getPercentileNanos(double fraction) {
+        long[] snapshot = snapshot();
+        long count = 0;
+        for (long bucketCount : snapshot) {
+            count += bucketCount;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * fraction));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i) - 1, getMaxNanos());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Estimates the number of durations recorded that were at most the given bound. Buckets that end at or
+     * before the bound count in full. The bucket that holds the bound counts in proportion to the part of it
+     * at or below the bound, as if its durations were spread evenly, so the estimate is off by at most that
+     * one bucket's count, and it never decreases as the bound grows.
+     *
+     * @param nanos The bound in nanoseconds.
+     * @return The estimated count.
+     */
+    public long getCountAtMost(long nanos) {
+        if (nanos < 0) {
+            return 0;
+        }
+        long count = 0;
+        int bucket = bucketOf(nanos);
+        for (int i = 0; i < bucket; i++) {
+            count += counts.get(i);
+        }
+        long lower = lowerBoundOf(bucket);
+        double fraction = (double) (nanos - lower + 1) / (upperBoundOf(bucket) - lower);
+        return count + Math.round(counts.get(bucket) * fraction);
+    }
+
+    /**
+     * Returns a copy of the bucket counts, in the order of {@link #lowerBoundOf}.
+     *
+     * @return The count of each bucket.
+     */
+    public long[] snapshot() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the shortest duration that falls in a bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The duration in nanoseconds.
+     */
+    public static long lowerBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        return bucket < SUB_BUCKETS ? bucket + 1 : lowerBoundOf(bucket) + (1L << (bucket / SUB_BUCKETS - 1));
+    }
+
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        // The top SUB_BUCKET_BITS + 1 bits of the value pick its power of two and the eighth within it
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (nanos >>> shift) - SUB_BUCKETS;
+    }
+}
@@ -4,9 +4,17 @@ import javafx.application.Application;
 
 /**
  * A launcher class to workaround classpath issues.
+ * Running with {@code --batch script.txt} or {@code --server [port]} works in the console instead of opening
+ * the window.
  */
 public class Launcher {
     public static void main(String[] args) {
+        boolean isConsoleMode = args.length > 0
+                && (args[0].equals(Doobert.BATCH_FLAG) || args[0].equals(Doobert.SERVER_FLAG));
+        if (isConsoleMode) {
+            Doobert.main(args);
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
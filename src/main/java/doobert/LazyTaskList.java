@@ -0,0 +1,619 @@
+package doobert;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+/**
+ * A list of tasks that are read from the task file only when they are accessed.
+ * <p>
+ * A background thread indexes the file, recording where each record starts. A text line is checked when it
+ * is indexed and skipped with a message if it is not a valid task, as {@code ParallelTaskLoader} skips it, so
+ * both give every task the same position; the task itself is only kept once it is read. Binary records are
+ * skipped over without decoding them. A task is kept in a bounded least-recently-used cache once read. Tasks
+ * that are added or edited no longer match the file, so they are pinned in memory instead.
+ * <p>
+ * Reading the first few tasks only waits for the index to reach them, which keeps startup independent of the
+ * file size; {@link #size()} and any edit wait for the whole file to be indexed. A journal is read before
+ * indexing starts and replayed once the index is complete. Until then, a task is read through the journal's
+ * effect on the positions of the file's records, which is exact once the index reaches every record the journal
+ * edits; if the journal edits a task it added itself, reads wait for the replay instead.
+ * <p>
+ * Edits must go through {@code set}, {@code add} and {@code remove}: a task that is changed in place
+ * has to be {@code set} back so that it is pinned rather than dropped from the cache. The task file is kept
+ * open for the lifetime of the list, so replacing it (e.g. by journal compaction) does not affect the list.
+ */
+public class LazyTaskList extends AbstractList<Task> {
+    private static final int DEFAULT_CACHE_CAPACITY = 10_000;
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int PUBLISH_BATCH = 4096;
+
+    private final FileChannel channel;
+    private final TaskFileFormat format;
+    private final Journal journal;
+    private final Thread indexer;
+    private final Map<Integer, Task> cache;
+    private final int headerNextId;
+    // Set by the indexer before any record is published
+    private volatile int binaryVersion = TaskFileFormat.VERSION;
+
+    // Guarded by this. Until the index is complete, position i is record i; afterwards slots maps each
+    // position to a record number, or to -(k + 1) for the k-th pinned task.
+    private long[] offsets = new long[0];
+    private int[] lengths = new int[0];
+    private int indexedCount;
+    private boolean isIndexed;
+    private boolean isReady;
+    private int[] slots;
+    private int size;
+    private final List<Task> pinned = new ArrayList<>();
+    private long indexNanos;
+    // Set by the indexer before it starts indexing if there is a journal, and left null if it cannot be read
+    private JournalPrefix journalPrefix;
+    private boolean hasReadJournal;
+    private int journalNextId;
+
+    private LazyTaskList(FileChannel channel, TaskFileFormat format, TaskFileHeader header, Journal journal,
+            int cacheCapacity) {
+        this.channel = channel;
+        this.format = format;
+        this.headerNextId = header.getNextId();
+        this.journal = journal;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+        this.indexer = new Thread(this::runIndexer, "doobert-task-indexer");
+        this.indexer.setDaemon(true);
+    }
+
+    /**
+     * Opens a task file and starts indexing it in the background.
+     *
+     * @param file The task file, in either {@code TaskFileFormat}.
+     * @param journal The journal to replay once the file is indexed, or {@code null} if there is none.
+     * @return The list, which can be read while indexing is still in progress.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static LazyTaskList open(Path file, Journal journal) throws IOException {
+        return open(file, journal, DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * Opens a task file with a custom cache size and starts indexing it in the background.
+     *
+     * @param file The task file, in either {@code TaskFileFormat}.
+     * @param journal The journal to replay once the file is indexed, or {@code null} if there is none.
+     * @param cacheCapacity The maximum number of unedited tasks kept in memory.
+     * @return The list, which can be read while indexing is still in progress.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static LazyTaskList open(Path file, Journal journal, int cacheCapacity) throws IOException {
+        assert cacheCapacity > 0 : "Cache capacity should be positive.";
+        TaskFileFormat format = TaskFileFormat.detect(file);
+        TaskFileHeader header;
+        try {
+            header = TaskFileHeader.read(file);
+        } catch (EOFException e) {
+            header = TaskFileHeader.EMPTY; // the indexer reports the cut
+        }
+        LazyTaskList list = new LazyTaskList(FileChannel.open(file, StandardOpenOption.READ), format, header,
+                journal, cacheCapacity);
+        list.indexer.start();
+        return list;
+    }
+
+    @Override
+    public synchronized Task get(int index) {
+        int record = awaitIndexed(index);
+        if (record >= 0) {
+            return journalPrefix.applyTo(record, materialize(record));
+        }
+        checkIndex(index, slots == null ? indexedCount : size);
+        int slot = slots == null ? index : slots[index];
+        return slot >= 0 ? materialize(slot) : pinned.get(-slot - 1);
+    }
+
+    @Override
+    public synchronized int size() {
+        awaitReady();
+        return size;
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return !hasIndex(0);
+    }
+
+    @Override
+    public synchronized ListIterator<Task> listIterator(int index) {
+        // Iterators remember the modification count, which the journal replay still changes
+        if (journal != null) {
+            awaitReady();
+        }
+        return super.listIterator(index);
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Returns whether the list has a task at the given position, waiting only until the index reaches it.
+     *
+     * @param index The zero-based position.
+     * @return {@code true} if {@code index} is less than the size of the list.
+     */
+    public synchronized boolean hasIndex(int index) {
+        if (index < 0) {
+            return false;
+        }
+        return awaitIndexed(index) >= 0 || index < (slots == null ? indexedCount : size);
+    }
+
+    @Override
+    public synchronized Task set(int index, Task task) {
+        awaitReady();
+        Task previous = get(index);
+        int slot = slots[index];
+        if (slot < 0) {
+            pinned.set(-slot - 1, task);
+        } else {
+            cache.remove(slot);
+            slots[index] = pin(task);
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized void add(int index, Task task) {
+        awaitReady();
+        checkIndex(index, size + 1);
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(16, size + (size >> 1)));
+        }
+        System.arraycopy(slots, index, slots, index + 1, size - index);
+        slots[index] = pin(task);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public synchronized Task remove(int index) {
+        awaitReady();
+        Task removed = get(index);
+        int slot = slots[index];
+        if (slot < 0) {
+            pinned.set(-slot - 1, null);
+        } else {
+            cache.remove(slot);
+        }
+        System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Returns a copy of the list that stays unchanged by later edits. The copy shares the index and pinned
+     * tasks with this list, so taking it does not read any task; its tasks are read when it is iterated.
+     *
+     * @return The snapshot.
+     */
+    public synchronized List<Task> snapshot() {
+        awaitReady();
+        int[] snapshotSlots = Arrays.copyOf(slots, size);
+        List<Task> snapshotPinned = new ArrayList<>(pinned);
+        long[] snapshotOffsets = offsets;
+        int[] snapshotLengths = lengths;
+
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                checkIndex(index, snapshotSlots.length);
+                int slot = snapshotSlots[index];
+                return slot >= 0
+                        ? read(slot, snapshotOffsets[slot], snapshotLengths[slot])
+                        : snapshotPinned.get(-slot - 1);
+            }
+
+            @Override
+            public int size() {
+                return snapshotSlots.length;
+            }
+        };
+    }
+
+    /**
+     * Returns the next task ID recorded by the task file and the journal, which is past the ID of every task
+     * either of them has held, including deleted ones. Waits for the journal to be read, but not for the file
+     * to be indexed.
+     *
+     * @return The next ID, or 0 if neither records one.
+     */
+    public synchronized int getNextId() {
+        while (journal != null && !hasReadJournal && !isReady) {
+            waitForIndexer();
+        }
+        return Math.max(headerNextId, journalNextId);
+    }
+
+    /**
+     * Returns how long indexing took and how many tasks are loaded, once the list is ready.
+     *
+     * @return A summary of the index, or a note that indexing is still in progress.
+     */
+    public synchronized String getIndexStatistics() {
+        if (!isReady) {
+            return "Indexed " + indexedCount + " tasks so far.";
+        }
+        return String.format("Indexed %d tasks in %.1f ms, %d cached, %d pinned in memory.", indexedCount,
+                indexNanos / 1_000_000.0, cache.size(), pinned.size());
+    }
+
+    private int pin(Task task) {
+        pinned.add(task);
+        return -pinned.size();
+    }
+
+    private Task materialize(int record) {
+        Task task = cache.get(record);
+        if (task == null) {
+            task = read(record, offsets[record], lengths[record]);
+            cache.put(record, task);
+        }
+        return task;
+    }
+
+    /**
+     * Decodes the record at the given file position. Safe to call from any thread. A task from a file that
+     * predates IDs is numbered by its record, as {@code Storage} numbers the tasks it loads eagerly.
+     */
+    private Task read(int record, long offset, int length) {
+        byte[] bytes = new byte[length];
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Task file ended before record at " + offset);
+                }
+            }
+            Task task = format == TaskFileFormat.BINARY
+                    ? TaskFileFormat.readRecord(new DataInputStream(new ByteArrayInputStream(bytes)), binaryVersion)
+                    : parseLine(bytes, length);
+            if (task.getId() == 0) {
+                task.assignId(record + 1);
+            }
+            return task;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (DoobertException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses a text line that was a valid task when it was indexed. The file is kept open and only ever
+     * replaced, never rewritten in place, so the line cannot have changed since.
+     */
+    private static Task parseLine(byte[] line, int length) {
+        Task task = ParallelTaskLoader.parseLine(line, length);
+        if (task == null) {
+            throw new IllegalStateException("Task file changed while it was being read: "
+                    + new String(line, 0, length, StandardCharsets.UTF_8));
+        }
+        return task;
+    }
+
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+
+    /**
+     * Waits until the task at the given position can be read. Without a journal, that is once the index reaches
+     * the position. With one, it is once the index reaches both the record at that position after the journal
+     * and every record the journal edits, or else once the journal has been replayed.
+     *
+     * @return The record to read if the position is served before the replay, otherwise -1, after which
+     *         positions are given by the index, or by the slots once they exist.
+     */
+    private int awaitIndexed(int index) {
+        if (index < 0) {
+            return -1;
+        }
+        while (!isReady) {
+            if (journal == null && indexedCount > index) {
+                return -1;
+            }
+            if (isIndexed && Thread.currentThread() == indexer) {
+                // The indexer itself edits the list while replaying the journal
+                return -1;
+            }
+            if (journalPrefix != null && !isIndexed) {
+                int record = journalPrefix.recordAt(index);
+                if (indexedCount > Math.max(record, journalPrefix.getLastEditedRecord())) {
+                    return record;
+                }
+            }
+            waitForIndexer();
+        }
+        return -1;
+    }
+
+    private void awaitReady() {
+        // The indexer itself edits the list while replaying the journal
+        while (!isReady && !(isIndexed && Thread.currentThread() == indexer)) {
+            waitForIndexer();
+        }
+    }
+
+    private void waitForIndexer() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading tasks.", e);
+        }
+    }
+
+    private void runIndexer() {
+        long start = System.nanoTime();
+        List<TaskChange> changes = readJournal();
+        Indexer index = new Indexer();
+        try {
+            if (format == TaskFileFormat.BINARY) {
+                index.indexBinary();
+            } else {
+                index.indexText();
+            }
+        } catch (IOException e) {
+            System.out.println("Error loading tasks: " + e.getMessage());
+        }
+
+        synchronized (this) {
+            index.publish();
+            slots = new int[Math.max(16, indexedCount)];
+            for (int i = 0; i < indexedCount; i++) {
+                slots[i] = i;
+            }
+            size = indexedCount;
+            isIndexed = true;
+        }
+
+        Journal.apply(changes, this);
+
+        synchronized (this) {
+            indexNanos = System.nanoTime() - start;
+            isReady = true;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Reads the journal on the indexer thread and works out its effect on the file's records, so that reads
+     * can start before the journal is replayed.
+     *
+     * @return The changes to replay once the file is indexed.
+     */
+    private List<TaskChange> readJournal() {
+        if (journal == null) {
+            return List.of();
+        }
+        List<TaskChange> changes = List.of();
+        JournalPrefix prefix = null;
+        try {
+            changes = journal.readChanges();
+            prefix = new JournalPrefix(changes);
+        } catch (IOException e) {
+            System.out.println("Error loading tasks: " + e.getMessage());
+        }
+        synchronized (this) {
+            journalPrefix = prefix;
+            journalNextId = Journal.nextIdAfter(changes);
+            hasReadJournal = true;
+            notifyAll();
+        }
+        return changes;
+    }
+
+    /**
+     * The effect of a journal on the records of the task file, worked out before the file is indexed by
+     * assuming that every edit other than an add refers to a record of the file rather than to an added task.
+     * Added tasks go after every record still in the list, so they never move a record. The assumption holds
+     * exactly when the file has a record numbered {@link #getLastEditedRecord()}.
+     */
+    private static class JournalPrefix {
+        // Records beyond the bound are never edited and so keep their order after the last record edited
+        private final int bound;
+        private final TaskOrder order;
+        private final Map<Integer, Boolean> doneRecords = new HashMap<>();
+        private int lastEditedRecord = -1;
+
+        JournalPrefix(List<TaskChange> changes) {
+            int highestIndex = -1;
+            int deleteCount = 0;
+            for (TaskChange change : changes) {
+                if (change.getType() != TaskChange.Type.ADD) {
+                    highestIndex = Math.max(highestIndex, change.getIndex());
+                    deleteCount += change.getType() == TaskChange.Type.DELETE ? 1 : 0;
+                }
+            }
+            bound = highestIndex + 1 + deleteCount;
+            order = new TaskOrder(bound);
+
+            for (TaskChange change : changes) {
+                if (change.getType() == TaskChange.Type.ADD || change.getIndex() < 0) {
+                    continue;
+                }
+                int record = order.sequenceAt(change.getIndex());
+                lastEditedRecord = Math.max(lastEditedRecord, record);
+                if (change.getType() == TaskChange.Type.DELETE) {
+                    order.remove(change.getIndex());
+                } else {
+                    doneRecords.put(record, change.getType() == TaskChange.Type.MARK);
+                }
+            }
+        }
+
+        int recordAt(int position) {
+            return position < order.size() ? order.sequenceAt(position) : bound + position - order.size();
+        }
+
+        int getLastEditedRecord() {
+            return lastEditedRecord;
+        }
+
+        Task applyTo(int record, Task task) {
+            Boolean isDone = doneRecords.get(record);
+            if (isDone != null && isDone) {
+                task.markAsDone();
+            } else if (isDone != null) {
+                task.markAsUndone();
+            }
+            return task;
+        }
+    }
+
+    /**
+     * Scans the task file on the indexer thread, publishing record positions to the list in batches.
+     */
+    private class Indexer {
+        private long[] recordOffsets = new long[PUBLISH_BATCH];
+        private int[] recordLengths = new int[PUBLISH_BATCH];
+        private int count;
+        private int publishedCount;
+
+        /**
+         * Indexes every line that is a valid task, skipping the header line and every other line
+         * {@code ParallelTaskLoader} skips. Each line is parsed to check it, on this thread, but the task is not
+         * kept, so reads of the first tasks still only wait for the index to reach them.
+         */
+        void indexText() throws IOException {
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+            byte[] line = new byte[256];
+            int lineLength = 0;
+            long lineStart = 0;
+            long blockStart = 0;
+            boolean isAfterCarriageReturn = false;
+
+            int read;
+            while ((read = channel.read(block.clear(), blockStart)) > 0) {
+                byte[] bytes = block.array();
+                for (int i = 0; i < read; i++) {
+                    byte b = bytes[i];
+                    if (b == '\n' && isAfterCarriageReturn) {
+                        lineStart = blockStart + i + 1;
+                    } else if (b == '\n' || b == '\r') {
+                        indexLine(lineStart, line, lineLength);
+                        lineLength = 0;
+                        lineStart = blockStart + i + 1;
+                    } else {
+                        if (lineLength == line.length) {
+                            line = Arrays.copyOf(line, line.length * 2);
+                        }
+                        line[lineLength++] = b;
+                    }
+                    isAfterCarriageReturn = b == '\r';
+                }
+                blockStart += read;
+            }
+            if (lineLength > 0) {
+                indexLine(lineStart, line, lineLength);
+            }
+        }
+
+        private void indexLine(long offset, byte[] line, int length) {
+            if (offset == 0 && TaskFileHeader.isTextLine(line, length)) {
+                return;
+            }
+            if (ParallelTaskLoader.parseLine(line, length) == null) {
+                System.out.println(ParallelTaskLoader.SKIPPED_MESSAGE
+                        + new String(line, 0, length, StandardCharsets.UTF_8));
+                return;
+            }
+            add(offset, length);
+        }
+
+
+        /**
+         * Indexes binary records by skipping over their contents, without decoding them.
+         */
+        void indexBinary() throws IOException {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel.position(0)), BLOCK_SIZE));
+            in.skipNBytes(TaskFileFormat.MAGIC.length);
+            int version = TaskFileFormat.readVersion(in);
+            binaryVersion = version;
+            int idBytes = TaskFileFormat.idBytes(version);
+            TaskFileHeader header = TaskFileHeader.readBinary(in, version);
+
+            int total = in.readInt();
+            long position = TaskFileFormat.MAGIC.length + 1 + header.binaryLength(version) + Integer.BYTES;
+            try {
+                for (int i = 0; i < total; i++) {
+                    int type = in.readUnsignedByte();
+                    in.skipNBytes(1 + idBytes + TaskFileFormat.timestampBytes(type));
+                    int descriptionLength = in.readInt();
+                    in.skipNBytes(descriptionLength);
+
+                    int length = 2 + idBytes + TaskFileFormat.timestampBytes(type) + Integer.BYTES
+                            + descriptionLength;
+                    add(position, length);
+                    position += length;
+                }
+            } catch (EOFException e) {
+                System.out.println("Task file is truncated, loaded " + count + " of " + total + " tasks.");
+            }
+        }
+
+        private void add(long offset, int length) {
+            if (count == recordOffsets.length) {
+                // Grow into fresh arrays so that readers of the published ones are never disturbed
+                recordOffsets = Arrays.copyOf(recordOffsets, count * 2);
+                recordLengths = Arrays.copyOf(recordLengths, count * 2);
+            }
+            recordOffsets[count] = offset;
+            recordLengths[count] = length;
+            count++;
+            if (count - publishedCount >= PUBLISH_BATCH) {
+                synchronized (LazyTaskList.this) {
+                    publish();
+                    LazyTaskList.this.notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Makes the records indexed so far visible to readers. Must hold the list's lock.
+         */
+        void publish() {
+            offsets = recordOffsets;
+            lengths = recordLengths;
+            indexedCount = count;
+            publishedCount = count;
+        }
+    }
+}
@@ -1,33 +1,125 @@
 package doobert;
-import java.util.List;
 
 /**
- * Represents a command that lists all tasks stored in the task list.
+ * Represents a command that lists the tasks stored in the task list, either all of them or one page
+ * such as {@code list 2} or {@code list 2 50}. {@code list ids} also shows each task's stable ID, which
+ * {@code mark}, {@code unmark} and {@code delete} accept as {@code #<id>}.
  */
 public class ListCommand extends Command {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int LINES_PER_WRITE = 256;
+    private static final String IDS_OPTION = "ids";
+    private static final String USAGE = "Invalid page. Please use: list [ids] [page] [size]";
+
+    private int page; // 1-based, or 0 to list every task
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private boolean isShowingIds;
+
+    /**
+     * Constructs a {@code ListCommand} with an optional {@code ids} option, page number and page size.
+     *
+     * @param arguments Empty to list every task, or a page number optionally followed by a page size, either
+     *                  of which may follow {@code ids}.
+     * @throws DoobertException If the page number or size is not a positive integer.
+     */
+    public ListCommand(String arguments) throws DoobertException {
+        String trimmed = arguments.trim();
+        if (trimmed.isEmpty()) {
+            return;
+        }
+        String[] parts = trimmed.split("\\s+");
+        int first = 0;
+        if (parts[0].equalsIgnoreCase(IDS_OPTION)) {
+            isShowingIds = true;
+            first = 1;
+        }
+        if (parts.length == first) {
+            return;
+        }
+        try {
+            page = Integer.parseInt(parts[first]);
+            if (parts.length > first + 1) {
+                pageSize = Integer.parseInt(parts[first + 1]);
+            }
+        } catch (NumberFormatException e) {
+            throw new DoobertException(USAGE);
+        }
+        if (parts.length > first + 2 || page < 1 || pageSize < 1) {
+            throw new DoobertException(USAGE);
+        }
+    }
+
+    /**
+     * Executes the list command, returning the requested tasks currently stored in the task list.
+     *
+     * @param tasks   The task list containing all the tasks.
+     * @param ui      The UI instance (not used in JavaFX mode).
+     * @param storage The storage instance (not used in this command).
+     * @return A formatted string containing the tasks or a message if the list is empty.
+     * @throws DoobertException If the requested page is past the end of the list.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui, Storage storage) throws DoobertException {
+        StringBuilder response = new StringBuilder();
+        execute(tasks, ui, storage, response::append);
+        return response.toString();
+    }
 
     /**
-     * Executes the list command, returning all tasks currently stored in the task list.
+     * Executes the list command, writing the tasks to the sink a batch of lines at a time, so listing
+     * takes bounded memory however many tasks there are.
      *
      * @param tasks   The task list containing all the tasks.
      * @param ui      The UI instance (not used in JavaFX mode).
      * @param storage The storage instance (not used in this command).
-     * @return A formatted string containing all tasks or a message if the list is empty.
+     * @param out     The sink receiving the response.
+     * @throws DoobertException If the requested page is past the end of the list.
      */
     @Override
-    public String execute(TaskList tasks, Ui ui, Storage storage) {
-        List<Task> list = tasks.getList();
+    public void execute(TaskList tasks, Ui ui, Storage storage, ResponseSink out) throws DoobertException {
+        // The whole listing is one read, so its numbering stays consistent while other clients edit the list
+        tasks.read(list -> {
+            if (list.isEmpty()) {
+                out.write("Your task list is empty!");
+                return null;
+            }
 
-        if (list.isEmpty()) {
-            return "Your task list is empty!";
-        }
+            int from = 0;
+            int to = list.size();
+            StringBuilder response = new StringBuilder("Here are the tasks in your list");
+            if (page > 0) {
+                int pageCount = (int) ((to + (long) pageSize - 1) / pageSize);
+                if (page > pageCount) {
+                    throw new DoobertException("There is no page " + page + ". Your list has " + pageCount
+                            + (pageCount == 1 ? " page" : " pages") + " of " + pageSize + " tasks.");
+                }
+                from = (int) ((page - 1L) * pageSize);
+                to = (int) Math.min(to, (long) from + pageSize);
+                response.append(" (page ").append(page).append(" of ").append(pageCount).append(')');
+            }
+            response.append(":\n");
 
-        // Build the response string
-        StringBuilder response = new StringBuilder("Here are the tasks in your list:\n");
-        for (int i = 0; i < list.size(); i++) {
-            response.append((i + 1)).append(". ").append(list.get(i)).append("\n");
-        }
+            for (int i = from; i < to; i++) {
+                Task task = list.get(i);
+                response.append((i + 1)).append(". ");
+                if (isShowingIds) {
+                    response.append(Task.FILE_ID_PREFIX).append(task.getId()).append(' ');
+                }
+                response.append(task).append("\n");
+                if ((i - from + 1) % LINES_PER_WRITE == 0) {
+                    out.write(response);
+                    response.setLength(0);
+                }
+            }
+            if (response.length() > 0) {
+                out.write(response);
+            }
+            return null;
+        });
+    }
 
-        return response.toString();
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -1,59 +1,144 @@
 package doobert;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 /**
  * Controller for the main GUI.
  */
 public class MainWindow extends AnchorPane {
+    // Longest response shown in one dialog box; longer ones are cut off with a note to use paging
+    private static final int MAX_RESPONSE_LENGTH = 50_000;
+    // System property choosing how many of the most recent messages the conversation keeps
+    private static final String HISTORY_PROPERTY = "doobert.history";
+    private static final int DEFAULT_HISTORY = 200;
+    // Room for the list's scroll bar and cell padding, so dialog boxes wrap instead of scrolling sideways
+    private static final double CELL_INSET = 20;
+    // Shown in place of Doobert's reply until the command finishes
+    private static final String WORKING_MESSAGE = "working...";
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<Conversation.Message> conversationView;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
 
     private Doobert doobert;
+    private Conversation conversation = new Conversation(Math.max(1, Integer.getInteger(HISTORY_PROPERTY,
+            DEFAULT_HISTORY)));
+    // Runs commands one at a time, in the order they were entered, so a slow command never blocks the window
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(command -> {
+        Thread thread = new Thread(command, "doobert-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private Image userImage = new Image(this.getClass().getResourceAsStream("/images/studentavatarbychatgpt.jpg"));
-    private Image doobertImage = new Image(this.getClass().getResourceAsStream("/images/doobertbychatgpt.jpg"));
+    private Image userImage = DialogBox.getAvatar("/images/studentavatarbychatgpt.jpg");
+    private Image doobertImage = DialogBox.getAvatar("/images/doobertbychatgpt.jpg");
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        conversationView.setItems(conversation.getMessages());
+        conversationView.setCellFactory(view -> new MessageCell());
+        conversationView.setFocusTraversable(false);
     }
 
     /** Injects the Doobert instance */
     public void setDoobert(Doobert d) {
         doobert = d;
         // Load and display saved tasks after Doobert is set
-        String startupMessage = doobert.getStartupMessage();
-        dialogContainer.getChildren().add(DialogBox.getDoobertDialog(startupMessage, doobertImage));
+        respondLater(doobert::getStartupMessage);
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Duke's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Adds the user input to the conversation and runs it in the background, showing a placeholder reply
+     * that is replaced by Doobert's response when the command finishes.
+     * Clears the user input straight away so that the next command can be typed in the meantime.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = doobert.getResponse(input);
-
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDoobertDialog(response, doobertImage)
-        );
         userInput.clear();
+        conversation.addUserMessage(input);
+        respondLater(() -> {
+            BoundedResponseSink response = new BoundedResponseSink(MAX_RESPONSE_LENGTH);
+            doobert.getResponse(input, response);
+            if (doobert.isExiting()) {
+                Platform.runLater(this::disableInput);
+            }
+            return response.toString();
+        });
     }
 
+    /**
+     * Shows a placeholder reply and produces the real one on the command thread. Replies are applied in the
+     * order they were requested, since the command thread runs them in that order and hands each one back
+     * to the JavaFX thread in turn.
+     */
+    private void respondLater(Supplier<String> reply) {
+        Conversation.Message placeholder = conversation.addDoobertMessage(WORKING_MESSAGE);
+        scrollToLatest();
+        commandExecutor.execute(() -> {
+            String text;
+            try {
+                text = reply.get();
+            } catch (RuntimeException e) {
+                text = "Error: " + e.getMessage();
+            }
+            String response = text;
+            Platform.runLater(() -> {
+                int index = conversation.replaceMessage(placeholder, response);
+                if (index == conversation.getMessages().size() - 1) {
+                    scrollToLatest();
+                }
+            });
+        });
+    }
 
-}
+    /**
+     * Stops taking commands once 'bye' has run, since the storage is closed and the window is about to close.
+     */
+    private void disableInput() {
+        userInput.setDisable(true);
+        sendButton.setDisable(true);
+    }
+
+    private void scrollToLatest() {
+        conversationView.scrollTo(conversation.getMessages().size() - 1);
+    }
 
+    /**
+     * A list cell that shows a message in one dialog box, reused as the cell is recycled for other messages.
+     */
+    private class MessageCell extends ListCell<Conversation.Message> {
+        private final DialogBox dialogBox = DialogBox.getUserDialog("", userImage);
+
+        private MessageCell() {
+            setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+            dialogBox.prefWidthProperty().bind(conversationView.widthProperty().subtract(CELL_INSET));
+            dialogBox.maxWidthProperty().bind(dialogBox.prefWidthProperty());
+        }
+
+        @Override
+        protected void updateItem(Conversation.Message message, boolean isEmpty) {
+            super.updateItem(message, isEmpty);
+            if (isEmpty || message == null) {
+                setGraphic(null);
+                return;
+            }
+            boolean isFromDoobert = message.isFromDoobert();
+            dialogBox.setMessage(message.getText(), isFromDoobert ? doobertImage : userImage, isFromDoobert);
+            setGraphic(dialogBox);
+        }
+    }
+}
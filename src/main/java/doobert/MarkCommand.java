@@ -1,51 +1,58 @@
 package doobert;
 
 /**
- * Represents a command to mark a specific task as done.
+ * Represents a command to mark a specific task, or a selection of tasks such as {@code mark 1,4,9} or
+ * {@code mark 3-500}, as done.
  */
 public class MarkCommand extends Command {
-    private int index;
+    private final TaskSelection selection;
 
     /**
-     * Constructs a MarkCommand to mark a task as done.
+     * Constructs a MarkCommand to mark tasks as done.
      *
-     * @param arguments The task number (1-based) to be marked as done.
-     * @throws DoobertException If the task number is not a valid integer.
+     * @param arguments The task number (1-based) or {@code #<id>} of the task to be marked as done, or a
+     *                  {@code TaskSelection} of several tasks.
+     * @throws DoobertException If the argument is not a task number, ID or selection.
      */
     public MarkCommand(String arguments) throws DoobertException {
-        try {
-            this.index = Integer.parseInt(arguments.trim()) - 1; // Convert to 0-based index
-        } catch (NumberFormatException e) {
-            throw new DoobertException("Invalid task number. Please use: mark <task_number>");
-        }
+        this.selection = TaskSelection.parse(arguments,
+                "mark <task_number>, mark #<task_id>, mark 1,4,9, mark 3-500 or mark all");
     }
 
     /**
-     * Executes the mark command by marking a task as done.
+     * Executes the mark command by marking the selected tasks as done. A selection of several tasks is
+     * marked in one pass and saved once.
      *
      * @param tasks   The task list containing all tasks.
      * @param ui      The UI instance used to interact with the user.
      * @param storage The storage instance to save the updated task list.
-     * @throws DoobertException If the task index is invalid.
-     * @return A string representation of the task marked.
+     * @throws DoobertException If there is no such task.
+     * @return A string representation of the task marked, or a summary of the tasks marked.
      */
     @Override
     public String execute(TaskList tasks, Ui ui, Storage storage) throws DoobertException {
-        // Validate the index before marking
-        DoobertException.validateTaskIndex(index, tasks.getList().size());
+        // Find and validate the indexes before marking
+        int[] indexes = selection.resolve(tasks);
 
-        // Get the task reference
-        Task task = tasks.getList().get(index);
+        if (selection.isSingleTask()) {
+            // Mark the task as done and store the message
+            String markMessage = tasks.markTask(indexes[0]);
 
-        // Mark the task as done and store the message
-        String markMessage = task.markAsDone();
+            // Save changes
+            storage.saveTask(tasks);
 
-        // Save changes
-        storage.saveTask(tasks);
+            return markMessage;
+        }
 
-        // Output without running the function again
-        tasks.markTask(index);
-        return markMessage;
+        int markedCount = tasks.setDone(indexes, true);
+        if (markedCount < 0) {
+            throw new DoobertException("Invalid task number. No such task exists.");
+        }
+        if (markedCount > 0) {
+            storage.saveTask(tasks);
+        }
+        return "Nice! I've marked " + markedCount + " of the " + indexes.length + " tasks in '" + selection
+                + "' as done.";
     }
 
 }
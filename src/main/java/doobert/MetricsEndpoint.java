@@ -0,0 +1,68 @@
+package doobert;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the command histograms of a {@code CommandMetrics} over HTTP on the loopback interface, in the
+ * Prometheus text format at {@code /metrics}, so that a local Prometheus can scrape them.
+ */
+public class MetricsEndpoint {
+    static final String PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final CommandMetrics metrics;
+    private HttpServer server;
+
+    /**
+     * Constructs a {@code MetricsEndpoint} serving the given metrics.
+     *
+     * @param metrics The metrics to serve.
+     */
+    public MetricsEndpoint(CommandMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts serving on a background thread.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @return The port the endpoint is listening on.
+     * @throws IOException If the port cannot be bound.
+     */
+    public synchronized int start(int port) throws IOException {
+        assert server == null : "Endpoint should only be started once.";
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(PATH, this::serve);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops serving.
+     */
+    public synchronized void stop() {
+        server.stop(0);
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = metrics.toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package doobert;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A list of tasks in memory whose deletes do not shift the tasks after the deleted one.
+ * <p>
+ * Each task is kept in a slot numbered by its {@code TaskOrder} sequence number, and a deleted task's slot is
+ * simply cleared. Reading, replacing or deleting the task at a position finds its slot through the
+ * {@code TaskOrder} in O(log n), and adding at the end takes the next slot. Once deletes leave most slots
+ * empty the remaining tasks are moved into fresh slots, which costs no more than the deletes did. Inserting
+ * anywhere but the end renumbers every slot, which only undoing a delete does. An empty slot is how a
+ * deleted task is recognised, so the list does not hold {@code null}.
+ */
+public class OrderedTaskList extends AbstractList<Task> {
+    private Task[] slots;
+    private TaskOrder order;
+
+    /**
+     * Constructs an empty list.
+     */
+    public OrderedTaskList() {
+        this(Arrays.asList());
+    }
+
+    /**
+     * Constructs a list holding the given tasks in order.
+     *
+     * @param tasks The tasks.
+     */
+    public OrderedTaskList(Collection<? extends Task> tasks) {
+        renumber(tasks.toArray(new Task[0]));
+    }
+
+    @Override
+    public Task get(int index) {
+        return slots[order.sequenceAt(index)];
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Objects.requireNonNull(task);
+        int sequence = order.sequenceAt(index);
+        Task previous = slots[sequence];
+        slots[sequence] = task;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        Objects.requireNonNull(task);
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        modCount++;
+        if (index < size()) {
+            Task[] tasks = toArray(new Task[size() + 1]);
+            System.arraycopy(tasks, index, tasks, index + 1, size() - index);
+            tasks[index] = task;
+            renumber(tasks);
+            return;
+        }
+        int sequence = order.append();
+        if (sequence == slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(16, slots.length * 2));
+        }
+        slots[sequence] = task;
+    }
+
+    @Override
+    public Task remove(int index) {
+        modCount++;
+        int sequence = order.remove(index);
+        Task removed = slots[sequence];
+        slots[sequence] = null;
+        if (order.isSparse()) {
+            renumber(toArray(new Task[size()]));
+        }
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return order.size();
+    }
+
+    /**
+     * Returns an iterator that walks the slots in order, rather than finding each position in the
+     * {@code TaskOrder}.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int slot = nextFilled(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < slots.length;
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Task task = slots[slot];
+                slot = nextFilled(slot + 1);
+                return task;
+            }
+        };
+    }
+
+    private int nextFilled(int slot) {
+        while (slot < slots.length && slots[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * Puts the given tasks into slots 0 to n - 1 with a fresh {@code TaskOrder}.
+     */
+    private void renumber(Task[] tasks) {
+        slots = Arrays.copyOf(tasks, Math.max(16, tasks.length * 2));
+        order = new TaskOrder(tasks.length);
+    }
+}
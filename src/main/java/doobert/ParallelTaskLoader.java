@@ -0,0 +1,524 @@
+package doobert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a text task file by memory-mapping it and parsing line-aligned chunks in parallel.
+ * <p>
+ * Each chunk is parsed on the common {@code ForkJoinPool} straight from the mapped bytes. Lines in the
+ * format written by {@code Task.appendFileString} are decoded field by field without regular expressions or
+ * date formatters; any other line falls back to {@code Task.fromFileString}, so the result is exactly what a
+ * line-by-line load would produce. Lines that are not valid tasks, including events with an invalid time
+ * range, are skipped with a message, as a {@code LazyTaskList} skips them. Chunks are merged in file order.
+ * Lines written before tasks had IDs give
+ * tasks without IDs, which {@code Storage} numbers afterwards. The header line a file may start with (see
+ * {@code TaskFileHeader}) is skipped.
+ */
+public class ParallelTaskLoader {
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    private static final int MAX_CHUNK_BYTES = 64 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final byte[][] MONTH_NAMES = new byte[12][];
+    static final String SKIPPED_MESSAGE = "Skipping invalid task format: ";
+
+    static {
+        for (int month = 1; month <= 12; month++) {
+            MONTH_NAMES[month - 1] = Task.getFileMonthName(month).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    // Bytes per chunk, or 0 to size chunks from the file and the number of threads
+    private final int chunkBytes;
+    private String lastLoadStatistics = "No tasks loaded yet.";
+
+    /**
+     * Constructs a loader that sizes its chunks from the file size and the number of threads.
+     */
+    public ParallelTaskLoader() {
+        this(0);
+    }
+
+    /**
+     * Constructs a loader that splits files into chunks of about the given size, so that tests can load a
+     * small file in several chunks.
+     *
+     * @param chunkBytes The chunk size in bytes, or 0 to size chunks automatically.
+     */
+    ParallelTaskLoader(int chunkBytes) {
+        assert chunkBytes >= 0 : "Chunk size should not be negative.";
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Loads every task in the given text task file. Lines that are not valid tasks are skipped with a message.
+     *
+     * @param file The text task file.
+     * @return The tasks in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    public List<Task> load(Path file) throws IOException {
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<long[]> chunks = splitIntoChunks(channel, size);
+
+            List<ChunkResult> results = new ArrayList<>(chunks.size());
+            if (chunks.size() == 1) {
+                results.add(parseChunk(channel, chunks.get(0)));
+            } else {
+                List<Future<ChunkResult>> futures = new ArrayList<>(chunks.size());
+                for (long[] chunk : chunks) {
+                    futures.add(ForkJoinPool.commonPool().submit(() -> parseChunk(channel, chunk)));
+                }
+                for (Future<ChunkResult> future : futures) {
+                    results.add(await(future));
+                }
+            }
+
+            int total = 0;
+            for (ChunkResult result : results) {
+                total += result.tasks.size();
+            }
+            List<Task> tasks = new ArrayList<>(total);
+            for (ChunkResult result : results) {
+                tasks.addAll(result.tasks);
+                for (String skippedLine : result.skippedLines) {
+                    System.out.println(SKIPPED_MESSAGE + skippedLine);
+                }
+            }
+
+            recordStatistics(tasks.size(), size, chunks.size(), System.nanoTime() - start);
+            return tasks;
+        }
+    }
+
+    /**
+     * Returns the throughput of the most recent load.
+     *
+     * @return A summary of tasks loaded, bytes read, time taken and chunks used.
+     */
+    public String getLastLoadStatistics() {
+        return lastLoadStatistics;
+    }
+
+    private void recordStatistics(int taskCount, long bytes, int chunkCount, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        lastLoadStatistics = String.format("Loaded %d tasks (%.1f MB) in %.1f ms: %.0f tasks/s, %.1f MB/s "
+                        + "using %d chunk(s)", taskCount, bytes / 1_048_576.0, elapsedNanos / 1_000_000.0,
+                taskCount / seconds, bytes / 1_048_576.0 / seconds, chunkCount);
+    }
+
+    private static ChunkResult await(Future<ChunkResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading tasks.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Splits the file into byte ranges that each end just after a line break (or at the end of the file).
+     */
+    private List<long[]> splitIntoChunks(FileChannel channel, long size) throws IOException {
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        long chunkSize = Math.max(MIN_CHUNK_BYTES, size / Math.max(1, threads * CHUNKS_PER_THREAD));
+        chunkSize = chunkBytes > 0 ? chunkBytes : Math.min(chunkSize, MAX_CHUNK_BYTES);
+
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize;
+            if (end >= size) {
+                end = size;
+            } else {
+                end = findLineEnd(channel, end, size, probe);
+            }
+            chunks.add(new long[] { start, end });
+            start = end;
+        }
+        if (chunks.isEmpty()) {
+            chunks.add(new long[] { 0, 0 });
+        }
+        return chunks;
+    }
+
+    private static long findLineEnd(FileChannel channel, long position, long size, ByteBuffer probe)
+            throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static ChunkResult parseChunk(FileChannel channel, long[] range) throws IOException {
+        ChunkResult result = new ChunkResult();
+        int length = (int) (range[1] - range[0]);
+        if (length == 0) {
+            return result;
+        }
+
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, range[0], length);
+        byte[] line = new byte[256];
+        int lineStart = range[0] == 0 ? headerLength(mapped, length) : 0;
+        int position = lineStart;
+        while (position < length) {
+            byte b = mapped.get(position);
+            if (b != '\n' && b != '\r') {
+                position++;
+                continue;
+            }
+            line = parseLine(mapped, lineStart, position, line, result);
+            position++;
+            if (b == '\r' && position < length && mapped.get(position) == '\n') {
+                position++;
+            }
+            lineStart = position;
+        }
+        if (lineStart < length) {
+            parseLine(mapped, lineStart, length, line, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the length of the header line at the start of the file, including its line break.
+     *
+     * @return The length, or 0 if the file does not start with a header line.
+     */
+    private static int headerLength(MappedByteBuffer mapped, int length) {
+        byte[] start = new byte[Math.min(length, 16)];
+        mapped.get(0, start);
+        if (!TaskFileHeader.isTextLine(start, start.length)) {
+            return 0;
+        }
+        int position = 0;
+        while (position < length && mapped.get(position) != '\n') {
+            position++;
+        }
+        return Math.min(position + 1, length);
+    }
+
+    /**
+     * Copies one line into the reusable line buffer and parses it.
+     *
+     * @return The line buffer, grown if the line did not fit.
+     */
+    private static byte[] parseLine(MappedByteBuffer mapped, int start, int end, byte[] line, ChunkResult result) {
+        int length = end - start;
+        if (line.length < length) {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        mapped.get(start, line, 0, length);
+
+        Task task = parseLine(line, length);
+        if (task != null) {
+            result.tasks.add(task);
+        } else {
+            result.skippedLines.add(decode(line, 0, length));
+        }
+        return line;
+    }
+
+    /**
+     * Parses one line of a text task file, without its line terminator.
+     *
+     * @param line The buffer holding the line.
+     * @param length The number of bytes in the line.
+     * @return The task, or {@code null} if the line is not a valid task, including an event with an invalid
+     *         time range.
+     */
+    static Task parseLine(byte[] line, int length) {
+        try {
+            Task task = parseCanonical(line, length);
+            if (task != null) {
+                return task;
+            }
+            return Task.fromFileString(decode(line, 0, length).trim());
+        } catch (IllegalArgumentException | DoobertException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a line in the exact format written by {@code Task.appendFileString}.
+     *
+     * @return The task, or {@code null} if the line is in any other form and needs the general parser.
+     * @throws DoobertException If an event has an invalid time range, as the general parser would report.
+     */
+    private static Task parseCanonical(byte[] line, int length) throws DoobertException {
+        int start = skipSpaces(line, 0, length);
+        int end = trimEnd(line, start, length);
+        int idStart = findFileId(line, start, end);
+        int id = 0;
+        if (idStart >= 0) {
+            id = number(line, idStart + 1, end - idStart - 1);
+            end = idStart - 3;
+        }
+        // Shortest line is "T | 0 | x"
+        if (end - start < 9 || line[start + 1] != ' ' || line[start + 2] != '|' || line[start + 3] != ' '
+                || line[start + 5] != ' ' || line[start + 6] != '|' || line[start + 7] != ' ') {
+            return null;
+        }
+        byte type = line[start];
+        byte done = line[start + 4];
+        if (done != '0' && done != '1') {
+            return null;
+        }
+
+        int descriptionStart = start + 8;
+        int bar = indexOf(line, (byte) '|', descriptionStart, end);
+        try {
+            Task task;
+            switch (type) {
+            case 'T':
+                task = bar < 0 && isTrimmed(line, descriptionStart, end)
+                        ? new Todo(decode(line, descriptionStart, end))
+                        : null;
+                break;
+            case 'D':
+                task = bar < 0 ? null : parseDeadline(line, descriptionStart, bar, end);
+                break;
+            case 'E':
+                task = bar < 0 ? null : parseEvent(line, descriptionStart, bar, end);
+                break;
+            default:
+                return null;
+            }
+            if (task != null && done == '1') {
+                task.markAsDone();
+            }
+            if (task != null && id > 0) {
+                task.assignId(id);
+            }
+            return task;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds a trailing {@code " | #<id>"} field, as written by {@code Task.toFileString} once a task has an ID.
+     *
+     * @return The index of the {@code #}, or -1 if the line does not end with an ID field.
+     */
+    private static int findFileId(byte[] line, int start, int end) {
+        int hash = end - 1;
+        while (hash > start && line[hash] >= '0' && line[hash] <= '9') {
+            hash--;
+        }
+        int digits = end - hash - 1;
+        if (digits < 1 || digits > Task.MAX_ID_DIGITS || line[hash] != Task.FILE_ID_PREFIX.charAt(0)
+                || hash - 3 <= start || line[hash - 1] != ' ' || line[hash - 2] != '|' || line[hash - 3] != ' ') {
+            return -1;
+        }
+        return hash;
+    }
+
+    private static Task parseDeadline(byte[] line, int descriptionStart, int bar, int end) {
+        int dateStart = bar + 2;
+        if (!hasDescriptionBefore(line, descriptionStart, bar, end)
+                || !isLegacyDeadlineMonth(monthAt(line, dateStart, end))) {
+            return null;
+        }
+        String description = decode(line, descriptionStart, bar - 1);
+
+        int afterDate = parseDate(line, dateStart, end);
+        if (afterDate == end) {
+            return new Deadline(description, toDate(line, dateStart));
+        }
+        // "MMM dd yyyy HHmm"
+        if (afterDate < 0 || afterDate + 5 != end || line[afterDate] != ' ' || !isDigits(line, afterDate + 1, end)) {
+            return null;
+        }
+        return new Deadline(description, LocalDateTime.of(toDate(line, dateStart),
+                LocalTime.of(number(line, afterDate + 1, 2), number(line, afterDate + 3, 2))));
+    }
+
+    private static Task parseEvent(byte[] line, int descriptionStart, int bar, int end) throws DoobertException {
+        int dateStart = bar + 2;
+        if (!hasDescriptionBefore(line, descriptionStart, bar, end)) {
+            return null;
+        }
+        // "MMM dd yyyy HHmm - HHmm"
+        int afterDate = parseDate(line, dateStart, end);
+        if (afterDate < 0 || afterDate + 12 != end || line[afterDate] != ' '
+                || !isDigits(line, afterDate + 1, afterDate + 5) || line[afterDate + 5] != ' '
+                || line[afterDate + 6] != '-' || line[afterDate + 7] != ' ' || !isDigits(line, afterDate + 8, end)) {
+            return null;
+        }
+        LocalDate date = toDate(line, dateStart);
+        LocalDateTime from = LocalDateTime.of(date,
+                LocalTime.of(number(line, afterDate + 1, 2), number(line, afterDate + 3, 2)));
+        LocalDateTime to = from.withHour(number(line, afterDate + 8, 2)).withMinute(number(line, afterDate + 10, 2));
+        return new Event(decode(line, descriptionStart, bar - 1), from, to);
+    }
+
+    /**
+     * Checks that the description runs up to {@code " | "} at the given bar, with no surrounding whitespace
+     * that the general parser would trim, and that no further bar follows.
+     */
+    private static boolean hasDescriptionBefore(byte[] line, int descriptionStart, int bar, int end) {
+        return bar + 2 < end && line[bar - 1] == ' ' && line[bar + 1] == ' '
+                && isTrimmed(line, descriptionStart, bar - 1) && indexOf(line, (byte) '|', bar + 1, end) < 0;
+    }
+
+    private static boolean isTrimmed(byte[] line, int start, int end) {
+        return start < end && (line[start] & 0xFF) > ' ' && (line[end - 1] & 0xFF) > ' ';
+    }
+
+    /**
+     * The general parser only recognises deadline months of exactly three ASCII letters.
+     */
+    private static boolean isLegacyDeadlineMonth(byte[] month) {
+        if (month == null || month.length != 3) {
+            return false;
+        }
+        for (byte b : month) {
+            if (!(b >= 'A' && b <= 'Z') && !(b >= 'a' && b <= 'z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks for a {@code "MMM dd yyyy"} date at the given position.
+     *
+     * @return The index just after the date, or -1 if there is no date in that form.
+     */
+    private static int parseDate(byte[] line, int start, int end) {
+        byte[] month = monthAt(line, start, end);
+        if (month == null) {
+            return -1;
+        }
+        int dayStart = start + month.length + 1;
+        int afterDate = dayStart + 7;
+        if (afterDate > end || line[start + month.length] != ' ' || !isDigits(line, dayStart, dayStart + 2)
+                || line[dayStart + 2] != ' ' || !isDigits(line, dayStart + 3, afterDate)) {
+            return -1;
+        }
+        return afterDate;
+    }
+
+    private static LocalDate toDate(byte[] line, int start) {
+        byte[] month = monthAt(line, start, line.length);
+        assert month != null : "Date should have been checked by parseDate.";
+        int dayStart = start + month.length + 1;
+        return LocalDate.of(number(line, dayStart + 3, 4), monthNumber(month), number(line, dayStart, 2));
+    }
+
+    private static byte[] monthAt(byte[] line, int start, int end) {
+        for (byte[] month : MONTH_NAMES) {
+            if (start + month.length <= end && regionEquals(line, start, month)) {
+                return month;
+            }
+        }
+        return null;
+    }
+
+    private static int monthNumber(byte[] month) {
+        for (int i = 0; i < MONTH_NAMES.length; i++) {
+            if (MONTH_NAMES[i] == month) {
+                return i + 1;
+            }
+        }
+        throw new IllegalStateException("Unknown month.");
+    }
+
+    private static boolean regionEquals(byte[] line, int start, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (line[start + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(byte[] line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                return false;
+            }
+        }
+        return start < end;
+    }
+
+    private static int number(byte[] line, int start, int digits) {
+        int value = 0;
+        for (int i = start; i < start + digits; i++) {
+            value = value * 10 + (line[i] - '0');
+        }
+        return value;
+    }
+
+    private static int indexOf(byte[] line, byte target, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (line[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(byte[] line, int start, int end) {
+        while (start < end && (line[start] == ' ' || line[start] == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(byte[] line, int start, int end) {
+        while (end > start && (line[end - 1] == ' ' || line[end - 1] == '\t')) {
+            end--;
+        }
+        return end;
+    }
+
+    private static String decode(byte[] line, int start, int end) {
+        return new String(line, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The tasks parsed from one chunk, plus the lines that were skipped, both in file order.
+     */
+    private static class ChunkResult {
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<String> skippedLines = new ArrayList<>();
+    }
+}
@@ -5,6 +5,32 @@ package doobert;
  * returning the corresponding command object.
  */
 public class Parser {
+    private final CommandMetrics metrics;
+
+    /**
+     * Constructs a {@code Parser} whose {@code stats} command shows metrics of its own.
+     */
+    public Parser() {
+        this(new CommandMetrics());
+    }
+
+    /**
+     * Constructs a {@code Parser} whose {@code stats} command shows the given metrics.
+     *
+     * @param metrics The metrics recorded for the commands this parser returns.
+     */
+    public Parser(CommandMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the metrics shown by the {@code stats} command.
+     *
+     * @return The metrics.
+     */
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
 
     /**
      * Parses the user input and returns the corresponding command.
@@ -22,7 +48,7 @@ public class Parser {
         case "bye":
             return new ExitCommand();
         case "list":
-            return new ListCommand();
+            return new ListCommand(arguments);
         case "todo":
             return new AddTodoCommand(arguments);
         case "deadline":
@@ -37,8 +63,16 @@ public class Parser {
             return new UnmarkCommand(arguments);
         case "find":
             return new FindCommand(arguments);
+        case "begin":
+            return new BeginCommand();
+        case "commit":
+            return new CommitCommand();
+        case "rollback":
+            return new RollbackCommand();
         case "view":
             return new ViewScheduleCommand(parts.length > 1 ? parts[1] : "");
+        case "stats":
+            return new StatsCommand(metrics);
         default:
             throw new DoobertException("Sorry, I do not understand that.");
         }
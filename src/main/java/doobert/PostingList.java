@@ -0,0 +1,120 @@
+package doobert;
+
+import java.util.Arrays;
+
+/**
+ * A sorted set of task sequence numbers, stored as a growable {@code int} array.
+ * Appending a number larger than all others, which is what adding a task does, takes constant time.
+ */
+public class PostingList {
+    private int[] sequences = new int[4];
+    private int size;
+
+    /**
+     * Adds a sequence number to the list.
+     *
+     * @param sequence The sequence number to add.
+     */
+    public void add(int sequence) {
+        if (size > 0 && sequences[size - 1] >= sequence) {
+            int index = Arrays.binarySearch(sequences, 0, size, sequence);
+            if (index >= 0) {
+                return;
+            }
+            insertAt(-index - 1, sequence);
+            return;
+        }
+        insertAt(size, sequence);
+    }
+
+    /**
+     * Removes a sequence number from the list.
+     *
+     * @param sequence The sequence number to remove.
+     * @return {@code true} if the number was in the list.
+     */
+    public boolean remove(int sequence) {
+        int index = Arrays.binarySearch(sequences, 0, size, sequence);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(sequences, index + 1, sequences, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns whether the list holds a sequence number.
+     *
+     * @param sequence The sequence number to look for.
+     * @return {@code true} if the number is in the list.
+     */
+    public boolean contains(int sequence) {
+        return Arrays.binarySearch(sequences, 0, size, sequence) >= 0;
+    }
+
+    /**
+     * Searches for a sequence number at or after a given rank, probing ahead in doubling steps first.
+     * Looking up ascending numbers one after another this way costs O(log gap) per lookup.
+     *
+     * @param sequence The sequence number to look for.
+     * @param fromIndex The rank to start searching from.
+     * @return The rank of the number if it is in the list, otherwise {@code -(insertion point) - 1}.
+     */
+    public int search(int sequence, int fromIndex) {
+        int low = fromIndex;
+        int step = 1;
+        while (low + step < size && sequences[low + step] < sequence) {
+            low += step;
+            step <<= 1;
+        }
+        return Arrays.binarySearch(sequences, low, Math.min(size, low + step + 1), sequence);
+    }
+
+    /**
+     * Returns the sequence number at the given rank.
+     *
+     * @param index The zero-based rank in ascending order.
+     * @return The sequence number.
+     */
+    public int get(int index) {
+        assert index >= 0 && index < size : "Posting index out of range.";
+        return sequences[index];
+    }
+
+    /**
+     * Returns the number of sequence numbers in the list.
+     *
+     * @return The size of the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the list is empty.
+     *
+     * @return {@code true} if the list holds no sequence numbers.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the sequence numbers in ascending order.
+     *
+     * @return A copy of the sequence numbers.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(sequences, size);
+    }
+
+    private void insertAt(int index, int sequence) {
+        if (size == sequences.length) {
+            sequences = Arrays.copyOf(sequences, size * 2);
+        }
+        System.arraycopy(sequences, index, sequences, index + 1, size - index);
+        sequences[index] = sequence;
+        size++;
+    }
+}
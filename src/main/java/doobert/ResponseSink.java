@@ -0,0 +1,16 @@
+package doobert;
+
+/**
+ * Receives a command's response piece by piece as it is produced, so that a long response such as a full
+ * {@code list} never has to be held in memory as one {@code String}.
+ */
+public interface ResponseSink {
+
+    /**
+     * Appends the next part of the response.
+     *
+     * @param text The text to append. Commands write whole lines where they can, and may reuse the
+     *             text afterwards, so a sink must copy whatever it keeps.
+     */
+    void write(CharSequence text);
+}
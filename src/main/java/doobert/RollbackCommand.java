@@ -0,0 +1,28 @@
+package doobert;
+
+/**
+ * Represents a command to end a transaction and undo all of its edits.
+ */
+public class RollbackCommand extends Command {
+
+    /**
+     * Executes the rollback command by undoing the transaction's edits. Nothing from the transaction
+     * has been saved, so nothing needs to be written.
+     *
+     * @param tasks   The task list whose edits are undone.
+     * @param ui      The UI instance (not used here).
+     * @param storage The storage instance, which stops holding back saves.
+     * @throws DoobertException If no transaction is open.
+     * @return A message with the number of edits undone.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui, Storage storage) throws DoobertException {
+        if (!tasks.isInTransaction()) {
+            throw new DoobertException("There is no open transaction. Use 'begin' to start one.");
+        }
+        int editCount = tasks.rollbackTransaction();
+        storage.endDeferredSaves(tasks);
+
+        return "Rolled back " + editCount + " change(s). Your tasks are as they were before 'begin'.";
+    }
+}
@@ -0,0 +1,80 @@
+package doobert;
+
+import java.time.LocalDate;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A date-sorted index of the deadlines and events in a {@code TaskList}.
+ * <p>
+ * An event is scheduled on the day it starts and a deadline on the day it is due; todos are not indexed.
+ * Each day maps to the sequence numbers of its tasks (see {@code TaskOrder}), so the tasks of a day are kept
+ * in list order and looking up a day or a range of days takes O(log n) plus the size of the result.
+ */
+public class ScheduleIndex {
+    private final TreeMap<LocalDate, PostingList> tasksByDate = new TreeMap<>();
+
+    /**
+     * Returns the day a task is scheduled on.
+     *
+     * @param task The task.
+     * @return The start day of an event, the due day of a deadline, or {@code null} for any other task.
+     */
+    public static LocalDate dateOf(Task task) {
+        if (task instanceof Event) {
+            return ((Event) task).fromDateTime.toLocalDate();
+        } else if (task instanceof Deadline) {
+            Deadline deadline = (Deadline) task;
+            return deadline.byDateTime != null ? deadline.byDateTime.toLocalDate() : deadline.byDate;
+        }
+        return null;
+    }
+
+    /**
+     * Adds a task to the index.
+     *
+     * @param task The task.
+     * @param sequence The task's sequence number.
+     */
+    public void add(Task task, int sequence) {
+        LocalDate date = dateOf(task);
+        if (date != null) {
+            tasksByDate.computeIfAbsent(date, key -> new PostingList()).add(sequence);
+        }
+    }
+
+    /**
+     * Removes a deleted task from the index.
+     *
+     * @param task The deleted task.
+     * @param sequence The sequence number the task had.
+     */
+    public void remove(Task task, int sequence) {
+        LocalDate date = dateOf(task);
+        PostingList tasks = date == null ? null : tasksByDate.get(date);
+        if (tasks != null && tasks.remove(sequence) && tasks.isEmpty()) {
+            tasksByDate.remove(date);
+        }
+    }
+
+    /**
+     * Returns the tasks scheduled on a day.
+     *
+     * @param date The day.
+     * @return The sequence numbers of the day's tasks in list order, or {@code null} if there are none.
+     */
+    public PostingList get(LocalDate date) {
+        return tasksByDate.get(date);
+    }
+
+    /**
+     * Returns the days with scheduled tasks in an inclusive range, in date order.
+     *
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @return A view of the days in the range mapped to their tasks.
+     */
+    public NavigableMap<LocalDate, PostingList> getRange(LocalDate from, LocalDate to) {
+        return tasksByDate.subMap(from, true, to, true);
+    }
+}
@@ -0,0 +1,35 @@
+package doobert;
+
+/**
+ * Represents a command to show how long each class of command has spent being parsed, executed and saved.
+ */
+public class StatsCommand extends Command {
+    private final CommandMetrics metrics;
+
+    /**
+     * Constructs a {@code StatsCommand} showing the given metrics.
+     *
+     * @param metrics The metrics recorded so far.
+     */
+    public StatsCommand(CommandMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Executes the stats command by formatting the recorded histograms.
+     *
+     * @param tasks   The task list (not used here).
+     * @param ui      The UI instance (not used here).
+     * @param storage The storage instance (not used here).
+     * @return The count and p50, p99 and maximum time of each stage of each command class.
+     */
+    @Override
+    public String execute(TaskList tasks, Ui ui, Storage storage) {
+        return metrics.format();
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
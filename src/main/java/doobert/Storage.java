@@ -1,13 +1,45 @@
 package doobert;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The {@code Storage} class handles loading tasks from a file and saving tasks to a file.
+ * The task file is always replaced atomically through a {@code TaskFileWriter}.
+ * <p>
+ * In journal mode, each save appends the recorded {@code TaskChange}s to a {@code Journal} instead of
+ * rewriting the whole file. The journal is compacted into a new base file in the background once it
+ * passes a size threshold. The base file records which journal it includes, so a journal left behind by an
+ * interrupted compaction is never applied twice, and such a compaction is finished on the next load.
+ * <p>
+ * The base file also records the next task ID, and journalled adds keep the IDs they gave out, so that a
+ * {@code TaskList} built with {@link #getNextId} never gives out the ID of a task deleted before a restart.
  */
 public class Storage {
+    private static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
+
     private final String FILE_PATH;
+    private final Journal journal;
+    private final long compactionThresholdBytes;
+    private final TaskFileWriter fileWriter = new TaskFileWriter();
+    private final ParallelTaskLoader loader = new ParallelTaskLoader();
+    private TaskFileFormat fileFormat = TaskFileFormat.TEXT;
+    private boolean isLazyLoading;
+    // The stored next task ID found by the last load, or the lazily loaded list that works it out
+    private int loadedNextId;
+    private LazyTaskList lazyTasks;
+    private ExecutorService compactor;
+    private Future<?> pendingCompaction;
+    // Only used on the thread that edits the task list, like prepareSave
+    private int deferDepth;
+    private int deferredSaveCount;
 
     /**
      * Constructs a {@code Storage} object with the specified file path.
@@ -15,13 +47,60 @@ public class Storage {
      * @param filePath The path to the file where tasks are stored.
      */
     public Storage(String filePath) {
+        this(filePath, false);
+    }
+
+    /**
+     * Constructs a {@code Storage} object with the specified file path, optionally in journal mode.
+     *
+     * @param filePath The path to the file where tasks are stored.
+     * @param isJournalEnabled Whether edits should be appended to a journal instead of rewriting the file.
+     */
+    public Storage(String filePath, boolean isJournalEnabled) {
+        this(filePath, isJournalEnabled, DEFAULT_COMPACTION_THRESHOLD_BYTES);
+    }
+
+    /**
+     * Constructs a {@code Storage} object in journal mode with a custom compaction threshold.
+     *
+     * @param filePath The path to the file where tasks are stored.
+     * @param isJournalEnabled Whether edits should be appended to a journal instead of rewriting the file.
+     * @param compactionThresholdBytes The journal size after which it is compacted into the base file.
+     */
+    public Storage(String filePath, boolean isJournalEnabled, long compactionThresholdBytes) {
         assert filePath != null : "File path should not be null.";
+        assert compactionThresholdBytes > 0 : "Compaction threshold should be positive.";
         this.FILE_PATH = filePath;
+        this.journal = isJournalEnabled ? new Journal(filePath) : null;
+        this.compactionThresholdBytes = compactionThresholdBytes;
+    }
+
+    /**
+     * Sets the format the task file is saved in. Files are always loaded in whichever format they are in,
+     * and a legacy text file is migrated to the binary format the first time it is loaded in binary mode.
+     *
+     * @param fileFormat The format to save the task file in.
+     */
+    public void setFileFormat(TaskFileFormat fileFormat) {
+        assert fileFormat != null : "File format should not be null.";
+        this.fileFormat = fileFormat;
+    }
 
+    /**
+     * Sets whether {@link #loadTasks()} returns a {@code LazyTaskList} that reads tasks from the file on demand,
+     * instead of reading every task up front. A text file that is about to be migrated to the binary format
+     * is still read up front.
+     *
+     * @param isLazyLoading Whether tasks should be loaded lazily.
+     */
+    public void setLazyLoading(boolean isLazyLoading) {
+        this.isLazyLoading = isLazyLoading;
     }
 
     /**
      * Loads tasks from the file into a list.
+     * In journal mode, the journal is replayed on top of the tasks read from the base file, and a compaction
+     * that stopped before writing the base file is finished, which means loading every task up front.
      *
      * @return A list of tasks retrieved from the file.
      * @throws DoobertException If the file is not found or cannot be read.
@@ -29,53 +108,355 @@ public class Storage {
     public List<Task> loadTasks() throws DoobertException {
         List<Task> listOfItems = new ArrayList<>();
         File file = new File(FILE_PATH);
+        boolean hasJournal = journal != null && journal.exists();
+        loadedNextId = 0;
+        lazyTasks = null;
 
-        if (!file.exists()) {
+        if (!file.exists() && !hasJournal) {
             throw new DoobertException("No previous tasks found.");
         }
 
-        StringBuilder response = new StringBuilder("Loaded tasks from file:\n");
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                try {
-                    Task task = Task.fromFileString(line.trim());
-                    listOfItems.add(task);
-                    response.append(task).append("\n");
-                } catch (IllegalArgumentException e) {
-                    System.out.println("Skipping invalid task format: " + line);
-                }
+        try {
+            if (isLazyLoading && file.exists() && !needsMigration(file) && !(hasJournal && journal.hasRotated())) {
+                lazyTasks = LazyTaskList.open(file.toPath(), hasJournal ? journal : null);
+                return lazyTasks;
+            }
+            if (file.exists()) {
+                loadedNextId = readBaseFile(file, listOfItems).getNextId();
+            }
+            if (hasJournal) {
+                List<TaskChange> changes = journal.readChanges();
+                Journal.apply(changes, listOfItems);
+                loadedNextId = Math.max(loadedNextId, Journal.nextIdAfter(changes));
+            }
+            if (!listOfItems.isEmpty()) {
+                loadedNextId = Math.max(loadedNextId, listOfItems.get(listOfItems.size() - 1).getId() + 1);
+            }
+            if (hasJournal && journal.hasRotated()) {
+                finishCompaction(file, listOfItems);
             }
         } catch (IOException e) {
             throw new DoobertException("Error loading tasks: " + e.getMessage());
         }
 
-        // Return formatted string of loaded tasks
         return listOfItems;
     }
 
+    /**
+     * Returns the ID the next task added to the list returned by {@link #loadTasks()} should get at least:
+     * one more than the highest ID any task in the task file or journal has had, including tasks since
+     * deleted. For a lazily loaded list this waits for the journal to be read.
+     *
+     * @return The next ID, or 0 if nothing has been loaded or nothing loaded records it.
+     */
+    public int getNextId() {
+        return lazyTasks != null ? lazyTasks.getNextId() : loadedNextId;
+    }
+
+    private boolean needsMigration(File file) throws IOException {
+        return fileFormat == TaskFileFormat.BINARY && TaskFileFormat.detect(file.toPath()) == TaskFileFormat.TEXT;
+    }
+
+    /**
+     * Writes the tasks loaded from the base file and both journals as a new base file, then deletes the
+     * journals. The new base file records the newest journal's generation, so if the program stops before the
+     * journals are deleted they are skipped on the next load.
+     */
+    private void finishCompaction(File file, List<Task> listOfItems) throws IOException {
+        long generation = journal.getGeneration();
+        if (generation == 0) {
+            // A journal without a generation cannot be told apart once compacted, so it is left to be replayed
+            return;
+        }
+        if (writeTasks(file, listOfItems, new TaskFileHeader(generation, loadedNextId))) {
+            journal.discardAll();
+        }
+    }
+
+    /**
+     * Reads the tasks of the base file into the given list.
+     *
+     * @return The header of the base file, or an empty header if it was cut off.
+     */
+    private TaskFileHeader readBaseFile(File file, List<Task> listOfItems) throws IOException, DoobertException {
+        TaskFileHeader header = TaskFileHeader.EMPTY;
+        if (TaskFileFormat.detect(file.toPath()) == TaskFileFormat.BINARY) {
+            try {
+                header = TaskFileHeader.read(file.toPath());
+                TaskFileFormat.readBinary(file.toPath(), listOfItems);
+            } catch (EOFException e) {
+                // Keep the tasks before the cut rather than losing them all at the next save
+                System.out.println(e.getMessage());
+            }
+            assignMissingIds(listOfItems);
+            return header;
+        }
+
+        header = TaskFileHeader.read(file.toPath());
+        readTasks(file, listOfItems);
+        assignMissingIds(listOfItems);
+        if (fileFormat == TaskFileFormat.BINARY) {
+            migrateToBinary(file, listOfItems, header);
+        }
+        return header;
+    }
+
+    /**
+     * Numbers the tasks of a file written before tasks had IDs by their position in the file, the same IDs a
+     * {@code LazyTaskList} gives them. The IDs are kept from the next save onwards.
+     */
+    private static void assignMissingIds(List<Task> listOfItems) {
+        for (int i = 0; i < listOfItems.size(); i++) {
+            Task task = listOfItems.get(i);
+            if (task.getId() == 0) {
+                task.assignId(i + 1);
+            }
+        }
+    }
+
+    /**
+     * Rewrites a legacy text task file in the binary format, keeping the original as a backup.
+     * Runs before the journal is replayed, so the journal still applies on top of the migrated file.
+     */
+    private void migrateToBinary(File file, List<Task> listOfItems, TaskFileHeader header) throws IOException {
+        File backup = new File(FILE_PATH + ".bak");
+        Files.copy(file.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        fileWriter.write(file.toPath(), listOfItems, TaskFileFormat.BINARY, header);
+        System.out.println("Migrated " + file + " to the binary task format. The text version is kept at "
+                + backup + ".");
+    }
+
+    private void readTasks(File file, List<Task> listOfItems) throws IOException, DoobertException {
+        listOfItems.addAll(loader.load(file.toPath()));
+    }
+
+    /**
+     * Returns the throughput of the most recent text file load.
+     *
+     * @return A summary of tasks loaded, bytes read and time taken.
+     */
+    public String getLoadStatistics() {
+        return loader.getLastLoadStatistics();
+    }
 
     /**
      * Saves the current task list to the file.
+     * In journal mode, only the changes recorded since the last save are appended to the journal.
      *
      * @param taskList The {@code TaskList} contains the tasks to be saved.
      */
     public void saveTask(TaskList taskList) {
+        if (deferSave()) {
+            return;
+        }
+        long start = System.nanoTime();
+        persist(prepareSave(taskList));
+        CommandMetrics.recordPersist(System.nanoTime() - start);
+    }
+
+    /**
+     * Starts deferring saves. Until {@link #endDeferredSaves} is called, {@link #saveTask} writes nothing and
+     * the task list keeps recording its edits, so that a long run of commands is written in one go.
+     * Deferrals nest: only ending the outermost one saves, so a transaction inside a batch is still written
+     * with the rest of the batch.
+     */
+    public void beginDeferredSaves() {
+        if (deferDepth == 0) {
+            deferredSaveCount = 0;
+        }
+        deferDepth++;
+    }
+
+    /**
+     * Ends the innermost deferral, and once no deferral is left, saves every edit made while saves were deferred.
+     *
+     * @param taskList The {@code TaskList} contains the tasks to be saved.
+     * @return The number of saves deferred since the outermost deferral began.
+     */
+    public int endDeferredSaves(TaskList taskList) {
+        assert deferDepth > 0 : "Saves should be deferred.";
+        deferDepth--;
+        if (deferDepth == 0) {
+            saveTask(taskList);
+        }
+        return deferredSaveCount;
+    }
+
+    /**
+     * Counts a save that is being deferred.
+     *
+     * @return Whether saves are currently deferred, in which case the caller should not write anything.
+     */
+    protected boolean deferSave() {
+        if (deferDepth > 0) {
+            deferredSaveCount++;
+        }
+        return deferDepth > 0;
+    }
+
+    /**
+     * Captures what needs to be written for the given task list without doing any file I/O.
+     * This must run on the thread that edits the task list; the result can be written later by {@link #persist}.
+     *
+     * @param taskList The {@code TaskList} whose state should be saved.
+     * @return The pending save for the edits made since the previous call.
+     */
+    PendingSave prepareSave(TaskList taskList) {
+        List<TaskChange> changes = taskList.drainChanges();
+
+        // A null change list means too many edits piled up to journal them individually
+        boolean needsSnapshot = journal == null || changes == null || !new File(FILE_PATH).exists()
+                || (journal.size() >= compactionThresholdBytes && !isCompacting());
+        if (needsSnapshot) {
+            List<Task> snapshot = taskList.snapshot();
+            // Read after the snapshot, so that it is past every task in it
+            return PendingSave.ofSnapshot(snapshot, taskList.getNextId());
+        }
+        return PendingSave.ofChanges(changes);
+    }
+
+    /**
+     * Writes a pending save to disk.
+     * A snapshot is written as the whole task file, or compacted into the base file in journal mode;
+     * any changes are then appended to the journal.
+     *
+     * @param save The pending save to write.
+     */
+    void persist(PendingSave save) {
+        if (save.getSnapshot() != null && journal == null) {
+            writeTasks(new File(FILE_PATH), save.getSnapshot(), new TaskFileHeader(0, save.getNextId()));
+            return;
+        }
+
         try {
-            File file = new File(FILE_PATH);
-            file.getParentFile().mkdirs();
-            PrintWriter writer = new PrintWriter(new FileWriter(file));
-            List<Task> listOfItems = taskList.getList();
-            for (Task task : listOfItems) {
-                writer.println(task.toFileString());
+            if (save.getSnapshot() != null) {
+                compact(save.getSnapshot(), save.getNextId());
+            }
+            journal.append(save.getChanges());
+        } catch (IOException e) {
+            System.out.println("Error saving tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for outstanding background writes to finish. Called before the program exits.
+     */
+    public void close() {
+        awaitCompaction();
+    }
+
+    /**
+     * Rotates the journal and writes the given snapshot as the new base file on a background thread.
+     * Tasks in the snapshot may be marked or unmarked while it is written; this is harmless because those
+     * edits are also recorded in the new journal, and replaying a mark or unmark is idempotent.
+     *
+     * The new base file records the generation of the rotated journal, which is deleted once the file is in
+     * place.
+     *
+     * @param snapshot A copy of the task list, which already includes every change written to the journal.
+     * @param nextId The ID the task list would give the next added task when the snapshot was taken.
+     * @throws IOException If the journal cannot be rotated.
+     */
+    private synchronized void compact(List<Task> snapshot, int nextId) throws IOException {
+        awaitCompaction();
+        TaskFileHeader header = new TaskFileHeader(journal.rotate(), nextId);
+
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "doobert-journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        pendingCompaction = compactor.submit(() -> {
+            if (writeTasks(new File(FILE_PATH), snapshot, header)) {
+                journal.discardRotated();
             }
-            writer.close();
+        });
+    }
+
+    private synchronized boolean isCompacting() {
+        return pendingCompaction != null && !pendingCompaction.isDone();
+    }
+
+    /**
+     * Blocks until any background compaction has finished writing the base file.
+     */
+    public synchronized void awaitCompaction() {
+        if (pendingCompaction == null) {
+            return;
+        }
+        try {
+            pendingCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error compacting journal: " + e.getCause().getMessage());
+        }
+        pendingCompaction = null;
+    }
+
+    private boolean writeTasks(File file, List<Task> listOfItems, TaskFileHeader header) {
+        try {
+            fileWriter.write(file.toPath(), listOfItems, fileFormat, header);
             assert file.exists() : "Error: File doobert.txt was not created!";
+            return true;
         } catch (IOException e) {
             System.out.println("Error saving tasks: " + e.getMessage());
+            return false;
         }
     }
 
+    /**
+     * Represents work for {@link #persist}: an optional snapshot of the whole list with the next task ID at
+     * that point, followed by changes made after that snapshot was taken. Consecutive pending saves can be
+     * merged into one write.
+     */
+    static class PendingSave {
+        private final List<Task> snapshot;
+        private final int nextId;
+        private final List<TaskChange> changes;
+
+        private PendingSave(List<Task> snapshot, int nextId, List<TaskChange> changes) {
+            this.snapshot = snapshot;
+            this.nextId = nextId;
+            this.changes = changes;
+        }
+
+        static PendingSave ofSnapshot(List<Task> snapshot, int nextId) {
+            return new PendingSave(snapshot, nextId, new ArrayList<>());
+        }
+
+        static PendingSave ofChanges(List<TaskChange> changes) {
+            return new PendingSave(null, 0, changes);
+        }
+
+        List<Task> getSnapshot() {
+            return snapshot;
+        }
 
+        int getNextId() {
+            return nextId;
+        }
+
+        List<TaskChange> getChanges() {
+            return changes;
+        }
+
+        /**
+         * Combines this save with a later one. A later snapshot already contains every earlier edit,
+         * so it replaces this save entirely; later changes are appended after this save's changes.
+         *
+         * @param later The save captured after this one.
+         * @return A single save equivalent to writing this save and then the later one.
+         */
+        PendingSave merge(PendingSave later) {
+            if (later.snapshot != null) {
+                return later;
+            }
+            List<TaskChange> mergedChanges = new ArrayList<>(changes);
+            mergedChanges.addAll(later.changes);
+            return new PendingSave(snapshot, nextId, mergedChanges);
+        }
+    }
 }
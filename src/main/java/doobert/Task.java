@@ -2,14 +2,41 @@ package doobert;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.util.Arrays;
+import java.util.Locale;
 
 
 public abstract class Task {
+    // Same month names the "MMM" pattern produces, so hand-formatted dates match the existing file format
+    private static final String[] MONTH_NAMES = new String[12];
+    private static final DateTimeFormatter FILE_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("MMM dd yyyy HHmm");
+    static final String FILE_ID_PREFIX = "#";
+    // An int has at most this many digits without risking overflow
+    static final int MAX_ID_DIGITS = 9;
+
+    static {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        for (Month month : Month.values()) {
+            MONTH_NAMES[month.ordinal()] = month.getDisplayName(TextStyle.SHORT, locale);
+        }
+    }
+
     protected String description;
     protected boolean isDone;
 
+    // Stable ID given by the TaskList and kept in the task file; 0 until the task is added to a list
+    private volatile int id;
+
+    // Display and file forms, rendered on first use and dropped whenever the task changes. They are only set
+    // while holding the task's lock, so a render racing with a change (e.g. from a background save) is not kept.
+    private volatile String displayString;
+    private volatile String fileString;
+
     public Task(String description) {
         this.description = description;
         this.isDone = false;
@@ -19,17 +46,19 @@ public abstract class Task {
         return (isDone ? "X" : " "); // mark done task with X
     }
 
-    public String markAsDone() {
+    public synchronized String markAsDone() {
         if (!isDone) {
             isDone = true;
+            invalidateRendering();
             return "Nice! I've marked this task as done: \n" + "   [X] " + description;
         }
         return "    This task is already marked as done.\n";
     }
 
-    public String markAsUndone() {
+    public synchronized String markAsUndone() {
         if (isDone) {
             isDone = false;
+            invalidateRendering();
             return "OK, I've marked this task as not done yet: \n" + "   [ ] " + description;
         }
         return "    This task is already marked as not done.\n";
@@ -39,12 +68,125 @@ public abstract class Task {
         return description;
     }
 
-    // Converts task to savable string format
-    public abstract String toFileString();
+    /**
+     * Returns the stable ID of the task, which stays the same when other tasks are added or deleted.
+     *
+     * @return The ID, or 0 if the task has not been added to a list yet.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gives the task its stable ID. Called when the task is added to a list, or loaded from a file that
+     * predates IDs.
+     *
+     * @param id The positive ID.
+     */
+    public synchronized void assignId(int id) {
+        assert id > 0 : "Task ID should be positive.";
+        this.id = id;
+        fileString = null;
+    }
+
+    /**
+     * Converts the task to its savable string format, followed by {@code " | #<id>"} once the task has an ID.
+     * The result is rendered once and reused until the task changes, so saving an unchanged list does not
+     * format it again.
+     *
+     * @return The task as a line of the task file.
+     */
+    public String toFileString() {
+        String rendered = fileString;
+        return rendered != null ? rendered : cacheFileString();
+    }
+
+    private synchronized String cacheFileString() {
+        if (fileString == null) {
+            StringBuilder out = new StringBuilder();
+            appendFileString(out);
+            if (id > 0) {
+                out.append(" | ").append(FILE_ID_PREFIX).append(id);
+            }
+            fileString = out.toString();
+        }
+        return fileString;
+    }
+
+    /**
+     * Appends the savable string format of the task, without its ID, to the given builder.
+     * This renders the task; {@link #toFileString()} adds the ID and caches the result.
+     *
+     * @param out The builder to append to.
+     */
+    public abstract void appendFileString(StringBuilder out);
+
+    /**
+     * Drops the cached display and file forms after the task has changed. Must be called while holding
+     * the task's lock.
+     */
+    private void invalidateRendering() {
+        displayString = null;
+        fileString = null;
+    }
+
+    /**
+     * Appends the common {@code "    X | 1 | description"} prefix of the file format.
+     *
+     * @param out The builder to append to.
+     * @param type The task type letter.
+     */
+    protected void appendFilePrefix(StringBuilder out, char type) {
+        out.append("    ").append(type).append(" | ").append(isDone ? '1' : '0').append(" | ").append(description);
+    }
+
+    /**
+     * Appends a date in the {@code "MMM dd yyyy"} file format without going through a formatter.
+     *
+     * @param out The builder to append to.
+     * @param date The date to append.
+     */
+    protected static void appendFileDate(StringBuilder out, LocalDate date) {
+        out.append(MONTH_NAMES[date.getMonthValue() - 1]).append(' ');
+        appendPadded(out, date.getDayOfMonth(), 2);
+        out.append(' ');
+        appendPadded(out, date.getYear(), 4);
+    }
+
+    /**
+     * Appends a time in the {@code "HHmm"} file format without going through a formatter.
+     *
+     * @param out The builder to append to.
+     * @param time The time to append.
+     */
+    protected static void appendFileTime(StringBuilder out, LocalTime time) {
+        appendPadded(out, time.getHour(), 2);
+        appendPadded(out, time.getMinute(), 2);
+    }
+
+    /**
+     * Returns the month name used by the {@code "MMM"} part of the file format.
+     *
+     * @param month The month, from 1 (January) to 12 (December).
+     * @return The short month name in the default locale.
+     */
+    static String getFileMonthName(int month) {
+        return MONTH_NAMES[month - 1];
+    }
+
+    private static void appendPadded(StringBuilder out, int value, int width) {
+        for (int limit = 10, digits = 1; digits < width; limit *= 10, digits++) {
+            if (value < limit) {
+                out.append('0');
+            }
+        }
+        out.append(value);
+    }
 
 
     /**
      * Parses a task from a formatted file string and returns the corresponding Task object.
+     * Lines written before tasks had IDs have no trailing ID field, and give a task without an ID.
      *
      * @param fileString The formatted string representing a task in the file.
      * @return The Task object (Todo, Deadline, or Event) based on the parsed data.
@@ -54,6 +196,12 @@ public abstract class Task {
     public static Task fromFileString(String fileString) throws DoobertException {
         String[] parts = fileString.split("\\s*\\|\\s*");
 
+        // The ID comes after every other field, so a todo needs at least four parts to have one
+        int id = parts.length > 3 ? parseFileId(parts[parts.length - 1].trim()) : 0;
+        if (id > 0) {
+            parts = Arrays.copyOf(parts, parts.length - 1);
+        }
+
         if (parts.length < 3) {
             throw new IllegalArgumentException("Invalid file format: " + fileString);
         }
@@ -62,12 +210,46 @@ public abstract class Task {
         boolean isDone = parts[1].trim().equals("1");
         String description = parts[2].trim();
 
+        Task task;
         switch (type) {
-        case "T": return createTodo(description, isDone);
-        case "D": return createDeadline(parts, description, isDone, fileString);
-        case "E": return createEvent(parts, description, isDone, fileString);
-        default: throw new IllegalArgumentException("Unknown task type in file: " + type);
+        case "T":
+            task = createTodo(description, isDone);
+            break;
+        case "D":
+            task = createDeadline(parts, description, isDone, fileString);
+            break;
+        case "E":
+            task = createEvent(parts, description, isDone, fileString);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown task type in file: " + type);
+        }
+        if (id > 0) {
+            task.assignId(id);
         }
+        return task;
+    }
+
+    /**
+     * Parses the {@code #<id>} field of a task file line.
+     *
+     * @param field The trimmed field.
+     * @return The ID, or 0 if the field is not an ID.
+     */
+    static int parseFileId(String field) {
+        int length = field.length();
+        if (length < 2 || length > MAX_ID_DIGITS + 1 || !field.startsWith(FILE_ID_PREFIX)) {
+            return 0;
+        }
+        int id = 0;
+        for (int i = 1; i < length; i++) {
+            char c = field.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
     }
 
     /**
@@ -99,39 +281,42 @@ public abstract class Task {
         }
         String by = parts[3].trim();
 
-        try {
-            Deadline deadline = new Deadline(description, convertDeadlineFormat(by));
-            if (isDone) deadline.markAsDone();
-            return deadline;
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Error parsing deadline: " + by);
-        }
+        Deadline deadline = parseFileDeadline(description, by);
+        if (isDone) deadline.markAsDone();
+        return deadline;
     }
 
     /**
-     * Converts various deadline formats into a standardized format.
+     * Creates a deadline from the due date of a task file line, which may be in any format the file has used.
      *
-     * @param by The deadline string in different formats.
-     * @return The standardized deadline format.
+     * @param description The task description.
+     * @param by The due date string.
+     * @return A Deadline object.
      * @throws IllegalArgumentException If the format is unknown or invalid.
      */
-    private static String convertDeadlineFormat(String by) {
-        DateTimeFormatter inputFormatter = DateTimeFormatter.ofPattern("MMM dd yyyy HHmm");
-        DateTimeFormatter inputFormatterForDateOnly = DateTimeFormatter.ofPattern("MMM dd yyyy");
-        DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("d/M/uuuu HHmm");
-        DateTimeFormatter outputFormatterDateOnly = DateTimeFormatter.ofPattern("yyyy-M-d");
-
-        if (by.matches("[A-Za-z]{3} \\d{2} \\d{4} \\d{4}")) {
-            // Convert from "MMM dd yyyy HHmm" to "d/M/yyyy HHmm"
-            return LocalDateTime.parse(by, inputFormatter).format(outputFormatter);
-        } else if (by.matches("\\d{1,2}/\\d{1,2}/\\d{4} \\d{3,4}")) {
+    private static Deadline parseFileDeadline(String description, String by) {
+        if (DateTimeLexer.hasMonthShape(by, new int[] {2, 2}, new int[] {4, 4}, new int[] {4, 4})) {
+            // "MMM dd yyyy HHmm"
+            LocalDateTime byDateTime = DateTimeLexer.parseTextDateTime(by);
+            if (byDateTime == null) {
+                throw new IllegalArgumentException("Error parsing deadline: " + by);
+            } else if (byDateTime.getYear() > 9999) {
+                // Past what "d/M/yyyy HHmm" can hold, as when this was converted to that form and parsed again
+                throw new IllegalArgumentException("Invalid weekday name: Use a valid weekday like 'Sunday'.");
+            }
+            return new Deadline(description, byDateTime);
+        } else if (DateTimeLexer.isSlashDateTime(by)) {
             // Already in "d/M/yyyy HHmm", use as is
-            return by;
-        } else if (by.matches("[A-Za-z]{3} \\d{1,2} \\d{4}")) {
-            // Convert from "MMM dd yyyy" to "yyyy-M-d"
-            return LocalDate.parse(by, inputFormatterForDateOnly).format(outputFormatterDateOnly);
-        } else if (by.matches("\\d{4}-\\d{1,2}-\\d{1,2}")) {
-            return by;
+            return new Deadline(description, by);
+        } else if (DateTimeLexer.hasMonthShape(by, new int[] {1, 2}, new int[] {4, 4})) {
+            // "MMM dd yyyy"
+            LocalDate byDate = DateTimeLexer.parseTextDate(by);
+            if (byDate == null) {
+                throw new IllegalArgumentException("Error parsing deadline: " + by);
+            }
+            return new Deadline(description, byDate);
+        } else if (DateTimeLexer.isDashDate(by)) {
+            return new Deadline(description, by);
         }
         throw new IllegalArgumentException("Unknown deadline format: " + by);
     }
@@ -158,40 +343,82 @@ public abstract class Task {
             throw new IllegalArgumentException("Invalid Event format (missing '-'): " + fileString);
         }
 
-        String from = timeParts[0].trim().replaceAll("\\s+", " ");
-        String to = timeParts[1].trim().replaceAll("\\s+", "");
+        String from = collapseWhitespace(timeParts[0].trim(), " ");
+        String to = collapseWhitespace(timeParts[1].trim(), "");
 
-        try {
-            DateTimeFormatter fileFormatterWithDate = DateTimeFormatter.ofPattern("MMM dd yyyy HHmm");
-            DateTimeFormatter outputFormatterTimeOnly = DateTimeFormatter.ofPattern("HHmm");
+        LocalDateTime fromDateTime = DateTimeLexer.parseTextDateTime(from);
+        if (fromDateTime == null) {
+            try {
+                // Only reached for invalid dates, to report the same error the formatter has always given
+                fromDateTime = LocalDateTime.parse(from, FILE_DATE_TIME_FORMATTER);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Error parsing event: " + fileString + " -> " + e.getMessage());
+            }
+        }
 
-            LocalDateTime fromDateTime = LocalDateTime.parse(from, fileFormatterWithDate);
+        if (to.length() == 3) {
+            to = "0" + to; // Convert "500" -> "0500"
+        }
+        LocalDateTime toDateTime = fromDateTime.withHour(Integer.parseInt(to.substring(0, 2)))
+                .withMinute(Integer.parseInt(to.substring(2)));
 
-            if (to.length() == 3) {
-                to = "0" + to; // Convert "500" -> "0500"
-            }
-            LocalDateTime toDateTime = fromDateTime.withHour(Integer.parseInt(to.substring(0, 2)))
-                    .withMinute(Integer.parseInt(to.substring(2)));
+        if (fromDateTime.isAfter(toDateTime)) {
+            throw new DoobertException("Invalid event time: The start time ('from') cannot be "
+                    + "after the end time ('to').");
+        }
 
-            if (fromDateTime.isAfter(toDateTime)) {
-                throw new DoobertException("Invalid event time: The start time ('from') cannot be "
-                        + "after the end time ('to').");
-            }
+        Event event = new Event(description, fromDateTime, toDateTime);
+        if (isDone) event.markAsDone();
+        return event;
+    }
 
-            Event event = new Event(description, fromDateTime.format(fileFormatterWithDate),
-                    toDateTime.format(outputFormatterTimeOnly));
-            if (isDone) event.markAsDone();
-            return event;
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Error parsing event: " + fileString + " -> " + e.getMessage());
+    /**
+     * Replaces every run of whitespace, as matched by {@code \s+}, with the given replacement.
+     */
+    private static String collapseWhitespace(String text, String replacement) {
+        StringBuilder out = new StringBuilder(text.length());
+        boolean isInRun = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean isWhitespace = c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+            if (!isWhitespace) {
+                out.append(c);
+            } else if (!isInRun) {
+                out.append(replacement);
+            }
+            isInRun = isWhitespace;
         }
+        return out.toString();
     }
 
 
 
 
+    /**
+     * Returns the task as shown to the user. The result is rendered once and reused until the task changes,
+     * so listing an unchanged list does not format it again.
+     *
+     * @return The display form of the task.
+     */
     @Override
     public String toString() {
+        String rendered = displayString;
+        return rendered != null ? rendered : cacheDisplayString();
+    }
+
+    private synchronized String cacheDisplayString() {
+        if (displayString == null) {
+            displayString = renderDisplayString();
+        }
+        return displayString;
+    }
+
+    /**
+     * Renders the task as shown to the user; {@link #toString()} caches the result.
+     *
+     * @return The display form of the task.
+     */
+    protected String renderDisplayString() {
         return "[" + getStatusIcon() + "] " + description;
     }
 }
@@ -0,0 +1,160 @@
+package doobert;
+
+import java.util.List;
+
+/**
+ * Represents a single mutation made to a {@code TaskList}.
+ * Changes are recorded by the task list and written by {@code Storage} as journal records,
+ * so that an edit only costs one appended line instead of a rewrite of the whole task file.
+ */
+public class TaskChange {
+    private static final String SEPARATOR = " | ";
+
+    /**
+     * The kinds of mutation that can be recorded.
+     */
+    public enum Type {
+        ADD, DELETE, MARK, UNMARK
+    }
+
+    private final Type type;
+    private final int index;
+    private final Task task;
+
+    private TaskChange(Type type, int index, Task task) {
+        this.type = type;
+        this.index = index;
+        this.task = task;
+    }
+
+    /**
+     * Creates a change recording that a task was appended to the list.
+     *
+     * @param task The task that was added.
+     * @return The recorded change.
+     */
+    public static TaskChange add(Task task) {
+        assert task != null : "Added task should not be null.";
+        return new TaskChange(Type.ADD, -1, task);
+    }
+
+    /**
+     * Creates a change recording that the task at the given index was deleted.
+     *
+     * @param index The zero-based index of the deleted task.
+     * @return The recorded change.
+     */
+    public static TaskChange delete(int index) {
+        return new TaskChange(Type.DELETE, index, null);
+    }
+
+    /**
+     * Creates a change recording that the task at the given index was marked as done.
+     *
+     * @param index The zero-based index of the marked task.
+     * @return The recorded change.
+     */
+    public static TaskChange mark(int index) {
+        return new TaskChange(Type.MARK, index, null);
+    }
+
+    /**
+     * Creates a change recording that the task at the given index was marked as not done.
+     *
+     * @param index The zero-based index of the unmarked task.
+     * @return The recorded change.
+     */
+    public static TaskChange unmark(int index) {
+        return new TaskChange(Type.UNMARK, index, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Converts the change into a single journal line, e.g. {@code ADD | T | 0 | read book} or {@code MARK | 3}.
+     *
+     * @return The journal representation of this change.
+     */
+    public String toJournalString() {
+        if (type == Type.ADD) {
+            return type + SEPARATOR + task.toFileString().trim();
+        }
+        return type + SEPARATOR + index;
+    }
+
+    /**
+     * Parses a journal line back into a change.
+     *
+     * @param line The journal line.
+     * @return The parsed change.
+     * @throws DoobertException If an added event contains an invalid time range.
+     * @throws IllegalArgumentException If the line is not a valid journal record.
+     */
+    public static TaskChange fromJournalString(String line) throws DoobertException {
+        int separatorIndex = line.indexOf(SEPARATOR);
+        if (separatorIndex < 0) {
+            throw new IllegalArgumentException("Invalid journal record: " + line);
+        }
+
+        Type type = Type.valueOf(line.substring(0, separatorIndex).trim());
+        String payload = line.substring(separatorIndex + SEPARATOR.length()).trim();
+
+        if (type == Type.ADD) {
+            return add(Task.fromFileString(payload));
+        }
+        try {
+            return new TaskChange(type, Integer.parseInt(payload), null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid journal record: " + line);
+        }
+    }
+
+    /**
+     * Applies this change to the given task list without recording it again.
+     *
+     * @param tasks The tasks to apply the change to.
+     * @throws IllegalArgumentException If the change refers to a task that does not exist.
+     */
+    public void applyTo(List<Task> tasks) {
+        if (type == Type.ADD) {
+            if (task.getId() == 0) {
+                // Recorded before tasks had IDs, so it gets the ID the task list would have given it
+                task.assignId(tasks.isEmpty() ? 1 : tasks.get(tasks.size() - 1).getId() + 1);
+            }
+            tasks.add(task);
+            return;
+        }
+        if (index < 0 || index >= tasks.size()) {
+            throw new IllegalArgumentException("Journal record refers to missing task: " + toJournalString());
+        }
+
+        switch (type) {
+        case DELETE:
+            tasks.remove(index);
+            break;
+        case MARK:
+            // Setting the edited task back tells lazily loaded lists to keep it in memory
+            Task marked = tasks.get(index);
+            marked.markAsDone();
+            tasks.set(index, marked);
+            break;
+        case UNMARK:
+            Task unmarked = tasks.get(index);
+            unmarked.markAsUndone();
+            tasks.set(index, unmarked);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown journal record: " + type);
+        }
+    }
+}
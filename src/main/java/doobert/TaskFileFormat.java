@@ -0,0 +1,236 @@
+package doobert;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The on-disk formats of the task file.
+ * <p>
+ * {@code TEXT} is the legacy human-readable format, one {@code Task.toFileString()} per line.
+ * {@code BINARY} is a compact format that loads without any text parsing:
+ * <pre>
+ *   header:  magic "DBTF" | version (1 byte) | {@code TaskFileHeader} | task count (int)
+ *   record:  type ('T', 'D' or 'E') | flags (1 byte) | ID (int) | timestamps | description length (int)
+ *            | UTF-8 description
+ * </pre>
+ * Flag bit 0 is the done flag and bit 1 says whether a deadline has a time. Timestamps are epoch minutes
+ * ({@code long}) of the local date-time: none for a todo, the due time for a deadline (midnight if it has no
+ * time), and the start then end time for an event. Version 1 files have no ID in their records and are still
+ * read, giving tasks without IDs; version 1 and 2 files have no {@code TaskFileHeader}.
+ */
+public enum TaskFileFormat {
+    TEXT, BINARY;
+
+    static final byte[] MAGIC = { 'D', 'B', 'T', 'F' };
+    static final byte VERSION = 3;
+    private static final int FIRST_VERSION_WITH_IDS = 2;
+    static final int FLAG_DONE = 1;
+    static final int FLAG_HAS_TIME = 2;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Parses a format name such as {@code text} or {@code binary}.
+     *
+     * @param name The format name.
+     * @return The matching format.
+     * @throws IllegalArgumentException If the name is not a known format.
+     */
+    public static TaskFileFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown task file format: " + name + ". Use 'text' or 'binary'.");
+        }
+    }
+
+    /**
+     * Detects the format of an existing task file from its first bytes.
+     *
+     * @param file The task file.
+     * @return {@code BINARY} if the file starts with the binary magic header, otherwise {@code TEXT}.
+     * @throws IOException If the file cannot be read.
+     */
+    public static TaskFileFormat detect(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = in.readNBytes(MAGIC.length);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (header.length <= i || header[i] != MAGIC[i]) {
+                    return TEXT;
+                }
+            }
+            return BINARY;
+        }
+    }
+
+    /**
+     * Reads every task from a binary task file.
+     *
+     * @param file The binary task file.
+     * @return The tasks in file order.
+     * @throws EOFException If the file is truncated.
+     * @throws IOException If the file cannot be read or has an unsupported version.
+     * @throws DoobertException If an event in the file has an invalid time range.
+     */
+    public static List<Task> readBinary(Path file) throws IOException, DoobertException {
+        List<Task> tasks = new ArrayList<>();
+        readBinary(file, tasks);
+        return tasks;
+    }
+
+    /**
+     * Reads every task from a binary task file into the given list. If the file is truncated, the tasks
+     * before the cut are still added, so that the caller can decide whether to keep them.
+     *
+     * @param file The binary task file.
+     * @param tasks The list to add the tasks to, in file order.
+     * @throws EOFException If the file is truncated. The message says how many tasks were read.
+     * @throws IOException If the file cannot be read or has an unsupported version.
+     * @throws DoobertException If an event in the file has an invalid time range.
+     */
+    public static void readBinary(Path file, List<Task> tasks) throws IOException, DoobertException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            int version;
+            int count;
+            try {
+                in.skipNBytes(MAGIC.length);
+                version = readVersion(in);
+                TaskFileHeader.readBinary(in, version);
+                count = in.readInt();
+            } catch (EOFException e) {
+                throw new EOFException("Task file is truncated before its first task.");
+            }
+
+            int read = 0;
+            try {
+                for (; read < count; read++) {
+                    tasks.add(readRecord(in, version));
+                }
+            } catch (EOFException e) {
+                throw new EOFException("Task file is truncated, loaded " + read + " of " + count + " tasks.");
+            }
+        }
+    }
+
+    /**
+     * Reads the version byte that follows the magic header.
+     *
+     * @param in The input positioned just after the magic header.
+     * @return The version.
+     * @throws IOException If the version is not one this program can read.
+     */
+    static int readVersion(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported task file version: " + version);
+        }
+        return version;
+    }
+
+    /**
+     * Reads one binary task record.
+     *
+     * @param in The input positioned at the start of a record.
+     * @param version The version of the file the record is in.
+     * @return The task in the record.
+     * @throws IOException If the record is truncated or has an unknown type.
+     * @throws DoobertException If the record is an event with an invalid time range.
+     */
+    static Task readRecord(DataInput in, int version) throws IOException, DoobertException {
+        int type = in.readUnsignedByte();
+        int flags = in.readUnsignedByte();
+        int id = version >= FIRST_VERSION_WITH_IDS ? in.readInt() : 0;
+
+        Task task;
+        switch (type) {
+        case 'T':
+            task = new Todo(readDescription(in));
+            break;
+        case 'D': {
+            long by = in.readLong();
+            String description = readDescription(in);
+            task = (flags & FLAG_HAS_TIME) != 0
+                    ? new Deadline(description, toDateTime(by))
+                    : new Deadline(description, LocalDate.ofEpochDay(Math.floorDiv(by, MINUTES_PER_DAY)));
+            break;
+        }
+        case 'E': {
+            long from = in.readLong();
+            long to = in.readLong();
+            task = new Event(readDescription(in), toDateTime(from), toDateTime(to));
+            break;
+        }
+        default:
+            throw new IOException("Unknown task type in binary file: " + type);
+        }
+
+        if ((flags & FLAG_DONE) != 0) {
+            task.markAsDone();
+        }
+        if (id > 0) {
+            task.assignId(id);
+        }
+        return task;
+    }
+
+    private static String readDescription(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the size of the ID that follows the flags byte of a record.
+     *
+     * @param version The version of the file.
+     * @return The number of bytes in the ID, which is 0 in files that predate IDs.
+     */
+    static int idBytes(int version) {
+        return version >= FIRST_VERSION_WITH_IDS ? Integer.BYTES : 0;
+    }
+
+    /**
+     * Returns the number of bytes between the ID and the description length of a record.
+     *
+     * @param type The record type byte.
+     * @return The size of the record's timestamps.
+     * @throws IOException If the type is unknown.
+     */
+    static int timestampBytes(int type) throws IOException {
+        switch (type) {
+        case 'T':
+            return 0;
+        case 'D':
+            return Long.BYTES;
+        case 'E':
+            return 2 * Long.BYTES;
+        default:
+            throw new IOException("Unknown task type in binary file: " + type);
+        }
+    }
+
+    static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    static long toEpochMinute(LocalDate date) {
+        return date.toEpochDay() * MINUTES_PER_DAY;
+    }
+
+    private static LocalDateTime toDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,234 @@
+package doobert;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The facts about a task file that are kept ahead of its tasks.
+ * <p>
+ * It holds the journal generation, the newest {@code Journal} whose records are already part of the file, so
+ * that a journal left behind by an interrupted compaction is not replayed a second time. It also holds the next
+ * task ID, so that the IDs of tasks deleted from the end of the list are not given out again after a restart.
+ * <p>
+ * In a text file the header is an optional first line of {@code key=value} fields, such as
+ * {@code H | journal=3 | next-id=42}. Only fields that are set are written. In a binary file (from version 3)
+ * it follows the version byte as a field count and then a tag byte and a {@code long} value per field. Fields
+ * this program does not know are skipped in both formats, so fields can be added later without breaking older
+ * files.
+ */
+public class TaskFileHeader {
+    static final TaskFileHeader EMPTY = new TaskFileHeader(0, 0);
+    static final int FIRST_BINARY_VERSION = 3;
+
+    private static final String TEXT_PREFIX = "H | ";
+    private static final String JOURNAL_KEY = "journal";
+    private static final String NEXT_ID_KEY = "next-id";
+    private static final byte JOURNAL_TAG = 1;
+    private static final byte NEXT_ID_TAG = 2;
+    private static final int BINARY_FIELD_BYTES = 1 + Long.BYTES;
+
+    private final long journalGeneration;
+    private final int nextId;
+    // Number of fields read from a binary file, which can include fields this program skipped
+    private int storedFieldCount;
+
+    /**
+     * Constructs a header for a task file.
+     *
+     * @param journalGeneration The generation of the newest journal the file includes, or 0 if none.
+     * @param nextId The ID the next added task should get at least, or 0 if not known.
+     */
+    public TaskFileHeader(long journalGeneration, int nextId) {
+        assert journalGeneration >= 0 : "Journal generation should not be negative.";
+        assert nextId >= 0 : "Next ID should not be negative.";
+        this.journalGeneration = journalGeneration;
+        this.nextId = nextId;
+    }
+
+    /**
+     * Returns the generation of the newest journal whose records the file already includes.
+     *
+     * @return The generation, or 0 if the file includes no journal that had a generation.
+     */
+    public long getJournalGeneration() {
+        return journalGeneration;
+    }
+
+    /**
+     * Returns the ID the next task added to the list should get at least. It is one more than the highest ID
+     * any task has had, including tasks deleted before the file was written.
+     *
+     * @return The next ID, or 0 if the file does not record it.
+     */
+    public int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Returns whether the header has no fields to write, in which case a text file is written without one.
+     *
+     * @return {@code true} if every field is unset.
+     */
+    public boolean isEmpty() {
+        return journalGeneration == 0 && nextId == 0;
+    }
+
+    /**
+     * Reads the header of an existing task file in either format.
+     *
+     * @param file The task file.
+     * @return The header, or {@link #EMPTY} if the file does not exist or has none.
+     * @throws EOFException If a binary file is truncated within its header.
+     * @throws IOException If the file cannot be read or its header is malformed.
+     */
+    public static TaskFileHeader read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return EMPTY;
+        }
+        if (TaskFileFormat.detect(file) == TaskFileFormat.BINARY) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                in.skipNBytes(TaskFileFormat.MAGIC.length);
+                return readBinary(in, TaskFileFormat.readVersion(in));
+            } catch (EOFException e) {
+                throw new EOFException("Task file is truncated before its first task.");
+            }
+        }
+        try (InputStream in = Files.newInputStream(file);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String firstLine = reader.readLine();
+            return firstLine != null && firstLine.startsWith(TEXT_PREFIX) ? parseText(firstLine) : EMPTY;
+        }
+    }
+
+    /**
+     * Returns whether a line of a text task file is a header line rather than a task.
+     *
+     * @param line The buffer holding the line.
+     * @param length The number of bytes in the line.
+     * @return {@code true} if the line starts with the header prefix.
+     */
+    static boolean isTextLine(byte[] line, int length) {
+        if (length < TEXT_PREFIX.length()) {
+            return false;
+        }
+        for (int i = 0; i < TEXT_PREFIX.length(); i++) {
+            if (line[i] != TEXT_PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the header line of a text task file.
+     *
+     * @param line The line, starting with the header prefix.
+     * @return The header.
+     * @throws IOException If a field has no value or a value is not a number.
+     */
+    static TaskFileHeader parseText(String line) throws IOException {
+        long journalGeneration = 0;
+        long nextId = 0;
+        for (String field : line.substring(TEXT_PREFIX.length()).trim().split(" \\| ")) {
+            int equals = field.indexOf('=');
+            if (equals < 0) {
+                throw new IOException("Invalid task file header: " + line);
+            }
+            try {
+                long value = Long.parseLong(field.substring(equals + 1).trim());
+                String key = field.substring(0, equals).trim();
+                if (key.equals(JOURNAL_KEY)) {
+                    journalGeneration = value;
+                } else if (key.equals(NEXT_ID_KEY)) {
+                    nextId = value;
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid task file header: " + line);
+            }
+        }
+        return of(journalGeneration, nextId);
+    }
+
+    /**
+     * Returns the header as the first line of a text task file, without a line terminator.
+     *
+     * @return The header line.
+     */
+    String toTextLine() {
+        StringBuilder line = new StringBuilder(TEXT_PREFIX);
+        if (journalGeneration > 0) {
+            line.append(JOURNAL_KEY).append('=').append(journalGeneration);
+        }
+        if (nextId > 0) {
+            line.append(journalGeneration > 0 ? " | " : "").append(NEXT_ID_KEY).append('=').append(nextId);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Reads the header that follows the version byte of a binary task file.
+     *
+     * @param in The input positioned just after the version byte.
+     * @param version The version of the file. Files before version 3 have no header.
+     * @return The header.
+     * @throws IOException If the header is truncated.
+     */
+    static TaskFileHeader readBinary(DataInput in, int version) throws IOException {
+        if (version < FIRST_BINARY_VERSION) {
+            return EMPTY;
+        }
+        int fieldCount = in.readUnsignedByte();
+        long journalGeneration = 0;
+        long nextId = 0;
+        for (int i = 0; i < fieldCount; i++) {
+            byte tag = in.readByte();
+            long value = in.readLong();
+            if (tag == JOURNAL_TAG) {
+                journalGeneration = value;
+            } else if (tag == NEXT_ID_TAG) {
+                nextId = value;
+            }
+        }
+        TaskFileHeader header = of(journalGeneration, nextId);
+        header.storedFieldCount = fieldCount;
+        return header;
+    }
+
+    /**
+     * Returns how many bytes this header took up in the binary file it was read from.
+     *
+     * @param version The version of that file.
+     * @return The number of bytes between the version byte and the task count.
+     */
+    int binaryLength(int version) {
+        return version < FIRST_BINARY_VERSION ? 0 : 1 + storedFieldCount * BINARY_FIELD_BYTES;
+    }
+
+    /**
+     * Writes the header of a binary task file of the current version.
+     *
+     * @param buffer The buffer positioned just after the version byte.
+     */
+    void writeBinary(ByteBuffer buffer) {
+        buffer.put((byte) 2);
+        buffer.put(JOURNAL_TAG).putLong(journalGeneration);
+        buffer.put(NEXT_ID_TAG).putLong(nextId);
+    }
+
+    /**
+     * Makes a header from values read from a file, treating values out of range as unset.
+     */
+    private static TaskFileHeader of(long journalGeneration, long nextId) {
+        return new TaskFileHeader(Math.max(0, journalGeneration),
+                nextId > 0 && nextId <= Integer.MAX_VALUE ? (int) nextId : 0);
+    }
+}
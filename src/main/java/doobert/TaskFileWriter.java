@@ -0,0 +1,218 @@
+package doobert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes a whole task file through a {@code FileChannel}, in either {@code TaskFileFormat}.
+ * <p>
+ * Each task is encoded straight into one reused {@code ByteBuffer} without allocating; text records encode the
+ * line each task caches (see {@code Task.toFileString}), so saving an unchanged list does not format it again.
+ * The tasks are written to a temporary file, forced to disk and then atomically renamed over the target, so a
+ * crash mid-save never leaves a torn task file behind. The temporary file is deleted if the save fails.
+ */
+public class TaskFileWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] LINE_SEPARATOR_BYTES = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * Replaces the target file with the given tasks, one per line.
+     *
+     * @param target The task file to replace.
+     * @param tasks The tasks to write.
+     * @throws IOException If the file cannot be written or moved into place.
+     */
+    public void write(Path target, List<Task> tasks) throws IOException {
+        write(target, tasks, TaskFileFormat.TEXT);
+    }
+
+    /**
+     * Replaces the target file with the given tasks in the given format.
+     *
+     * @param target The task file to replace.
+     * @param tasks The tasks to write.
+     * @param format The format to write the tasks in.
+     * @throws IOException If the file cannot be written or moved into place.
+     */
+    public void write(Path target, List<Task> tasks, TaskFileFormat format) throws IOException {
+        write(target, tasks, format, TaskFileHeader.EMPTY);
+    }
+
+    /**
+     * Replaces the target file with the given tasks in the given format, preceded by the given header.
+     * A text file gets no header line if the header is empty.
+     *
+     * @param target The task file to replace.
+     * @param tasks The tasks to write.
+     * @param format The format to write the tasks in.
+     * @param header The header to write ahead of the tasks.
+     * @throws IOException If the file cannot be written or moved into place.
+     */
+    public synchronized void write(Path target, List<Task> tasks, TaskFileFormat format, TaskFileHeader header)
+            throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tempFile = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                buffer.clear();
+                if (format == TaskFileFormat.BINARY) {
+                    writeBinary(tasks, header, channel);
+                } else {
+                    writeText(tasks, header, channel);
+                }
+                drain(channel);
+                channel.force(true);
+            }
+            move(tempFile, target);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException deleteError) {
+                e.addSuppressed(deleteError);
+            }
+            throw e;
+        }
+    }
+
+    private static void move(Path tempFile, Path target) throws IOException {
+        try {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void writeText(List<Task> tasks, TaskFileHeader header, FileChannel channel) throws IOException {
+        if (!header.isEmpty()) {
+            encode(header.toTextLine(), channel);
+            put(LINE_SEPARATOR_BYTES, channel);
+        }
+        for (Task task : tasks) {
+            // Lines are cached by each task, so an unchanged task costs one encode
+            encode(task.toFileString(), channel);
+            put(LINE_SEPARATOR_BYTES, channel);
+        }
+    }
+
+    private void writeBinary(List<Task> tasks, TaskFileHeader header, FileChannel channel) throws IOException {
+        buffer.put(TaskFileFormat.MAGIC).put(TaskFileFormat.VERSION);
+        header.writeBinary(buffer);
+        buffer.putInt(tasks.size());
+
+        for (Task task : tasks) {
+            // Largest fixed part of a record: type, flags, ID, two timestamps and the description length
+            if (buffer.remaining() < 2 + Integer.BYTES + 2 * Long.BYTES + Integer.BYTES) {
+                drain(channel);
+            }
+            int flags = task.isDone ? TaskFileFormat.FLAG_DONE : 0;
+
+            if (task instanceof Deadline) {
+                Deadline deadline = (Deadline) task;
+                if (deadline.byDateTime != null) {
+                    buffer.put((byte) 'D').put((byte) (flags | TaskFileFormat.FLAG_HAS_TIME)).putInt(task.getId());
+                    buffer.putLong(TaskFileFormat.toEpochMinute(deadline.byDateTime));
+                } else {
+                    buffer.put((byte) 'D').put((byte) flags).putInt(task.getId());
+                    buffer.putLong(TaskFileFormat.toEpochMinute(deadline.byDate));
+                }
+            } else if (task instanceof Event) {
+                Event event = (Event) task;
+                buffer.put((byte) 'E').put((byte) flags).putInt(task.getId());
+                buffer.putLong(TaskFileFormat.toEpochMinute(event.fromDateTime));
+                buffer.putLong(TaskFileFormat.toEpochMinute(event.toDateTime));
+            } else {
+                buffer.put((byte) 'T').put((byte) flags).putInt(task.getId());
+            }
+
+            buffer.putInt(utf8Length(task.description));
+            encode(task.description, channel);
+        }
+    }
+
+    private static int utf8Length(CharSequence chars) {
+        int length = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < chars.length()
+                    && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes the characters as UTF-8 into the buffer, writing the buffer out whenever it fills up.
+     */
+    private void encode(CharSequence chars, FileChannel channel) throws IOException {
+        for (int i = 0; i < chars.length(); i++) {
+            if (buffer.remaining() < 4) {
+                drain(channel);
+            }
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < chars.length()
+                    && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?'); // unpaired surrogate, same replacement the JDK encoder uses
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private void put(byte[] bytes, FileChannel channel) throws IOException {
+        for (int offset = 0; offset < bytes.length; ) {
+            if (!buffer.hasRemaining()) {
+                drain(channel);
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void drain(FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,110 @@
+package doobert;
+
+import java.util.Arrays;
+
+/**
+ * Maps the stable IDs of tasks to their sequence numbers in a {@code TaskOrder}, so that a task can be found by
+ * its ID in O(log n).
+ * <p>
+ * IDs are handed out in increasing order, so new entries are appended already sorted and looked up by binary
+ * search. Entries of deleted tasks are kept, since their sequence numbers are no longer live in the
+ * {@code TaskOrder} and so resolve to no position. Lookups do not change the index, so they can run alongside
+ * each other.
+ */
+public class TaskIdIndex {
+    private int[] ids;
+    private int[] sequences;
+    private int size;
+
+    /**
+     * Constructs a {@code TaskIdIndex} for the tasks already in a list.
+     *
+     * @param ids The ID of each task, in list order.
+     * @param sequences The sequence number of each task, in list order.
+     */
+    public TaskIdIndex(int[] ids, int[] sequences) {
+        assert ids.length == sequences.length : "Every task should have an ID and a sequence number.";
+        size = ids.length;
+        this.ids = Arrays.copyOf(ids, Math.max(16, size * 2));
+        this.sequences = Arrays.copyOf(sequences, this.ids.length);
+        if (!isSorted()) {
+            sort();
+        }
+    }
+
+    /**
+     * Records the sequence number of a task that was added to the list.
+     *
+     * @param id The task's ID.
+     * @param sequence The task's sequence number.
+     */
+    public void add(int id, int sequence) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            sequences = Arrays.copyOf(sequences, size * 2);
+        }
+        // Only an ID out of order, as from a hand-edited task file, needs to be moved into place
+        int position = size;
+        while (position > 0 && ids[position - 1] > id) {
+            position--;
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        System.arraycopy(sequences, position, sequences, position + 1, size - position);
+        ids[position] = id;
+        sequences[position] = sequence;
+        size++;
+    }
+
+    /**
+     * Returns the sequence number of the task with the given ID.
+     *
+     * @param id The ID.
+     * @return The sequence number, or -1 if no task ever had that ID.
+     */
+    public int sequenceOf(int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (ids[middle] < id) {
+                low = middle + 1;
+            } else if (ids[middle] > id) {
+                high = middle - 1;
+            } else {
+                return sequences[middle];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the largest ID recorded.
+     *
+     * @return The largest ID, or 0 if there are none.
+     */
+    public int getMaxId() {
+        return size == 0 ? 0 : ids[size - 1];
+    }
+
+    private boolean isSorted() {
+        for (int i = 1; i < size; i++) {
+            if (ids[i - 1] > ids[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void sort() {
+        // IDs are positive, so packing each entry with its ID in the high bits sorts the entries by ID
+        long[] entries = new long[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = (long) ids[i] << 32 | sequences[i];
+        }
+        Arrays.sort(entries);
+        for (int i = 0; i < size; i++) {
+            ids[i] = (int) (entries[i] >>> 32);
+            sequences[i] = (int) entries[i];
+        }
+    }
+}
@@ -2,77 +2,414 @@ package doobert;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Represents a list of tasks. Provides methods to add, delete, mark, and unmark tasks.
+ * <p>
+ * A {@code TaskList} is safe to use from several threads. Edits take an exclusive lock and run one at a
+ * time. Looking up a single task or the size is an optimistic read that only retries under a lock if an edit
+ * got in the way. Listing, finding and viewing the schedule share a read lock, so they run alongside each
+ * other and each sees the list in one consistent state. The first search builds its index, which is an
+ * edit of the list's own state, so it takes the exclusive lock instead.
+ * <p>
+ * Every task added gets a stable ID, one more than any ID given out so far, which is kept in the task file.
+ * Unlike its position, a task's ID does not change when other tasks are added or deleted. A list loaded by
+ * {@code Storage} is given the next ID the task file and journal recorded (see {@link Storage#getNextId}),
+ * so an ID is never given out again, even after the task that had it was deleted and the program restarted.
+ * <p>
+ * {@code Storage} captures a save's changes and snapshot in two steps, so code that saves should not edit
+ * from several threads at once without its own lock around each edit and save.
  */
 public class TaskList {
-    private List<Task> listOfItems = new ArrayList<>();
+    private List<Task> listOfItems = new OrderedTaskList();
     private static final DateTimeFormatter OUTPUT_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final int MAX_PENDING_CHANGES = 10_000;
+
+    // Edits made since the last save; null once too many have piled up to be worth journalling
+    private List<TaskChange> pendingChanges = new ArrayList<>();
+
+    // Undoes the edits made since beginTransaction, oldest first; null when no transaction is open
+    private List<Runnable> undoLog;
+    private int pendingChangesAtBegin;
+
+    // Guards every field above, and the tasks themselves being added, removed or marked
+    private final StampedLock lock = new StampedLock();
+
+    // The ID the next added task gets; 0 until first needed, when it is worked out from the tasks and storedNextId
+    private int nextId;
+    private IntSupplier storedNextId = () -> 0;
+
+    // Built on first use and then kept up to date by addTask and deleteTask; null until needed
+    private TaskOrder order;
+    private TaskIdIndex idIndex;
+    private ScheduleIndex scheduleIndex;
+    private TermIndex termIndex;
+    private TrigramIndex trigramIndex;
 
     /**
-     * Constructs a TaskList with a given list of tasks.
+     * Constructs a TaskList with a given list of tasks. Tasks without an ID are numbered by their position;
+     * tasks loaded by {@code Storage} already have one. Unless the list is a {@code LazyTaskList}, the tasks
+     * are copied into an {@code OrderedTaskList}, so later edits do not change the given list.
      *
      * @param listOfItems The list of tasks to initialize the TaskList.
      */
     public TaskList(List<Task> listOfItems) {
-        this.listOfItems = listOfItems;
+        this.listOfItems = listOfItems instanceof LazyTaskList ? listOfItems : new OrderedTaskList(listOfItems);
+        // A lazily loaded list gives its tasks IDs as they are read, and reading them all here would defeat it
+        if (!(listOfItems instanceof LazyTaskList)) {
+            for (int i = 0; i < listOfItems.size(); i++) {
+                if (listOfItems.get(i).getId() == 0) {
+                    listOfItems.get(i).assignId(i + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructs a TaskList with a given list of tasks and the next ID recorded where they were stored, so that
+     * IDs of tasks deleted from the end of the list before they were stored are not given out again.
+     *
+     * @param listOfItems The list of tasks to initialize the TaskList.
+     * @param storedNextId Gives the stored next ID, or 0 if none. It is only asked once an ID is first needed,
+     *                     so it may wait for a lazily loaded list.
+     */
+    public TaskList(List<Task> listOfItems, IntSupplier storedNextId) {
+        this(listOfItems);
+        this.storedNextId = storedNextId;
     }
 
     /**
      * Constructs an empty TaskList.
      */
     public TaskList() {
-        this.listOfItems = new ArrayList<>();
+        this.listOfItems = new OrderedTaskList();
     }
 
     /**
-     * Retrieves the list of tasks.
+     * Retrieves a read-only view of the list of tasks. The view is not locked, so it should only be used while
+     * no other thread edits the list; otherwise use {@link #size}, {@link #getTask} or {@link #read}.
      *
      * @return The list of tasks.
      */
     public List<Task> getList() {
-        return listOfItems;
+        return Collections.unmodifiableList(listOfItems);
+    }
+
+    /**
+     * Returns the number of tasks in the list.
+     *
+     * @return The number of tasks.
+     */
+    public int size() {
+        return readOptimistically(listOfItems::size);
+    }
+
+    /**
+     * Returns the task at the given index. Like {@link #hasTask}, this does not wait for a lazily loaded list
+     * to finish loading when the index is near the start.
+     *
+     * @param index The index of the task (zero-based index).
+     * @return The task, or {@code null} if there is no task at that index.
+     */
+    public Task getTask(int index) {
+        return readOptimistically(() -> isInRange(index) ? listOfItems.get(index) : null);
+    }
+
+    /**
+     * Runs a read of the whole list under the shared lock, so that it sees one consistent state of the list
+     * while other reads run alongside it and edits wait.
+     *
+     * @param reader The read, given a read-only view of the tasks that is only valid during the call.
+     * @return The result of the read.
+     * @throws DoobertException If the read throws it.
+     */
+    public <T> T read(Reader<T> reader) throws DoobertException {
+        long stamp = lock.readLock();
+        try {
+            return reader.read(Collections.unmodifiableList(listOfItems));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * A read of the whole task list; see {@link #read}.
+     */
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(List<Task> tasks) throws DoobertException;
+    }
+
+    /**
+     * Returns the position of the task with the given stable ID.
+     *
+     * @param id The task's ID.
+     * @return The zero-based index of the task, or -1 if no task in the list has that ID.
+     */
+    public int indexOfId(int id) {
+        return readIndexed(() -> idIndex != null, () -> {
+            int sequence = getIdIndex().sequenceOf(id);
+            return sequence < 0 ? -1 : order.positionOf(sequence);
+        });
     }
 
     /**
-     * Adds a task to the task list.
+     * Returns whether there is a task at the given index. Unlike checking against the size, this does not
+     * wait for a lazily loaded list to finish loading when the index is near the start.
+     *
+     * @param index The index to check (zero-based index).
+     * @return {@code true} if the list has a task at that index.
+     */
+    public boolean hasTask(int index) {
+        return readOptimistically(() -> isInRange(index));
+    }
+
+    private boolean isInRange(int index) {
+        if (listOfItems instanceof LazyTaskList) {
+            return ((LazyTaskList) listOfItems).hasIndex(index);
+        }
+        return index >= 0 && index < listOfItems.size();
+    }
+
+    /**
+     * Returns a copy of the task list that is not affected by later edits.
+     *
+     * @return The copy of the tasks.
+     */
+    public List<Task> snapshot() {
+        long stamp = lock.readLock();
+        try {
+            if (listOfItems instanceof LazyTaskList) {
+                return ((LazyTaskList) listOfItems).snapshot();
+            }
+            return new ArrayList<>(listOfItems);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds a task to the task list, giving it the next stable ID.
      *
      * @param task The task to be added.
+     * @return The number of tasks in the list once the task has been added.
      */
-    public void addTask(Task task) {
-        listOfItems.add(task);
+    public int addTask(Task task) {
+        long stamp = lock.writeLock();
+        try {
+            task.assignId(takeNextId());
+            listOfItems.add(task);
+            recordChange(TaskChange.add(task));
+            recordUndo(() -> removeTask(listOfItems.size() - 1));
+            if (order != null) {
+                int sequence = order.append();
+                if (idIndex != null) {
+                    idIndex.add(task.getId(), sequence);
+                }
+                if (scheduleIndex != null) {
+                    scheduleIndex.add(task, sequence);
+                }
+                if (termIndex != null) {
+                    termIndex.add(task, sequence);
+                }
+                if (trigramIndex != null) {
+                    trigramIndex.add(task, sequence);
+                }
+            }
+            return listOfItems.size();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
      * Deletes a task from the task list at a specified index.
      *
      * @param index The index of the task to delete (zero-based index).
-     * @return The updated list of tasks after deletion.
+     * @return The deleted task, or {@code null} if there is no task at that index.
      */
-    public List<Task> deleteTask(int index) {
-        if (index >= 0 && index < listOfItems.size()) {
-            Task removedTask = listOfItems.remove(index);
-        } else {
-            System.out.println("Invalid task number to delete.");
+    public Task deleteTask(int index) {
+        long stamp = lock.writeLock();
+        try {
+            if (index < 0 || index >= listOfItems.size()) {
+                System.out.println("Invalid task number to delete.");
+                return null;
+            }
+            Task removedTask = removeTask(index);
+            dropIndexesIfSparse();
+            recordChange(TaskChange.delete(index));
+            recordUndo(() -> {
+                listOfItems.add(index, removedTask);
+                // The indexes can only append tasks, so they are rebuilt when next needed
+                dropIndexes();
+            });
+            return removedTask;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        return listOfItems;
+    }
+
+    /**
+     * Returns the ID the next added task will get, which is more than the ID of any task in the list or
+     * stored before it was loaded.
+     *
+     * @return The next ID.
+     */
+    public int getNextId() {
+        long stamp = lock.writeLock();
+        try {
+            return peekNextId();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int takeNextId() {
+        int id = peekNextId();
+        nextId++;
+        return id;
+    }
+
+    private int peekNextId() {
+        if (nextId == 0) {
+            nextId = listOfItems.isEmpty() ? 1 : listOfItems.get(listOfItems.size() - 1).getId() + 1;
+            if (idIndex != null) {
+                nextId = Math.max(nextId, idIndex.getMaxId() + 1);
+            }
+            nextId = Math.max(nextId, storedNextId.getAsInt());
+        }
+        return nextId;
+    }
+
+    /**
+     * Deletes the tasks at the given indexes in one pass, shifting each remaining task at most once.
+     *
+     * @param indexes The zero-based indexes of the tasks to delete, in increasing order and without repeats.
+     * @return The deleted tasks in list order, or {@code null} if an index is past the end of the list, in
+     *         which case nothing is deleted.
+     */
+    public List<Task> deleteTasks(int[] indexes) {
+        long stamp = lock.writeLock();
+        try {
+            if (indexes.length > 0 && indexes[indexes.length - 1] >= listOfItems.size()) {
+                System.out.println("Invalid task number to delete.");
+                return null;
+            }
+
+            List<Task> removedTasks = new ArrayList<>(indexes.length);
+            for (int index : indexes) {
+                removedTasks.add(listOfItems.get(index));
+            }
+            // Removing from the back keeps the positions of the tasks still to be removed from the indexes,
+            // and the journal records replay in the same order
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                unindexTask(indexes[i], removedTasks.get(i));
+                recordChange(TaskChange.delete(indexes[i]));
+            }
+            removeAll(indexes);
+            dropIndexesIfSparse();
+            recordUndo(() -> {
+                for (int i = 0; i < indexes.length; i++) {
+                    listOfItems.add(indexes[i], removedTasks.get(i));
+                }
+                dropIndexes();
+            });
+            return removedTasks;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the tasks at the given sorted indexes from the backing list. Neither backing list shifts the
+     * tasks after a deleted one, so each task is simply removed, from the back so that the indexes still to
+     * be removed stay valid.
+     */
+    private void removeAll(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            listOfItems.remove(indexes[i]);
+        }
+    }
+
+    private Task removeTask(int index) {
+        Task removedTask = listOfItems.remove(index);
+        unindexTask(index, removedTask);
+        return removedTask;
+    }
+
+    /**
+     * Removes the task at the given position from the indexes, before it is removed from the list.
+     */
+    private void unindexTask(int index, Task removedTask) {
+        if (order != null) {
+            int sequence = order.remove(index);
+            if (scheduleIndex != null) {
+                scheduleIndex.remove(removedTask, sequence);
+            }
+            if (termIndex != null) {
+                termIndex.remove(removedTask, sequence);
+            }
+            if (trigramIndex != null) {
+                trigramIndex.remove(removedTask, sequence);
+            }
+        }
+    }
+
+    /**
+     * Drops the indexes once deletes have left the task order mostly empty. They are rebuilt when next needed
+     * with the remaining tasks numbered from 0, as rebuilding them all costs no more than the deletes did.
+     */
+    private void dropIndexesIfSparse() {
+        if (order != null && order.isSparse()) {
+            dropIndexes();
+        }
+    }
+
+    private void dropIndexes() {
+        order = null;
+        idIndex = null;
+        scheduleIndex = null;
+        termIndex = null;
+        trigramIndex = null;
     }
 
     /**
      * Marks a task as done.
      *
      * @param index The index of the task to mark as done (zero-based index).
+     * @return The message describing the result of marking the task.
      */
-    public void markTask(int index) {
-        boolean isValidIndex = index >= 0 && index < listOfItems.size();
-        if (!isValidIndex) {
-            System.out.println("Invalid task number.");
-            return;
+    public String markTask(int index) {
+        long stamp = lock.writeLock();
+        try {
+            boolean isValidIndex = index >= 0 && index < listOfItems.size();
+            if (!isValidIndex) {
+                System.out.println("Invalid task number.");
+                return "Invalid task number.";
+            }
+            Task task = listOfItems.get(index);
+            boolean wasDone = task.isDone;
+            String message = task.markAsDone();
+            if (!wasDone) {
+                listOfItems.set(index, task);
+                recordChange(TaskChange.mark(index));
+                recordUndo(() -> {
+                    task.markAsUndone();
+                    listOfItems.set(index, task);
+                });
+            }
+            return message;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        listOfItems.get(index).markAsDone();
     }
 
 
@@ -80,14 +417,181 @@ public class TaskList {
      * Unmarks a task (marks it as not done).
      *
      * @param index The index of the task to unmark (zero-based index).
+     * @return The message describing the result of unmarking the task.
+     */
+    public String unmarkTask(int index) {
+        long stamp = lock.writeLock();
+        try {
+            boolean isValidIndex = index >= 0 && index < listOfItems.size();
+            if (!isValidIndex) {
+                System.out.println("Invalid task number.");
+                return "Invalid task number.";
+            }
+            Task task = listOfItems.get(index);
+            boolean wasDone = task.isDone;
+            String message = task.markAsUndone();
+            if (wasDone) {
+                listOfItems.set(index, task);
+                recordChange(TaskChange.unmark(index));
+                recordUndo(() -> {
+                    task.markAsDone();
+                    listOfItems.set(index, task);
+                });
+            }
+            return message;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Marks the tasks at the given indexes as done, or as not done, in one pass.
+     *
+     * @param indexes The zero-based indexes of the tasks, in increasing order and without repeats.
+     * @param isDone Whether the tasks should be marked as done.
+     * @return The number of tasks that changed, or -1 if an index is past the end of the list, in which case
+     *         nothing is changed.
+     */
+    public int setDone(int[] indexes, boolean isDone) {
+        long stamp = lock.writeLock();
+        try {
+            if (indexes.length > 0 && indexes[indexes.length - 1] >= listOfItems.size()) {
+                System.out.println("Invalid task number.");
+                return -1;
+            }
+
+            List<Integer> changed = new ArrayList<>();
+            for (int index : indexes) {
+                Task task = listOfItems.get(index);
+                if (task.isDone == isDone) {
+                    continue;
+                }
+                if (isDone) {
+                    task.markAsDone();
+                } else {
+                    task.markAsUndone();
+                }
+                listOfItems.set(index, task);
+                recordChange(isDone ? TaskChange.mark(index) : TaskChange.unmark(index));
+                changed.add(index);
+            }
+            if (!changed.isEmpty()) {
+                recordUndo(() -> {
+                    for (int index : changed) {
+                        Task task = listOfItems.get(index);
+                        if (isDone) {
+                            task.markAsUndone();
+                        } else {
+                            task.markAsDone();
+                        }
+                        listOfItems.set(index, task);
+                    }
+                });
+            }
+            return changed.size();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the edits made since the previous call and starts recording afresh.
+     *
+     * @return The recorded changes in order, or {@code null} if too many edits were made to record
+     *         individually and the whole list should be saved instead.
+     */
+    public List<TaskChange> drainChanges() {
+        long stamp = lock.writeLock();
+        try {
+            List<TaskChange> changes = pendingChanges;
+            pendingChanges = new ArrayList<>();
+            return changes;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Starts a transaction. Edits made until {@link #commitTransaction} or {@link #rollbackTransaction}
+     * can be undone together.
+     */
+    public void beginTransaction() {
+        long stamp = lock.writeLock();
+        try {
+            assert undoLog == null : "A transaction should not already be open.";
+            undoLog = new ArrayList<>();
+            pendingChangesAtBegin = pendingChanges == null ? 0 : pendingChanges.size();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns whether a transaction is open.
+     *
+     * @return {@code true} between {@link #beginTransaction} and the end of the transaction.
      */
-    public void unmarkTask(int index) {
-        boolean isValidIndex = index >= 0 && index < listOfItems.size();
-        if (!isValidIndex) {
-            System.out.println("Invalid task number.");
+    public boolean isInTransaction() {
+        return readOptimistically(() -> undoLog != null);
+    }
+
+    /**
+     * Ends the open transaction, keeping its edits.
+     *
+     * @return The number of edits made in the transaction.
+     */
+    public int commitTransaction() {
+        long stamp = lock.writeLock();
+        try {
+            assert undoLog != null : "A transaction should be open.";
+            int editCount = undoLog.size();
+            undoLog = null;
+            return editCount;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Ends the open transaction, undoing its edits in reverse order. The edits are also removed from
+     * the changes waiting to be saved, so the next save does not write them.
+     *
+     * @return The number of edits undone.
+     */
+    public int rollbackTransaction() {
+        long stamp = lock.writeLock();
+        try {
+            assert undoLog != null : "A transaction should be open.";
+            List<Runnable> edits = undoLog;
+            undoLog = null;
+            for (int i = edits.size() - 1; i >= 0; i--) {
+                edits.get(i).run();
+            }
+            // If too many changes piled up, the next save writes the whole, restored list instead
+            if (pendingChanges != null) {
+                pendingChanges.subList(pendingChangesAtBegin, pendingChanges.size()).clear();
+            }
+            return edits.size();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void recordUndo(Runnable undo) {
+        if (undoLog != null) {
+            undoLog.add(undo);
+        }
+    }
+
+    private void recordChange(TaskChange change) {
+        if (pendingChanges == null) {
             return;
         }
-        listOfItems.get(index).markAsUndone();
+        if (pendingChanges.size() >= MAX_PENDING_CHANGES) {
+            pendingChanges = null;
+            return;
+        }
+        pendingChanges.add(change);
     }
 
     /**
@@ -97,39 +601,270 @@ public class TaskList {
      * @return A formatted string containing scheduled tasks.
      */
     public String viewSchedule(LocalDate date) {
-        List<Task> scheduledTasks = listOfItems.stream()
-                .filter(task -> task instanceof Event || task instanceof Deadline)
-                .filter(task -> taskFallsOnDate(task, date))
-                .collect(Collectors.toList());
+        StringBuilder output = new StringBuilder();
+        viewSchedule(date, output::append);
+        return output.toString();
+    }
+
+    /**
+     * Writes the list of tasks scheduled for the given date to the sink.
+     *
+     * @param date The date for which the schedule should be displayed.
+     * @param out The sink receiving the schedule.
+     */
+    public void viewSchedule(LocalDate date, ResponseSink out) {
+        readIndexed(() -> scheduleIndex != null, () -> {
+            writeSchedule(date, out);
+            return null;
+        });
+    }
 
-        if (scheduledTasks.isEmpty()) {
-            return "No tasks scheduled for " + date.format(OUTPUT_FORMATTER);
+    private void writeSchedule(LocalDate date, ResponseSink out) {
+        PostingList scheduledTasks = getScheduleIndex().get(date);
+
+        if (scheduledTasks == null) {
+            out.write("No tasks scheduled for " + date.format(OUTPUT_FORMATTER));
+            return;
         }
 
         StringBuilder output = new StringBuilder("Schedule for " + date.format(OUTPUT_FORMATTER) + ":\n");
-        for (int i = 0; i < scheduledTasks.size(); i++) {
-            output.append(i + 1).append(". ").append(scheduledTasks.get(i)).append("\n");
-        }
+        appendScheduledTasks(output, scheduledTasks, 1);
+        out.write(output);
+    }
+
+    /**
+     * Returns a formatted list of tasks scheduled between two dates, grouped by day.
+     *
+     * @param from The first date of the range.
+     * @param to The last date of the range, inclusive.
+     * @return A formatted string containing the scheduled tasks of each day in the range.
+     */
+    public String viewSchedule(LocalDate from, LocalDate to) {
+        StringBuilder output = new StringBuilder();
+        viewSchedule(from, to, output::append);
         return output.toString();
     }
 
     /**
-     * Checks if a task falls on a specific date.
+     * Writes the tasks scheduled between two dates to the sink one day at a time, so a long range takes
+     * memory for one day's tasks rather than for the whole schedule.
+     *
+     * @param from The first date of the range.
+     * @param to The last date of the range, inclusive.
+     * @param out The sink receiving the schedule.
+     */
+    public void viewSchedule(LocalDate from, LocalDate to, ResponseSink out) {
+        assert !to.isBefore(from) : "Schedule range should not end before it starts.";
+        readIndexed(() -> scheduleIndex != null, () -> {
+            writeSchedule(from, to, out);
+            return null;
+        });
+    }
+
+    private void writeSchedule(LocalDate from, LocalDate to, ResponseSink out) {
+        String range = from.format(OUTPUT_FORMATTER) + " to " + to.format(OUTPUT_FORMATTER);
+        Map<LocalDate, PostingList> scheduledDays = getScheduleIndex().getRange(from, to);
+
+        if (scheduledDays.isEmpty()) {
+            out.write("No tasks scheduled from " + range);
+            return;
+        }
+
+        out.write("Schedule from " + range + ":\n");
+        StringBuilder output = new StringBuilder();
+        int number = 1;
+        for (Map.Entry<LocalDate, PostingList> day : scheduledDays.entrySet()) {
+            output.append(day.getKey().format(OUTPUT_FORMATTER)).append(":\n");
+            number = appendScheduledTasks(output, day.getValue(), number);
+            out.write(output);
+            output.setLength(0);
+        }
+    }
+
+    /**
+     * Appends the given tasks as a numbered list.
      *
-     * @param task The task to check.
-     * @param date The date to match.
-     * @return true if the task occurs on the given date.
+     * @return The number for the next task.
      */
-    private boolean taskFallsOnDate(Task task, LocalDate date) {
-        if (task instanceof Event) {
-            Event event = (Event) task;
-            return event.fromDateTime.toLocalDate().equals(date);
-        } else if (task instanceof Deadline) {
-            Deadline deadline = (Deadline) task;
-            return (deadline.byDateTime != null && deadline.byDateTime.toLocalDate().equals(date)) ||
-                    (deadline.byDate != null && deadline.byDate.equals(date));
+    private int appendScheduledTasks(StringBuilder output, PostingList sequences, int number) {
+        for (int i = 0; i < sequences.size(); i++) {
+            Task task = listOfItems.get(order.positionOf(sequences.get(i)));
+            output.append(number++).append(". ").append(task).append("\n");
+        }
+        return number;
+    }
+
+    /**
+     * Returns the tasks matching a word query such as {@code read AND book*}; see {@code TermIndex}.
+     *
+     * @param query The query.
+     * @return The matching tasks in list order.
+     */
+    public List<Task> findTasks(String query) {
+        return readIndexed(() -> termIndex != null, () -> getTasks(getTermIndex().search(query)));
+    }
+
+    /**
+     * Returns the tasks whose lowercased description contains the keyword.
+     * Keywords of three or more characters are answered from the {@code TrigramIndex}; shorter ones
+     * have no trigrams to look up and are matched against every task.
+     *
+     * @param keyword The lowercased keyword.
+     * @return The matching tasks in list order.
+     */
+    public List<Task> findTasksContaining(String keyword) {
+        if (!TrigramIndex.canSearch(keyword)) {
+            return readIndexed(() -> true, () -> listOfItems.stream()
+                    .filter(task -> TrigramIndex.normalize(task).contains(keyword))
+                    .collect(Collectors.toList()));
+        }
+
+        return readIndexed(() -> trigramIndex != null, () -> {
+            List<Task> matchingTasks = getTasks(getTrigramIndex().findCandidates(keyword));
+            matchingTasks.removeIf(task -> !TrigramIndex.normalize(task).contains(keyword));
+            return matchingTasks;
+        });
+    }
+
+    /**
+     * Returns the tasks that have a word within a few typos of every word of the keyword, closest first.
+     * A task's distance is the sum over the keyword's words of the distance to its closest matching word;
+     * tasks at the same distance are in list order.
+     *
+     * @param keyword The keyword, possibly misspelt.
+     * @return The matching tasks ranked by distance.
+     */
+    public List<Task> findTasksFuzzy(String keyword) {
+        return readIndexed(() -> termIndex != null && termIndex.hasFuzzyIndex(), () -> rankFuzzyMatches(keyword));
+    }
+
+    private List<Task> rankFuzzyMatches(String keyword) {
+        Map<Integer, Integer> distances = null;
+        for (String word : TermIndex.tokenize(keyword)) {
+            Map<Integer, Integer> matches = getTermIndex().searchFuzzy(word);
+            if (distances == null) {
+                distances = matches;
+            } else {
+                distances.keySet().retainAll(matches.keySet());
+                distances.replaceAll((sequence, distance) -> distance + matches.get(sequence));
+            }
+        }
+        if (distances == null) {
+            return new ArrayList<>();
+        }
+
+        int[] ranked = distances.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+        return getTasks(ranked);
+    }
+
+    private List<Task> getTasks(int[] sequences) {
+        List<Task> tasks = new ArrayList<>(sequences.length);
+        for (int sequence : sequences) {
+            tasks.add(listOfItems.get(order.positionOf(sequence)));
+        }
+        return tasks;
+    }
+
+    /**
+     * Runs a short read that does not need the list to stay still for long. It first runs without locking
+     * and is only repeated under the shared lock if an edit happened meanwhile; whatever it saw while the
+     * list was changing, including an exception, is thrown away.
+     */
+    private <T> T readOptimistically(Supplier<T> read) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = read.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // An edit got in the way; read again under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs a read under the shared lock once the index it needs exists. Building a missing index changes the
+     * list's own state, so that read runs under the exclusive lock instead.
+     */
+    private <T> T readIndexed(BooleanSupplier hasIndex, Supplier<T> read) {
+        long stamp = lock.readLock();
+        try {
+            if (hasIndex.getAsBoolean()) {
+                return read.get();
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        stamp = lock.writeLock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private TaskOrder getOrder() {
+        if (order == null) {
+            order = new TaskOrder(listOfItems.size());
+        }
+        return order;
+    }
+
+    private TaskIdIndex getIdIndex() {
+        if (idIndex == null) {
+            int[] sequences = getOrder().toArray();
+            int[] ids = new int[sequences.length];
+            for (int i = 0; i < sequences.length; i++) {
+                ids[i] = listOfItems.get(i).getId();
+            }
+            idIndex = new TaskIdIndex(ids, sequences);
+        }
+        return idIndex;
+    }
+
+    private ScheduleIndex getScheduleIndex() {
+        if (scheduleIndex == null) {
+            int[] sequences = getOrder().toArray();
+            scheduleIndex = new ScheduleIndex();
+            for (int i = 0; i < sequences.length; i++) {
+                scheduleIndex.add(listOfItems.get(i), sequences[i]);
+            }
+        }
+        return scheduleIndex;
+    }
+
+    private TermIndex getTermIndex() {
+        if (termIndex == null) {
+            int[] sequences = getOrder().toArray();
+            termIndex = new TermIndex();
+            for (int i = 0; i < sequences.length; i++) {
+                termIndex.add(listOfItems.get(i), sequences[i]);
+            }
+        }
+        return termIndex;
+    }
+
+    private TrigramIndex getTrigramIndex() {
+        if (trigramIndex == null) {
+            int[] sequences = getOrder().toArray();
+            trigramIndex = new TrigramIndex();
+            for (int i = 0; i < sequences.length; i++) {
+                trigramIndex.add(listOfItems.get(i), sequences[i]);
+            }
         }
-        return false;
+        return trigramIndex;
     }
 
 }
@@ -0,0 +1,156 @@
+package doobert;
+
+import java.util.BitSet;
+
+/**
+ * Gives every task in a {@code TaskList} a sequence number that does not change when earlier tasks are deleted,
+ * so that indexes can refer to tasks without being renumbered on every delete.
+ * <p>
+ * Sequence numbers increase in list order and are never reused. A Fenwick tree over the live sequence numbers
+ * converts between a sequence number and the task's current position in O(log n). The tree is sized by the
+ * sequence numbers handed out rather than by the tasks left, so once deletes leave it mostly empty
+ * {@link #isSparse()} tells the owner to start again with fresh sequence numbers.
+ */
+public class TaskOrder {
+    // Below this many sequence numbers the tree is small enough to keep however many tasks were deleted
+    private static final int MIN_SPARSE_SEQUENCES = 1024;
+    private static final int SPARSE_RATIO = 4;
+
+    private final BitSet live = new BitSet();
+    private int[] tree = new int[1];
+    private int nextSequence;
+    private int size;
+
+    /**
+     * Constructs a {@code TaskOrder} for a list that already holds the given number of tasks.
+     * The task at position {@code i} gets sequence number {@code i}.
+     *
+     * @param initialSize The number of tasks in the list.
+     */
+    public TaskOrder(int initialSize) {
+        assert initialSize >= 0 : "Initial size should not be negative.";
+        live.set(0, initialSize);
+        nextSequence = initialSize;
+        size = initialSize;
+        rebuild(Math.max(16, initialSize * 2));
+    }
+
+    /**
+     * Records a task added at the end of the list.
+     *
+     * @return The sequence number of the new task.
+     */
+    public int append() {
+        int sequence = nextSequence++;
+        if (sequence + 1 >= tree.length) {
+            live.set(sequence);
+            rebuild(tree.length * 2);
+        } else {
+            live.set(sequence);
+            update(sequence, 1);
+        }
+        size++;
+        return sequence;
+    }
+
+    /**
+     * Records that the task at the given position was deleted.
+     *
+     * @param position The zero-based position of the deleted task.
+     * @return The sequence number the deleted task had.
+     */
+    public int remove(int position) {
+        int sequence = sequenceAt(position);
+        live.clear(sequence);
+        update(sequence, -1);
+        size--;
+        return sequence;
+    }
+
+    /**
+     * Returns the current position of the task with the given sequence number.
+     *
+     * @param sequence The sequence number.
+     * @return The zero-based position, or -1 if the task has been deleted.
+     */
+    public int positionOf(int sequence) {
+        if (!live.get(sequence)) {
+            return -1;
+        }
+        int count = 0;
+        for (int i = sequence + 1; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count - 1;
+    }
+
+    /**
+     * Returns the sequence number of the task at the given position.
+     *
+     * @param position The zero-based position.
+     * @return The sequence number.
+     */
+    public int sequenceAt(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+        // Walk down the tree to the smallest prefix holding position + 1 live tasks
+        int index = 0;
+        int remaining = position + 1;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next < tree.length && tree[next] < remaining) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the sequence numbers of all tasks in list order.
+     *
+     * @return The sequence numbers, one per task.
+     */
+    public int[] toArray() {
+        return live.stream().toArray();
+    }
+
+    /**
+     * Returns the number of tasks in the list.
+     *
+     * @return The number of live sequence numbers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether far fewer tasks are left than sequence numbers were handed out, so that renumbering
+     * the tasks would shrink the tree and every index keyed by sequence number.
+     *
+     * @return {@code true} if fewer than a quarter of the sequence numbers handed out are still live.
+     */
+    public boolean isSparse() {
+        return nextSequence >= MIN_SPARSE_SEQUENCES && (long) size * SPARSE_RATIO < nextSequence;
+    }
+
+    private void update(int sequence, int delta) {
+        for (int i = sequence + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void rebuild(int capacity) {
+        tree = new int[capacity + 1];
+        for (int sequence = live.nextSetBit(0); sequence >= 0; sequence = live.nextSetBit(sequence + 1)) {
+            tree[sequence + 1] = 1;
+        }
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
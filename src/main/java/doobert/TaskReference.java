@@ -0,0 +1,62 @@
+package doobert;
+
+/**
+ * Refers to one task of a {@code TaskList}, either by its 1-based number as shown by {@code list}, or by its
+ * stable ID written as {@code #<id>}. A number refers to whichever task is at that position when the command
+ * runs, while an ID keeps referring to the same task when other tasks are added or deleted, e.g. by other
+ * clients of a {@code DoobertServer}.
+ */
+public class TaskReference {
+    private final int value;
+    private final boolean isId;
+
+    private TaskReference(int value, boolean isId) {
+        this.value = value;
+        this.isId = isId;
+    }
+
+    /**
+     * Parses a task number such as {@code 3} or a task ID such as {@code #17}.
+     *
+     * @param text The text to parse.
+     * @param usage The usage of the command, shown if the text is not a task number or ID.
+     * @return The reference.
+     * @throws DoobertException If the text is neither a task number nor a task ID.
+     */
+    public static TaskReference parse(String text, String usage) throws DoobertException {
+        String trimmed = text.trim();
+        boolean isId = trimmed.startsWith(Task.FILE_ID_PREFIX);
+        try {
+            int value = Integer.parseInt(isId ? trimmed.substring(Task.FILE_ID_PREFIX.length()) : trimmed);
+            return new TaskReference(value, isId);
+        } catch (NumberFormatException e) {
+            throw new DoobertException("Invalid task number. Please use: " + usage);
+        }
+    }
+
+    /**
+     * Finds the task this refers to. A task number is checked against the size of the list and an ID is
+     * looked up in O(log n).
+     *
+     * @param tasks The task list.
+     * @return The zero-based index of the task.
+     * @throws DoobertException If the list has no such task.
+     */
+    public int resolve(TaskList tasks) throws DoobertException {
+        if (!isId) {
+            int index = value - 1; // Convert to 0-based index
+            DoobertException.validateTaskIndex(index, tasks.size());
+            return index;
+        }
+        int index = value > 0 ? tasks.indexOfId(value) : -1;
+        if (index < 0) {
+            throw new DoobertException("Invalid task ID. No task has the ID " + this + ".");
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return isId ? Task.FILE_ID_PREFIX + value : String.valueOf(value);
+    }
+}
@@ -0,0 +1,127 @@
+package doobert;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Picks out the tasks a bulk edit applies to, written as a comma-separated set of task numbers, IDs and
+ * ranges, e.g. {@code 1,4,9}, {@code 3-500} or {@code 2, #17, 5-8}, or as one of the keywords {@code all},
+ * {@code done} and {@code undone}. A selection of a single number or ID is a plain {@code TaskReference}.
+ */
+public class TaskSelection {
+    private static final String ALL = "all";
+    private static final String DONE = "done";
+    private static final String UNDONE = "undone";
+
+    private final String text;
+    private final String keyword; // null for a selection of numbers, IDs and ranges
+    private final List<TaskReference> references = new ArrayList<>();
+    private final List<int[]> ranges = new ArrayList<>(); // 1-based, inclusive
+
+    private TaskSelection(String text, String keyword) {
+        this.text = text;
+        this.keyword = keyword;
+    }
+
+    /**
+     * Parses a selection of tasks.
+     *
+     * @param text The text to parse.
+     * @param usage The usage of the command, shown if the text is not a valid selection.
+     * @return The selection.
+     * @throws DoobertException If the text is not a valid selection.
+     */
+    public static TaskSelection parse(String text, String usage) throws DoobertException {
+        String trimmed = text.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.equals(ALL) || trimmed.equals(DONE) || trimmed.equals(UNDONE)) {
+            return new TaskSelection(trimmed, trimmed);
+        }
+
+        TaskSelection selection = new TaskSelection(trimmed, null);
+        for (String part : trimmed.split(",", -1)) {
+            String item = part.trim();
+            int dash = item.indexOf('-', 1); // a leading minus is a negative number, which matches no task
+            if (dash < 0) {
+                selection.references.add(TaskReference.parse(item, usage));
+                continue;
+            }
+            try {
+                int first = Integer.parseInt(item.substring(0, dash).trim());
+                int last = Integer.parseInt(item.substring(dash + 1).trim());
+                if (first < 1 || last < first) {
+                    throw new DoobertException("Invalid task range " + item
+                            + ". A range goes from a smaller task number to a larger one.");
+                }
+                selection.ranges.add(new int[] { first, last });
+            } catch (NumberFormatException e) {
+                throw new DoobertException("Invalid task number. Please use: " + usage);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * Returns whether this selects exactly one task by its number or ID, as the commands did before they
+     * took selections.
+     *
+     * @return {@code true} if the selection is a single {@code TaskReference}.
+     */
+    public boolean isSingleTask() {
+        return keyword == null && ranges.isEmpty() && references.size() == 1;
+    }
+
+    /**
+     * Finds the tasks this selects. Task numbers and ranges are checked against the size of the list, IDs are
+     * looked up in O(log n) each, and {@code done} and {@code undone} read every task once.
+     *
+     * @param tasks The task list.
+     * @return The zero-based indexes of the selected tasks, in increasing order and without repeats.
+     * @throws DoobertException If a number, range or ID does not match a task in the list.
+     */
+    public int[] resolve(TaskList tasks) throws DoobertException {
+        if (keyword != null) {
+            return resolveKeyword(tasks);
+        }
+
+        BitSet selected = new BitSet();
+        for (TaskReference reference : references) {
+            selected.set(reference.resolve(tasks));
+        }
+        int size = tasks.size();
+        for (int[] range : ranges) {
+            if (range[1] > size) {
+                throw new DoobertException("Invalid task range " + range[0] + "-" + range[1] + ". Your list has "
+                        + size + " tasks.");
+            }
+            selected.set(range[0] - 1, range[1]);
+        }
+        return selected.stream().toArray();
+    }
+
+    private int[] resolveKeyword(TaskList tasks) throws DoobertException {
+        if (keyword.equals(ALL)) {
+            int[] indexes = new int[tasks.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = i;
+            }
+            return indexes;
+        }
+        boolean isDone = keyword.equals(DONE);
+        return tasks.read(list -> {
+            BitSet selected = new BitSet(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i).isDone == isDone) {
+                    selected.set(i);
+                }
+            }
+            return selected.stream().toArray();
+        });
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
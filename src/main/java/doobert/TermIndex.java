@@ -0,0 +1,250 @@
+package doobert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An inverted index from the words of task descriptions to the tasks that contain them.
+ * <p>
+ * Descriptions are split into lowercase terms of letters and digits. Each term maps to the sequence numbers
+ * of its tasks (see {@code TaskOrder}), kept sorted so that posting lists can be intersected and merged in
+ * one pass. Terms are stored in sorted order, so all terms with a given prefix form one contiguous range.
+ * <p>
+ * A query is one or more terms joined by {@code AND} and {@code OR}, where {@code AND} binds tighter and
+ * terms next to each other are joined by {@code AND}. A term ending in {@code *} matches every term that
+ * starts with it, e.g. {@code find book* OR read AND paper}.
+ * <p>
+ * The first typo-tolerant lookup also puts every term into a {@code BkTree}, which new terms then join as they
+ * appear. Terms are not removed from the tree when their last task is deleted; fuzzy lookups skip terms that
+ * no longer have a posting list.
+ */
+public class TermIndex {
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+    private static final String PREFIX_MARKER = "*";
+
+    private final TreeMap<String, PostingList> tasksByTerm = new TreeMap<>();
+    private BkTree terms;
+
+    /**
+     * Returns whether a search keyword uses the query syntax of this index rather than being a plain substring.
+     *
+     * @param keyword The keyword entered by the user.
+     * @return {@code true} if the keyword contains an {@code AND} or {@code OR} operator or a prefix term.
+     */
+    public static boolean isQuery(String keyword) {
+        for (String word : keyword.trim().split("\\s+")) {
+            if (word.equals(AND) || word.equals(OR) || (word.length() > 1 && word.endsWith(PREFIX_MARKER))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits text into the normalized terms that are indexed.
+     *
+     * @param text The text to split.
+     * @return The lowercase runs of letters and digits in the text, in order.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isTermChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isTermChar && start < 0) {
+                start = i;
+            } else if (!isTermChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Adds a task's terms to the index.
+     *
+     * @param task The task.
+     * @param sequence The task's sequence number.
+     */
+    public void add(Task task, int sequence) {
+        for (String term : tokenize(task.getDescription())) {
+            tasksByTerm.computeIfAbsent(term, key -> {
+                if (terms != null) {
+                    terms.add(key);
+                }
+                return new PostingList();
+            }).add(sequence);
+        }
+    }
+
+    /**
+     * Removes a deleted task's terms from the index.
+     *
+     * @param task The deleted task.
+     * @param sequence The sequence number the task had.
+     */
+    public void remove(Task task, int sequence) {
+        for (String term : tokenize(task.getDescription())) {
+            PostingList tasks = tasksByTerm.get(term);
+            if (tasks != null && tasks.remove(sequence) && tasks.isEmpty()) {
+                tasksByTerm.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks matching a query.
+     *
+     * @param query The query, as described in the class documentation.
+     * @return The sequence numbers of the matching tasks in ascending (list) order.
+     */
+    public int[] search(String query) {
+        int[] result = new int[0];
+        for (String clause : query.trim().split("\\s+" + OR + "\\s+")) {
+            result = union(result, searchClause(clause));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the largest number of typos a fuzzy lookup of the word tolerates.
+     *
+     * @param word The normalized word.
+     * @return 1 for words of up to four characters, otherwise 2.
+     */
+    public static int maxTypos(String word) {
+        return word.length() <= 4 ? 1 : 2;
+    }
+
+    /**
+     * Returns whether the tree of terms used by {@link #searchFuzzy} has been built. Until then, the first
+     * fuzzy search builds it.
+     *
+     * @return {@code true} if fuzzy searches only read the index.
+     */
+    public boolean hasFuzzyIndex() {
+        return terms != null;
+    }
+
+    /**
+     * Returns the tasks containing a term within {@link #maxTypos} edits of the given word.
+     *
+     * @param word The normalized word.
+     * @return The sequence numbers of the matching tasks, each mapped to the smallest edit distance between
+     *         the word and one of the task's terms.
+     */
+    public Map<Integer, Integer> searchFuzzy(String word) {
+        if (terms == null) {
+            terms = new BkTree();
+            tasksByTerm.keySet().forEach(terms::add);
+        }
+
+        Map<Integer, Integer> distances = new HashMap<>();
+        terms.search(word, maxTypos(word), (term, distance) -> {
+            PostingList tasks = tasksByTerm.get(term);
+            if (tasks == null) {
+                return; // every task with this term has been deleted
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                distances.merge(tasks.get(i), distance, Math::min);
+            }
+        });
+        return distances;
+    }
+
+    private int[] searchClause(String clause) {
+        int[] result = null;
+        for (String word : clause.trim().split("\\s+")) {
+            if (word.equals(AND) || word.equals(OR) || word.isEmpty()) {
+                continue;
+            }
+            boolean isPrefix = word.endsWith(PREFIX_MARKER);
+            List<String> terms = tokenize(word);
+            for (int i = 0; i < terms.size(); i++) {
+                // Only the last part of a word like "o'ne*" is a prefix; the parts before it are whole terms
+                int[] matches = isPrefix && i == terms.size() - 1 ? lookUpPrefix(terms.get(i)) : lookUp(terms.get(i));
+                result = result == null ? matches : intersect(result, matches);
+                if (result.length == 0) {
+                    return result;
+                }
+            }
+        }
+        return result == null ? new int[0] : result;
+    }
+
+    private int[] lookUp(String term) {
+        PostingList tasks = tasksByTerm.get(term);
+        return tasks == null ? new int[0] : tasks.toArray();
+    }
+
+    private int[] lookUpPrefix(String prefix) {
+        // Concatenate every matching posting list, then sort once and drop tasks that have several such terms
+        int[] matches = new int[0];
+        int count = 0;
+        for (PostingList tasks : tasksByTerm.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (count + tasks.size() > matches.length) {
+                matches = Arrays.copyOf(matches, Math.max(count + tasks.size(), matches.length * 2));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                matches[count++] = tasks.get(i);
+            }
+        }
+        Arrays.sort(matches, 0, count);
+
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || matches[distinct - 1] != matches[i]) {
+                matches[distinct++] = matches[i];
+            }
+        }
+        return Arrays.copyOf(matches, distinct);
+    }
+
+    private static int[] intersect(int[] first, int[] second) {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[] union(int[] first, int[] second) {
+        if (first.length == 0) {
+            return second;
+        }
+        int[] result = new int[first.length + second.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length || j < second.length) {
+            if (j == second.length || (i < first.length && first[i] < second[j])) {
+                result[count++] = first[i++];
+            } else if (i == first.length || first[i] > second[j]) {
+                result[count++] = second[j++];
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -16,22 +16,22 @@ public class Todo extends Task {
     }
 
     /**
-     * Returns the string representation of the Todo task for user display.
+     * Renders the string representation of the Todo task for user display.
      *
      * @return The formatted string representation of the Todo task.
      */
     @Override
-    public String toString() {
-        return "[T] " + super.toString();
+    protected String renderDisplayString() {
+        return "[T] " + super.renderDisplayString();
     }
 
     /**
-     * Returns a string representation of the Todo task formatted for file storage.
+     * Appends the Todo task formatted for file storage.
      *
-     * @return A formatted string representation of the Todo task for saving to a file.
+     * @param out The builder to append the file representation to.
      */
     @Override
-    public String toFileString() {
-        return "    T | " + (isDone ? "1" : "0") + " | " + description;
+    public void appendFileString(StringBuilder out) {
+        appendFilePrefix(out, 'T');
     }
 }
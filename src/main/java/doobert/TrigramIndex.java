@@ -0,0 +1,118 @@
+package doobert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A substring index over task descriptions, keyed by every run of three characters (trigram).
+ * <p>
+ * Descriptions are lowercased exactly as {@code find} lowercases them, and each trigram of the lowercased
+ * description maps to the sequence numbers of its tasks (see {@code TaskOrder}). Any task containing a keyword
+ * must contain every trigram of the keyword, so intersecting those posting lists gives a small candidate set
+ * that is then confirmed with the same {@code contains} check as a full scan. Keywords shorter than three
+ * characters have no trigrams and cannot be answered from the index.
+ */
+public class TrigramIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, PostingList> tasksByTrigram = new HashMap<>();
+
+    /**
+     * Returns whether a keyword is long enough to be looked up in the index.
+     *
+     * @param keyword The lowercased keyword.
+     * @return {@code true} if the keyword has at least one trigram.
+     */
+    public static boolean canSearch(String keyword) {
+        return keyword.length() >= GRAM_LENGTH;
+    }
+
+    /**
+     * Returns the text that keywords are matched against for a task, as {@code find} has always done it.
+     *
+     * @param task The task.
+     * @return The lowercased description.
+     */
+    public static String normalize(Task task) {
+        return task.getDescription().toLowerCase();
+    }
+
+    /**
+     * Adds a task's trigrams to the index.
+     *
+     * @param task The task.
+     * @param sequence The task's sequence number.
+     */
+    public void add(Task task, int sequence) {
+        for (long trigram : trigramsOf(normalize(task))) {
+            tasksByTrigram.computeIfAbsent(trigram, key -> new PostingList()).add(sequence);
+        }
+    }
+
+    /**
+     * Removes a deleted task's trigrams from the index.
+     *
+     * @param task The deleted task.
+     * @param sequence The sequence number the task had.
+     */
+    public void remove(Task task, int sequence) {
+        for (long trigram : trigramsOf(normalize(task))) {
+            PostingList tasks = tasksByTrigram.get(trigram);
+            if (tasks != null && tasks.remove(sequence) && tasks.isEmpty()) {
+                tasksByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks that may contain the keyword. Every task that contains it is included, but
+     * candidates still have to be confirmed against their description.
+     *
+     * @param keyword The lowercased keyword, at least three characters long.
+     * @return The sequence numbers of the candidate tasks in ascending (list) order.
+     */
+    public int[] findCandidates(String keyword) {
+        assert canSearch(keyword) : "Keyword should have at least one trigram.";
+        List<PostingList> postings = new ArrayList<>();
+        for (long trigram : trigramsOf(keyword)) {
+            PostingList tasks = tasksByTrigram.get(trigram);
+            if (tasks == null) {
+                return new int[0];
+            }
+            postings.add(tasks);
+        }
+
+        // Probe the larger posting lists with each entry of the smallest one
+        postings.sort(Comparator.comparingInt(PostingList::size));
+        int[] candidates = postings.get(0).toArray();
+        int count = candidates.length;
+        for (int i = 1; i < postings.size() && count > 0; i++) {
+            PostingList tasks = postings.get(i);
+            int kept = 0;
+            int position = 0;
+            for (int j = 0; j < count && position < tasks.size(); j++) {
+                int found = tasks.search(candidates[j], position);
+                position = found >= 0 ? found + 1 : -found - 1;
+                if (found >= 0) {
+                    candidates[kept++] = candidates[j];
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private static Set<Long> trigramsOf(String text) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return trigrams;
+    }
+}
@@ -65,6 +65,24 @@ public class Ui {
         System.out.println("   " + message);
     }
 
+    /**
+     * Returns a sink that prints a command's response to the console as it is produced.
+     * Call {@link #endResponse()} once the command has finished.
+     *
+     * @return The console response sink.
+     */
+    public ResponseSink getResponseSink() {
+        return writer::append;
+    }
+
+    /**
+     * Ends the response printed through {@link #getResponseSink()} and flushes it to the console.
+     */
+    public void endResponse() {
+        writer.println();
+        writer.flush();
+    }
+
     /**
      * Displays an error message to the user.
      *
@@ -1,55 +1,58 @@
 package doobert;
 
 /**
- * Represents a command that unmarks a task as done in the task list.
+ * Represents a command that unmarks a task, or a selection of tasks such as {@code unmark all}, as done in the
+ * task list.
  */
 public class UnmarkCommand extends Command {
-    private final int index;
+    private final TaskSelection selection;
 
     /**
-     * Constructs an {@code UnmarkCommand} object with the specified task index.
+     * Constructs an {@code UnmarkCommand} object with the specified tasks.
      *
-     * @param arguments The task number to be unmarked (1-based index).
-     * @throws DoobertException If the input is not a valid integer.
+     * @param arguments The task number (1-based) or {@code #<id>} of the task to be unmarked, or a
+     *                  {@code TaskSelection} of several tasks.
+     * @throws DoobertException If the argument is not a task number, ID or selection.
      */
     public UnmarkCommand(String arguments) throws DoobertException {
-        try {
-            this.index = Integer.parseInt(arguments.trim()) - 1; // Convert to 0-based index
-        } catch (NumberFormatException e) {
-            throw new DoobertException("Invalid task number. Please use: unmark <task_number>");
-        }
+        this.selection = TaskSelection.parse(arguments,
+                "unmark <task_number>, unmark #<task_id>, unmark 1,4,9, unmark 3-500 or unmark all");
     }
 
     /**
-     * Executes the unmark command, marking a task as undone in the task list.
-     * The updated list is saved to storage, and the user is notified.
+     * Executes the unmark command, marking the selected tasks as undone in the task list.
+     * The updated list is saved to storage once, and the user is notified.
      *
      * @param tasks   The task list containing all tasks.
      * @param ui      The user interface for displaying messages.
      * @param storage The storage system for saving tasks.
-     * @throws DoobertException If the task index is invalid.
-     * @return A string representation of the task unmarked.
+     * @throws DoobertException If there is no such task.
+     * @return A string representation of the task unmarked, or a summary of the tasks unmarked.
      */
     @Override
     public String execute(TaskList tasks, Ui ui, Storage storage) throws DoobertException {
-        // Validate the index before unmarking
-        DoobertException.validateTaskIndex(index, tasks.getList().size());
-
-        // Get the task reference
-        Task task = tasks.getList().get(index);
+        // Find and validate the indexes before unmarking
+        int[] indexes = selection.resolve(tasks);
 
-        // Mark the task as undone and store the message
-        String markMessage = task.markAsUndone();
+        if (selection.isSingleTask()) {
+            // Mark the task as undone and store the message
+            String markMessage = tasks.unmarkTask(indexes[0]);
 
-        // Save changes
-        storage.saveTask(tasks);
-
-        // Output without running the function again
-        tasks.unmarkTask(index);
-        return markMessage;
+            // Save changes
+            storage.saveTask(tasks);
 
+            return markMessage;
+        }
 
+        int unmarkedCount = tasks.setDone(indexes, false);
+        if (unmarkedCount < 0) {
+            throw new DoobertException("Invalid task number. No such task exists.");
+        }
+        if (unmarkedCount > 0) {
+            storage.saveTask(tasks);
+        }
+        return "OK, I've marked " + unmarkedCount + " of the " + indexes.length + " tasks in '" + selection
+                + "' as not done yet.";
     }
 
 }
-
@@ -5,19 +5,33 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 /**
- * Represents a command to view tasks scheduled for a specific date.
+ * Represents a command to view tasks scheduled for a specific date, or for a range of dates
+ * such as {@code view 01-03-2025 to 31-03-2025}.
  */
 public class ViewScheduleCommand extends Command {
+    private static final String RANGE_SEPARATOR = " to ";
+
     private LocalDate date;
+    private LocalDate endDate;
 
     /**
-     * Constructs a {@code ViewScheduleCommand} with the given date argument.
+     * Constructs a {@code ViewScheduleCommand} with the given date or date range argument.
      *
-     * @param arguments The date input as a string.
-     * @throws DoobertException If the date format is invalid.
+     * @param arguments The date input as a string, or two dates separated by {@code to}.
+     * @throws DoobertException If a date format is invalid or the range ends before it starts.
      */
     public ViewScheduleCommand(String arguments) throws DoobertException {
-        this.date = parseDate(arguments);
+        int separator = arguments.indexOf(RANGE_SEPARATOR);
+        if (separator < 0) {
+            this.date = parseDate(arguments);
+            return;
+        }
+
+        this.date = parseDate(arguments.substring(0, separator));
+        this.endDate = parseDate(arguments.substring(separator + RANGE_SEPARATOR.length()));
+        if (endDate.isBefore(date)) {
+            throw new DoobertException("The end date of the range cannot be before the start date.");
+        }
     }
 
     /**
@@ -45,15 +59,40 @@ public class ViewScheduleCommand extends Command {
     }
 
     /**
-     * Executes the command to display tasks scheduled for the given date.
+     * Executes the command to display tasks scheduled for the given date or range.
      *
      * @param tasks   The task list to check for scheduled tasks.
      * @param ui      The user interface for displaying messages.
      * @param storage The storage handler.
-     * @return The formatted schedule for the given date.
+     * @return The formatted schedule for the given date or range.
      */
     @Override
     public String execute(TaskList tasks, Ui ui, Storage storage) {
-        return tasks.viewSchedule(date);
+        StringBuilder response = new StringBuilder();
+        execute(tasks, ui, storage, response::append);
+        return response.toString();
+    }
+
+    /**
+     * Executes the command, writing the schedule to the sink one day at a time, so a range of many days
+     * is never held in memory as one response.
+     *
+     * @param tasks   The task list to check for scheduled tasks.
+     * @param ui      The user interface for displaying messages.
+     * @param storage The storage handler.
+     * @param out     The sink receiving the response.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage, ResponseSink out) {
+        if (endDate != null) {
+            tasks.viewSchedule(date, endDate, out);
+        } else {
+            tasks.viewSchedule(date, out);
+        }
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
@@ -0,0 +1,225 @@
+package doobert;
+
+import java.util.Locale;
+
+/**
+ * A {@code Storage} that takes disk writes off the command path.
+ * <p>
+ * Each {@link #saveTask} only captures the edits made since the previous save. A background flusher merges
+ * the captured edits and writes them in one go, either as soon as it is free ({@code ASYNC}) or once per
+ * interval ({@code INTERVAL}). {@code SYNC} keeps the plain {@code Storage} behaviour. Pending edits are
+ * flushed by {@link #close()}, which runs on {@code bye} and when the JVM shuts down.
+ */
+public class WriteBehindStorage extends Storage {
+    private static final long DEFAULT_INTERVAL_MILLIS = 200;
+
+    /**
+     * When captured edits are written to disk.
+     */
+    public enum DurabilityMode {
+        SYNC, ASYNC, INTERVAL
+    }
+
+    private final DurabilityMode mode;
+    private final long intervalMillis;
+
+    // Guarded by this: the merged edits waiting to be written and how many saves they cover
+    private PendingSave pendingSave;
+    private int queueDepth;
+    private int maxQueueDepth;
+    private boolean isClosed;
+
+    // Held while writing so that flushes from different threads reach the disk in capture order
+    private final Object flushLock = new Object();
+    private long flushCount;
+    private long totalFlushNanos;
+    private long maxFlushNanos;
+
+    private Thread flusher;
+
+    /**
+     * Constructs a {@code WriteBehindStorage} over the given file.
+     *
+     * @param filePath The path to the file where tasks are stored.
+     * @param isJournalEnabled Whether edits should be appended to a journal instead of rewriting the file.
+     * @param mode When captured edits should be written.
+     * @param intervalMillis How often the flusher writes in {@code INTERVAL} mode.
+     */
+    public WriteBehindStorage(String filePath, boolean isJournalEnabled, DurabilityMode mode, long intervalMillis) {
+        super(filePath, isJournalEnabled);
+        assert mode != null : "Durability mode should not be null.";
+        assert intervalMillis > 0 : "Flush interval should be positive.";
+        this.mode = mode;
+        this.intervalMillis = intervalMillis;
+
+        if (mode != DurabilityMode.SYNC) {
+            flusher = new Thread(this::runFlusher, "doobert-write-behind");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "doobert-write-behind-shutdown"));
+    }
+
+    /**
+     * Creates a {@code WriteBehindStorage} from a durability setting such as {@code sync}, {@code async}
+     * or {@code interval-500} (flush every 500 ms).
+     *
+     * @param filePath The path to the file where tasks are stored.
+     * @param isJournalEnabled Whether edits should be appended to a journal instead of rewriting the file.
+     * @param durability The durability setting.
+     * @return The configured storage.
+     * @throws IllegalArgumentException If the durability setting is not recognised.
+     */
+    public static WriteBehindStorage of(String filePath, boolean isJournalEnabled, String durability) {
+        String setting = durability.trim().toLowerCase(Locale.ROOT);
+        if (setting.equals("sync")) {
+            return new WriteBehindStorage(filePath, isJournalEnabled, DurabilityMode.SYNC, DEFAULT_INTERVAL_MILLIS);
+        } else if (setting.equals("async")) {
+            return new WriteBehindStorage(filePath, isJournalEnabled, DurabilityMode.ASYNC, DEFAULT_INTERVAL_MILLIS);
+        } else if (setting.matches("interval-\\d+")) {
+            long interval = Long.parseLong(setting.substring("interval-".length()));
+            return new WriteBehindStorage(filePath, isJournalEnabled, DurabilityMode.INTERVAL, Math.max(1, interval));
+        }
+        throw new IllegalArgumentException("Unknown durability mode: " + durability
+                + ". Use 'sync', 'async' or 'interval-<ms>'.");
+    }
+
+    /**
+     * Captures the edits made since the previous save and queues them for the flusher.
+     * In {@code SYNC} mode, or once the storage is closed, the edits are written before this method returns.
+     *
+     * @param taskList The {@code TaskList} contains the tasks to be saved.
+     */
+    @Override
+    public void saveTask(TaskList taskList) {
+        if (deferSave()) {
+            return;
+        }
+        long start = System.nanoTime();
+        PendingSave save = prepareSave(taskList);
+
+        if (mode == DurabilityMode.SYNC) {
+            write(save);
+        } else {
+            boolean isFlusherStopped;
+            synchronized (this) {
+                pendingSave = pendingSave == null ? save : pendingSave.merge(save);
+                queueDepth++;
+                maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+                if (mode == DurabilityMode.ASYNC) {
+                    notifyAll();
+                }
+                isFlusherStopped = isClosed;
+            }
+            // Nothing else will write a save made after close, so it is written before returning
+            if (isFlusherStopped) {
+                flush();
+            }
+        }
+        // Only the time the command waited counts, not the flusher's write in the background
+        CommandMetrics.recordPersist(System.nanoTime() - start);
+    }
+
+    /**
+     * Writes all queued edits to disk before returning.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            PendingSave save = takePendingSave();
+            if (save != null) {
+                write(save);
+            }
+        }
+    }
+
+    /**
+     * Flushes queued edits, stops the flusher and waits for background compaction to finish.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            isClosed = true;
+            notifyAll();
+        }
+        flush();
+        super.close();
+    }
+
+    /**
+     * Returns the number of saves currently waiting to be written.
+     *
+     * @return The queue depth.
+     */
+    public synchronized int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Returns a summary of how the flusher has been performing.
+     *
+     * @return The flush count, average and maximum flush latency, and current and maximum queue depth.
+     */
+    public String getFlushStatistics() {
+        long flushes;
+        long totalNanos;
+        long maxNanos;
+        synchronized (flushLock) {
+            flushes = flushCount;
+            totalNanos = totalFlushNanos;
+            maxNanos = maxFlushNanos;
+        }
+        double averageMillis = flushes == 0 ? 0 : totalNanos / 1_000_000.0 / flushes;
+        synchronized (this) {
+            return String.format("Durability: %s, flushes: %d, avg flush: %.2f ms, max flush: %.2f ms, "
+                            + "queue depth: %d (max %d)", describeMode(), flushes, averageMillis,
+                    maxNanos / 1_000_000.0, queueDepth, maxQueueDepth);
+        }
+    }
+
+    private String describeMode() {
+        return mode == DurabilityMode.INTERVAL
+                ? "interval-" + intervalMillis
+                : mode.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private synchronized PendingSave takePendingSave() {
+        PendingSave save = pendingSave;
+        pendingSave = null;
+        queueDepth = 0;
+        return save;
+    }
+
+    private void write(PendingSave save) {
+        long start = System.nanoTime();
+        persist(save);
+        long elapsed = System.nanoTime() - start;
+
+        synchronized (flushLock) {
+            flushCount++;
+            totalFlushNanos += elapsed;
+            maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            synchronized (this) {
+                try {
+                    if (mode == DurabilityMode.INTERVAL) {
+                        wait(intervalMillis);
+                    } else {
+                        while (pendingSave == null && !isClosed) {
+                            wait();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (isClosed) {
+                    return;
+                }
+            }
+            flush();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Path;
+
+public class BatchRunnerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void run_scriptWithBadLines_reportsErrorsAndSavesOnce() throws IOException, DoobertException {
+        String filePath = tempDir.resolve("doobert.txt").toString();
+        Storage storage = new Storage(filePath, true);
+        TaskList taskList = new TaskList();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        String script = "todo read book\n\n# comment\nfly\ndeadline return book /by 2019-10-15\nmark 9\n"
+                + "mark 1\nbye\ntodo after bye\n";
+
+        BatchRunner.Summary summary = new BatchRunner(taskList, new Ui(), storage, new Parser(),
+                new PrintStream(errors, true)).run(new BufferedReader(new StringReader(script)));
+
+        assertEquals(5, summary.getCommandCount());
+        assertEquals(2, summary.getErrorCount());
+        assertEquals(3, summary.getDeferredSaveCount());
+        String[] errorLines = errors.toString().split("\\R");
+        assertEquals(2, errorLines.length);
+        assertEquals("Line 4: Sorry, I do not understand that.", errorLines[0]);
+        assertTrue(errorLines[1].startsWith("Line 6: "));
+        assertEquals(taskList.getList().toString(), new Storage(filePath, true).loadTasks().toString());
+        assertEquals(2, taskList.getList().size());
+    }
+}
@@ -0,0 +1,134 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class CommandMetricsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void getPercentileNanos_randomDurations_withinOneBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] durations = new long[10_000];
+        Random random = new Random(1);
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = (long) Math.exp(random.nextDouble() * 25);
+            histogram.record(durations[i]);
+        }
+        Arrays.sort(durations);
+
+        assertEquals(durations.length, histogram.getCount());
+        assertEquals(durations[durations.length - 1], histogram.getMaxNanos());
+        for (double fraction : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            long exact = durations[(int) Math.ceil(durations.length * fraction) - 1];
+            long estimate = histogram.getPercentileNanos(fraction);
+            assertTrue(estimate >= exact && estimate <= exact + exact / 8 + 1, fraction + ": " + estimate
+                    + " vs " + exact);
+        }
+    }
+
+    @Test
+    public void getCountAtMost_boundInsideBucket_apportionsBucket() throws DoobertException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // One bucket runs from 1024 to 1151 nanoseconds
+        for (long nanos = 1024; nanos < 1152; nanos++) {
+            histogram.record(nanos);
+        }
+        histogram.record(5000);
+
+        assertEquals(0, histogram.getCountAtMost(1023));
+        assertEquals(64, histogram.getCountAtMost(1087));
+        assertEquals(128, histogram.getCountAtMost(1151));
+        assertEquals(129, histogram.getCountAtMost(1_000_000));
+
+        // A read-only command creates a persist histogram that nothing else records into
+        CommandMetrics metrics = new CommandMetrics();
+        metrics.execute(metrics.parse(new Parser(metrics), "list"), new TaskList(), new Ui(), null, text -> { });
+        LatencyHistogram persist = metrics.getHistogram("ListCommand", CommandMetrics.Stage.PERSIST);
+        for (int i = 0; i < 1000; i++) {
+            persist.record(1_000_000 + i * 4000L);
+        }
+        String prefix = "doobert_command_duration_seconds_bucket{command=\"ListCommand\",stage=\"persist\",";
+        long previous = 0;
+        for (String line : metrics.toPrometheus().split("\n")) {
+            if (line.startsWith(prefix)) {
+                long count = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+                assertTrue(count >= previous, line);
+                previous = count;
+                if (line.startsWith(prefix + "le=\"0.0025\"")) {
+                    // 376 durations are at most 2.5 ms; dropping the bucket holding the bound would give 340
+                    assertTrue(Math.abs(count - 376) <= 2, line);
+                }
+            }
+        }
+        assertEquals(1000, previous);
+    }
+
+    @Test
+    public void execute_commands_recordsStagesPerCommandClassAndExports() throws Exception {
+        CommandMetrics metrics = new CommandMetrics();
+        Parser parser = new Parser(metrics);
+        Storage storage = new Storage(tempDir.resolve("doobert.txt").toString(), true);
+        TaskList tasks = new TaskList();
+        StringBuilder response = new StringBuilder();
+        for (String input : new String[] {"todo read book", "todo return book", "list", "mark 1"}) {
+            metrics.execute(metrics.parse(parser, input), tasks, new Ui(), storage, response::append);
+        }
+        assertThrows(DoobertException.class, () -> metrics.parse(parser, "fly"));
+
+        assertEquals(2, metrics.getHistogram("AddTodoCommand", CommandMetrics.Stage.PARSE).getCount());
+        assertEquals(2, metrics.getHistogram("AddTodoCommand", CommandMetrics.Stage.EXECUTE).getCount());
+        assertEquals(2, metrics.getHistogram("AddTodoCommand", CommandMetrics.Stage.PERSIST).getCount());
+        assertEquals(1, metrics.getHistogram("MarkCommand", CommandMetrics.Stage.PERSIST).getCount());
+        assertEquals(0, metrics.getHistogram("ListCommand", CommandMetrics.Stage.PERSIST).getCount());
+        assertEquals(1, metrics.getHistogram(CommandMetrics.INVALID_COMMAND, CommandMetrics.Stage.PARSE).getCount());
+        assertNull(metrics.getHistogram("DeleteCommand", CommandMetrics.Stage.PARSE));
+
+        response.setLength(0);
+        metrics.execute(metrics.parse(parser, "stats"), tasks, new Ui(), storage, response::append);
+        assertTrue(response.toString().matches("(?s)Command +Stage .*AddTodoCommand +persist +2 .*"),
+                response.toString());
+
+        Path json = tempDir.resolve("metrics.json");
+        metrics.writeJson(json);
+        assertTrue(Files.readString(json).contains("\"MarkCommand\": {\n      \"parse\": {\"count\": 1,"));
+
+        MetricsEndpoint endpoint = new MetricsEndpoint(metrics);
+        int port = endpoint.start(0);
+        try {
+            String text = get(new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), port,
+                    MetricsEndpoint.PATH));
+            assertTrue(text.contains("# TYPE doobert_command_duration_seconds histogram\n"));
+            assertTrue(text.contains("doobert_command_duration_seconds_count{command=\"AddTodoCommand\","
+                    + "stage=\"execute\"} 2\n"), text);
+            assertTrue(text.contains("doobert_command_duration_seconds_bucket{command=\"ListCommand\","
+                    + "stage=\"execute\",le=\"+Inf\"} 1\n"), text);
+        } finally {
+            endpoint.stop();
+        }
+    }
+
+    private static String get(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            assertEquals(200, connection.getResponseCode());
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
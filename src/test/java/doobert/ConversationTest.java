@@ -0,0 +1,37 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ConversationTest {
+    @Test
+    public void add_pastCapacity_keepsMostRecentMessages() {
+        Conversation conversation = new Conversation(3);
+        conversation.addDoobertMessage("Welcome to Doobert!");
+        for (int i = 1; i <= 1000; i++) {
+            conversation.addUserMessage("list " + i);
+            conversation.addDoobertMessage("page " + i);
+        }
+
+        List<Conversation.Message> messages = conversation.getMessages();
+        assertEquals(List.of("page 999", "list 1000", "page 1000"),
+                messages.stream().map(Conversation.Message::getText).collect(Collectors.toList()));
+        assertTrue(messages.get(0).isFromDoobert() && !messages.get(1).isFromDoobert());
+    }
+
+    @Test
+    public void replaceMessage_placeholder_keepsPosition() {
+        Conversation conversation = new Conversation(2);
+        Conversation.Message first = conversation.addDoobertMessage("working...");
+        conversation.addUserMessage("todo read");
+        Conversation.Message second = conversation.addDoobertMessage("working...");
+
+        assertEquals(-1, conversation.replaceMessage(first, "evicted"));
+        assertEquals(1, conversation.replaceMessage(second, "Got it."));
+        assertEquals(List.of("todo read", "Got it."),
+                conversation.getMessages().stream().map(Conversation.Message::getText).collect(Collectors.toList()));
+        assertTrue(conversation.getMessages().get(1).isFromDoobert());
+    }
+}
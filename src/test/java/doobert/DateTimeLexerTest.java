@@ -0,0 +1,62 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+public class DateTimeLexerTest {
+    @Test
+    public void parseDeadlineDateTime_resolvesLikeFormatter() {
+        assertEquals(LocalDateTime.of(2024, 12, 2, 8, 0), DateTimeLexer.parseDeadlineDateTime("2/12/2024 800"));
+        assertEquals(LocalDateTime.of(2019, 10, 15, 18, 0), DateTimeLexer.parseDeadlineDateTime("15-10-2019 1800"));
+        // A day past the end of the month is clamped and 2400 rolls over to the next day
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), DateTimeLexer.parseDeadlineDateTime("31/2/2024 2400"));
+        assertEquals(LocalDateTime.of(0, 1, 1, 0, 0), DateTimeLexer.parseDeadlineDateTime("1/1/0000 0000"));
+        assertThrows(IllegalArgumentException.class, () -> DateTimeLexer.parseDeadlineDateTime("1-1-0000 0000"));
+        assertThrows(IllegalArgumentException.class, () -> DateTimeLexer.parseDeadlineDateTime("15/10/2019 2401"));
+        assertNull(DateTimeLexer.parseDeadlineDateTime("2019-10-15"));
+    }
+
+    @Test
+    public void parseEventStart_matchesFormatterOnEveryPattern() {
+        String[] inputs = {"2019-10-15 1800", "2019-2-30 930", "2019/10/15 02400", "Oct 15 2019 1800",
+            "Feb 29 2023 2400", "Oct 5 2019 1800", "oct 15 2019 1800", "0000-1-1 1200", "+10000-1-1 1200",
+            "2019-10-15 1860", "2019-10-15 18", "2019-10-15  1800"};
+        DateTimeFormatter[] formatters = {DateTimeFormatter.ofPattern("yyyy-M-d Hmm"),
+            DateTimeFormatter.ofPattern("MMM dd yyyy HHmm"), DateTimeFormatter.ofPattern("yyyy/M/d Hmm")};
+        for (String input : inputs) {
+            LocalDateTime expected = null;
+            for (DateTimeFormatter formatter : formatters) {
+                try {
+                    expected = LocalDateTime.parse(input, formatter);
+                    break;
+                } catch (DateTimeParseException e) {
+                    // Try the next format
+                }
+            }
+            if (expected == null) {
+                assertThrows(IllegalArgumentException.class, () -> DateTimeLexer.parseEventStart(input), input);
+            } else {
+                assertEquals(expected, DateTimeLexer.parseEventStart(input), input);
+            }
+        }
+    }
+
+    @Test
+    public void parseEventStart_weekdayAndTime_nextOccurrence() {
+        LocalDateTime start = DateTimeLexer.parseEventStart("monday 2PM");
+        assertEquals(DayOfWeek.MONDAY, start.getDayOfWeek());
+        assertEquals(14, start.getHour());
+        LocalDate today = LocalDate.now();
+        assertTrue(start.toLocalDate().isAfter(today) && !start.toLocalDate().isAfter(today.plusDays(7)));
+        assertEquals(0, DateTimeLexer.parseEventStart("12am").getHour());
+        assertThrows(IllegalArgumentException.class, () -> DateTimeLexer.parseEventStart("Funday 2pm"));
+        assertThrows(IllegalArgumentException.class, () -> DateTimeLexer.parseEventStart("Mon 13pm"));
+    }
+}
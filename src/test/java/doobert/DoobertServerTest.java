@@ -0,0 +1,61 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DoobertServerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void send_concurrentClients_shareOneTaskList() throws Exception {
+        Storage storage = new Storage(tempDir.resolve("doobert.txt").toString(), true);
+        TaskList taskList = new TaskList();
+        DoobertServer server = new DoobertServer(taskList, new Ui(), storage, new Parser());
+        int port = server.start(0);
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int c = 0; c < 4; c++) {
+                int client = c;
+                results.add(clients.submit(() -> {
+                    try (DoobertClient connection = new DoobertClient(port)) {
+                        for (int i = 0; i < 50; i++) {
+                            assertTrue(connection.send("todo client " + client + " task " + i).startsWith("Got it."));
+                        }
+                        assertEquals("Goodbye! Hope to see you again soon!", connection.send("bye"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+
+            try (DoobertClient connection = new DoobertClient(port)) {
+                String list = connection.send("list 1 200");
+                assertEquals(201, list.split("\n").length);
+                assertTrue(connection.send("begin").startsWith("Error: Transactions are not available"));
+                assertEquals("Error: Sorry, I do not understand that.", connection.send("fly"));
+                assertTrue(connection.send(DoobertServer.STATS_REQUEST).startsWith("Requests: 207 (2 failed)"));
+            }
+            assertEquals(200, taskList.getList().size());
+            assertEquals(taskList.getList().toString(), storageTasks(storage));
+        } finally {
+            clients.shutdownNow();
+            server.stop();
+        }
+    }
+
+    private String storageTasks(Storage storage) throws DoobertException {
+        storage.awaitCompaction();
+        return new Storage(tempDir.resolve("doobert.txt").toString(), true).loadTasks().toString();
+    }
+}
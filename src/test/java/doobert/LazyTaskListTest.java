@@ -0,0 +1,84 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LazyTaskListTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void markTask_afterCacheEviction_keepsEdit() throws IOException {
+        Path file = tempDir.resolve("doobert.txt");
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        new TaskFileWriter().write(file, tasks);
+
+        TaskList taskList = new TaskList(LazyTaskList.open(file, null, 4));
+        taskList.markTask(3);
+        for (Task task : taskList.getList()) {
+            task.toString(); // reads every task, evicting task 3 from the tiny cache
+        }
+
+        tasks.get(3).markAsDone();
+        assertEquals(tasks.toString(), taskList.getList().toString());
+        assertEquals(tasks.toString(), taskList.snapshot().toString());
+    }
+
+    @Test
+    public void loadTasks_lazyWithJournal_matchesEagerLoad() throws DoobertException {
+        String filePath = tempDir.resolve("doobert.txt").toString();
+        Storage storage = new Storage(filePath, true);
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 10; i++) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        storage.saveTask(taskList); // first save writes the base file
+        storage.awaitCompaction();
+
+        taskList.addTask(new Deadline("submit report", "2019-10-15"));
+        taskList.markTask(2);
+        taskList.deleteTask(0);
+        storage.saveTask(taskList);
+
+        Storage lazyStorage = new Storage(filePath, true);
+        lazyStorage.setLazyLoading(true);
+        List<Task> loaded = lazyStorage.loadTasks();
+        assertTrue(loaded instanceof LazyTaskList);
+        assertEquals(taskList.getList().toString(), loaded.toString());
+    }
+
+    @Test
+    public void getTask_withJournal_returnsBeforeIndexingCompletes() throws IOException {
+        Path file = tempDir.resolve("large.txt");
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 500_000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        new TaskFileWriter().write(file, tasks);
+        Journal journal = new Journal(file.toString());
+        journal.append(List.of(TaskChange.delete(0), TaskChange.mark(1), TaskChange.add(new Todo("added"))));
+
+        LazyTaskList lazyTasks = LazyTaskList.open(file, journal);
+        TaskList taskList = new TaskList(lazyTasks);
+        Task first = taskList.getTask(0);
+        assertTrue(taskList.hasTask(1));
+        String statistics = lazyTasks.getIndexStatistics();
+        assertTrue(statistics.endsWith("so far."), statistics);
+        assertEquals("[T] [ ] task 1", first.toString());
+        assertEquals("[T] [X] task 2", taskList.getTask(1).toString());
+        assertFalse(taskList.hasTask(-1));
+
+        assertEquals(500_000, taskList.size());
+        assertEquals("[T] [ ] added", taskList.getTask(499_999).toString());
+        assertEquals("[T] [X] task 2", taskList.getTask(1).toString());
+    }
+}
@@ -0,0 +1,56 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ListCommandTest {
+    @Test
+    public void execute_page_numbersTasksAcrossPages() throws DoobertException {
+        TaskList taskList = taskList(5);
+
+        assertEquals("Here are the tasks in your list (page 2 of 3):\n3. [T] [ ] task 3\n4. [T] [ ] task 4\n",
+                new ListCommand("2 2").execute(taskList, null, null));
+        assertEquals("Here are the tasks in your list (page 3 of 3):\n5. [T] [ ] task 5\n",
+                new ListCommand(" 3   2 ").execute(taskList, null, null));
+        assertEquals("Here are the tasks in your list (page 1 of 1):\n1. [T] [ ] task 1\n2. [T] [ ] task 2\n"
+                + "3. [T] [ ] task 3\n4. [T] [ ] task 4\n5. [T] [ ] task 5\n",
+                new ListCommand("1").execute(taskList, null, null));
+        assertThrows(DoobertException.class, () -> new ListCommand("4 2").execute(taskList, null, null));
+        assertThrows(DoobertException.class, () -> new ListCommand("0"));
+        assertThrows(DoobertException.class, () -> new ListCommand("1 x"));
+        assertThrows(DoobertException.class, () -> new ListCommand("1 2 3"));
+    }
+
+    @Test
+    public void execute_wholeList_streamsInBoundedParts() throws DoobertException {
+        TaskList taskList = taskList(1000);
+        List<Integer> partLengths = new ArrayList<>();
+        StringBuilder streamed = new StringBuilder();
+        new ListCommand("").execute(taskList, null, null, part -> {
+            partLengths.add(part.length());
+            streamed.append(part);
+        });
+
+        assertEquals(new ListCommand("").execute(taskList, null, null), streamed.toString());
+        assertTrue(partLengths.size() > 1);
+        assertTrue(partLengths.stream().allMatch(length -> length < 256 * 40));
+
+        BoundedResponseSink bounded = new BoundedResponseSink(200);
+        new ListCommand("").execute(taskList, null, null, bounded);
+        assertTrue(bounded.isTruncated());
+        assertTrue(bounded.toString().startsWith("Here are the tasks in your list:\n1. [T] [ ] task 1\n"));
+        assertTrue(bounded.toString().endsWith("...and 991 more lines. Use 'list [page] [size]' to see your tasks "
+                + "a page at a time."));
+    }
+
+    private static TaskList taskList(int size) {
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= size; i++) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        return taskList;
+    }
+}
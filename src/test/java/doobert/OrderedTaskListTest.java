@@ -0,0 +1,83 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class OrderedTaskListTest {
+    @Test
+    public void edits_randomMix_matchArrayList() {
+        Random random = new Random(11);
+        List<Task> expected = new ArrayList<>();
+        OrderedTaskList actual = new OrderedTaskList();
+
+        for (int i = 0; i < 20_000; i++) {
+            int choice = random.nextInt(10);
+            if (expected.isEmpty() || choice < 4) {
+                Task task = new Todo("task " + i);
+                expected.add(task);
+                actual.add(task);
+            } else if (choice < 8) {
+                // Deletes outnumber adds for a while, so the list has to move its tasks into fresh slots
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), actual.remove(index));
+            } else if (choice < 9) {
+                int index = random.nextInt(expected.size());
+                Task task = new Todo("replacement " + i);
+                assertEquals(expected.set(index, task), actual.set(index, task));
+            } else {
+                int index = random.nextInt(expected.size() + 1);
+                Task task = new Todo("inserted " + i);
+                expected.add(index, task);
+                actual.add(index, task);
+            }
+
+            if (i % 1000 == 0) {
+                assertEquals(expected, actual);
+                assertEquals(expected, new ArrayList<>(actual));
+            }
+        }
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void remove_almostEverything_keepsRemainingOrder() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        OrderedTaskList list = new OrderedTaskList(tasks);
+
+        for (int i = 4999; i >= 0; i--) {
+            if (i % 100 != 0) {
+                list.remove(i);
+            }
+        }
+
+        assertEquals(50, list.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(tasks.get(i * 100), list.get(i));
+        }
+        list.add(new Todo("last"));
+        assertEquals("last", list.get(50).getDescription());
+    }
+
+    @Test
+    public void iterator_afterEdit_failsFast() {
+        OrderedTaskList list = new OrderedTaskList(List.of(new Todo("read book"), new Todo("return book")));
+        Iterator<Task> iterator = list.iterator();
+        iterator.next();
+        list.remove(0);
+
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(NullPointerException.class, () -> list.add(null));
+    }
+}
@@ -0,0 +1,92 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ParallelTaskLoaderTest {
+    // Lines only the general parser reads, and lines neither parser reads
+    private static final String[] NON_CANONICAL_LINES = { "T|1|no spaces", "  D | 0 |  padded  | Dec 02 2019  ",
+        "E | 0 | meeting | Dec 02 2019 1400 - 1600 | #900", "D | 1 | trailing id | Dec 02 2019 |   #901   " };
+    private static final String[] INVALID_LINES = { "garbage", "X | 0 | unknown type", "",
+        "D | 0 | no date", "E | 0 | backwards | Dec 02 2019 1600 - 1400" };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void load_manySmallChunks_matchesSequentialLoad() throws IOException, DoobertException {
+        StringBuilder content = new StringBuilder();
+        List<Task> generated = new TaskGenerator(5).tasks(600);
+        for (int i = 0; i < generated.size(); i++) {
+            content.append(generated.get(i).toFileString()).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 7 == 0) {
+                content.append(NON_CANONICAL_LINES[i % NON_CANONICAL_LINES.length]).append("\r\n");
+            }
+            if (i % 50 == 0) {
+                content.append(INVALID_LINES[i % INVALID_LINES.length]).append("\n");
+            }
+        }
+        content.append(new Todo("last line without newline").toFileString());
+        Path file = tempDir.resolve("doobert.txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        ParallelTaskLoader loader = new ParallelTaskLoader(256);
+        List<Task> loaded = loader.load(file);
+        assertEquals(describe(loadSequentially(content.toString())), describe(loaded));
+        assertEquals("last line without newline", loaded.get(loaded.size() - 1).description);
+        int chunks = Integer.parseInt(loader.getLastLoadStatistics().replaceAll(".*using (\\d+) chunk.*", "$1"));
+        assertTrue(chunks > 100);
+
+        // One chunk gives the same tasks as many
+        assertEquals(describe(loaded), describe(new ParallelTaskLoader().load(file)));
+    }
+
+    @Test
+    public void load_headerLine_isSkipped() throws IOException, DoobertException {
+        Path file = tempDir.resolve("header.txt");
+        Files.writeString(file, "H | journal=4\r\nT | 0 | read book | #1\n");
+
+        List<Task> loaded = new ParallelTaskLoader(8).load(file);
+        assertEquals(1, loaded.size());
+        assertEquals("read book", loaded.get(0).description);
+    }
+
+    @Test
+    public void load_invalidTaskLines_areSkippedAsLazyLoadSkipsThem() throws IOException {
+        Path file = tempDir.resolve("invalid.txt");
+        Files.writeString(file, "T | 0 | first | #1\nD | 0 | no date\ngarbage\n"
+                + "E | 0 | office hours | Mon 2pm-4pm\nT | 0 | last | #2\n");
+
+        List<Task> loaded = new ParallelTaskLoader().load(file);
+        assertEquals(List.of("first", "last"), loaded.stream().map(task -> task.description)
+                .collect(Collectors.toList()));
+        assertEquals(describe(loaded), describe(new ArrayList<>(LazyTaskList.open(file, null))));
+    }
+
+    /**
+     * Loads the lines one at a time with the general parser, as the task file was read before parallel loading.
+     */
+    private static List<Task> loadSequentially(String content) {
+        List<Task> tasks = new ArrayList<>();
+        for (String line : content.split("\r?\n")) {
+            try {
+                tasks.add(Task.fromFileString(line.trim()));
+            } catch (IllegalArgumentException | DoobertException e) {
+                // Skipped, as the loader skips it
+            }
+        }
+        return tasks;
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream().map(Task::toFileString).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,240 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class StorageTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void loadTasks_journalMode_replaysEditsOnTopOfBaseFile() throws DoobertException {
+        String filePath = tempDir.resolve("doobert.txt").toString();
+        Storage storage = new Storage(filePath, true);
+        TaskList taskList = new TaskList();
+
+        taskList.addTask(new Todo("read book"));
+        storage.saveTask(taskList); // first save writes the base file
+        storage.awaitCompaction();
+
+        taskList.addTask(new Todo("return book"));
+        taskList.addTask(new Deadline("submit report", "2019-10-15"));
+        taskList.markTask(1);
+        taskList.deleteTask(0);
+        storage.saveTask(taskList);
+
+        assertTrue(new File(filePath + ".journal").exists());
+        List<Task> loaded = new Storage(filePath, true).loadTasks();
+        assertEquals(taskList.getList().toString(), loaded.toString());
+    }
+
+    @Test
+    public void saveTask_journalPastThreshold_compactsIntoBaseFile() throws DoobertException {
+        String filePath = tempDir.resolve("doobert.txt").toString();
+        Storage storage = new Storage(filePath, true, 64);
+        TaskList taskList = new TaskList();
+
+        for (int i = 0; i < 20; i++) {
+            taskList.addTask(new Todo("task " + i));
+            storage.saveTask(taskList);
+        }
+        storage.awaitCompaction();
+
+        // The base file alone holds more than the first task once the journal has been compacted
+        List<Task> baseTasks = new Storage(filePath, false).loadTasks();
+        assertTrue(baseTasks.size() > 1);
+        assertEquals(taskList.getList().toString(), new Storage(filePath, true).loadTasks().toString());
+    }
+
+    @Test
+    public void loadTasks_rotatedJournalAlreadyCompacted_isNotReplayedAgain() throws DoobertException, IOException {
+        for (TaskFileFormat format : TaskFileFormat.values()) {
+            String filePath = tempDir.resolve("compacted-" + format + ".txt").toString();
+            TaskList taskList = editedAfterFirstSave(filePath);
+
+            // The compaction wrote the new base file but stopped before deleting the rotated journal
+            long generation = new Journal(filePath).rotate();
+            new TaskFileWriter().write(Path.of(filePath), taskList.getList(), format,
+                    new TaskFileHeader(generation, 0));
+            assertTrue(new File(filePath + ".journal.compacting").exists());
+
+            for (boolean isLazyLoading : new boolean[] { false, true }) {
+                Storage storage = new Storage(filePath, true);
+                storage.setFileFormat(format);
+                storage.setLazyLoading(isLazyLoading);
+                assertEquals(List.of("b", "c"), descriptions(storage.loadTasks()));
+            }
+            assertFalse(new File(filePath + ".journal.compacting").exists());
+        }
+    }
+
+    @Test
+    public void loadTasks_compactionStoppedBeforeBaseFile_finishesCompaction() throws DoobertException, IOException {
+        String filePath = tempDir.resolve("doobert.txt").toString();
+        editedAfterFirstSave(filePath);
+        new Journal(filePath).rotate();
+        Files.writeString(Path.of(filePath + ".journal"), "GENERATION | 2\nADD | T | 0 | d | #4\n");
+
+        Storage storage = new Storage(filePath, true);
+        storage.setLazyLoading(true);
+        assertEquals(List.of("b", "c", "d"), descriptions(storage.loadTasks()));
+        assertFalse(new File(filePath + ".journal.compacting").exists());
+        assertFalse(new File(filePath + ".journal").exists());
+        assertEquals(List.of("b", "c", "d"), descriptions(new Storage(filePath, false).loadTasks()));
+
+        // Later edits go to a fresh journal on top of the new base file
+        TaskList loaded = new TaskList(storage.loadTasks());
+        loaded.deleteTask(0);
+        storage.saveTask(loaded);
+        assertEquals(List.of("c", "d"), descriptions(new Storage(filePath, true).loadTasks()));
+    }
+
+    /**
+     * Saves "a" as the base file, then journals adding "b" and "c" and deleting "a".
+     */
+    private static TaskList editedAfterFirstSave(String filePath) {
+        Storage storage = new Storage(filePath, true);
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("a"));
+        storage.saveTask(taskList);
+        storage.awaitCompaction();
+
+        taskList.addTask(new Todo("b"));
+        taskList.addTask(new Todo("c"));
+        taskList.deleteTask(0);
+        storage.saveTask(taskList);
+        storage.close();
+        return taskList;
+    }
+
+    @Test
+    public void loadTasks_binaryFormat_migratesTextFileWithoutChangingTasks() throws DoobertException, IOException {
+        String filePath = tempDir.resolve("migrate.txt").toString();
+        Storage textStorage = new Storage(filePath, false);
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Deadline("return book", "2/12/2019 1800"));
+        taskList.addTask(new Deadline("pay fees", "2019-12-03"));
+        taskList.addTask(new Event("project meeting", "2019-12-04 1400", "1600"));
+        taskList.markTask(1);
+        taskList.deleteTask(0);
+        textStorage.saveTask(taskList);
+
+        Storage binaryStorage = new Storage(filePath, false);
+        binaryStorage.setFileFormat(TaskFileFormat.BINARY);
+        List<Task> migrated = binaryStorage.loadTasks();
+        assertEquals(TaskFileFormat.BINARY, TaskFileFormat.detect(Path.of(filePath)));
+        assertEquals(TaskFileFormat.TEXT, TaskFileFormat.detect(Path.of(filePath + ".bak")));
+
+        for (List<Task> loaded : List.of(migrated, binaryStorage.loadTasks())) {
+            assertEquals(fileStrings(taskList.getList()), fileStrings(loaded));
+            assertEquals(ids(taskList), ids(new TaskList(loaded)));
+        }
+    }
+
+    @Test
+    public void loadTasks_afterDeletes_keepsTaskIds() throws DoobertException {
+        for (TaskFileFormat format : TaskFileFormat.values()) {
+            String filePath = tempDir.resolve("ids-" + format + ".txt").toString();
+            Storage storage = new Storage(filePath, false);
+            storage.setFileFormat(format);
+            TaskList taskList = new TaskList();
+            for (int i = 1; i <= 5; i++) {
+                taskList.addTask(new Todo("task " + i));
+            }
+            taskList.deleteTask(3);
+            taskList.deleteTask(1);
+            storage.saveTask(taskList);
+            storage.close();
+
+            TaskList loaded = new TaskList(new Storage(filePath, false).loadTasks());
+            assertEquals(List.of(1, 3, 5), ids(loaded));
+            assertEquals(2, loaded.indexOfId(5));
+            assertEquals(-1, loaded.indexOfId(4));
+
+            new MarkCommand("#5").execute(loaded, null, new Storage(filePath, false));
+            new DeleteCommand("#1").execute(loaded, null, new Storage(filePath, false));
+            loaded.addTask(new Todo("task 6"));
+            assertEquals(List.of(3, 5, 6), ids(loaded));
+            assertTrue(loaded.getTask(1).isDone);
+        }
+    }
+
+    @Test
+    public void addTask_afterDeletingLastTaskAndRestarting_doesNotReuseId() throws DoobertException {
+        for (TaskFileFormat format : TaskFileFormat.values()) {
+            for (boolean isJournalEnabled : new boolean[] { false, true }) {
+                for (boolean isLazyLoading : new boolean[] { false, true }) {
+                    String name = format + "-" + isJournalEnabled + "-" + isLazyLoading;
+                    String filePath = tempDir.resolve("next-id-" + name + ".txt").toString();
+                    Storage storage = new Storage(filePath, isJournalEnabled);
+                    storage.setFileFormat(format);
+                    TaskList taskList = new TaskList();
+                    for (int i = 1; i <= 3; i++) {
+                        taskList.addTask(new Todo("task " + i));
+                    }
+                    storage.saveTask(taskList); // first save writes the base file
+                    storage.awaitCompaction();
+                    taskList.deleteTask(2);
+                    storage.saveTask(taskList);
+                    storage.close();
+
+                    // Deleted task 3 was in the base file
+                    TaskList loaded = restart(filePath, format, isJournalEnabled, isLazyLoading);
+                    loaded.addTask(new Todo("task 4"));
+                    assertEquals(List.of(1, 2, 4), ids(loaded), name);
+
+                    // Deleted task 4 was only ever in the journal, or in a snapshot taken after it was deleted
+                    loaded.deleteTask(2);
+                    Storage restartedStorage = new Storage(filePath, isJournalEnabled);
+                    restartedStorage.setFileFormat(format);
+                    restartedStorage.saveTask(loaded);
+                    restartedStorage.close();
+                    loaded = restart(filePath, format, isJournalEnabled, isLazyLoading);
+                    loaded.addTask(new Todo("task 5"));
+                    assertEquals(List.of(1, 2, 5), ids(loaded), name);
+                }
+            }
+        }
+    }
+
+    private static TaskList restart(String filePath, TaskFileFormat format, boolean isJournalEnabled,
+            boolean isLazyLoading) throws DoobertException {
+        Storage storage = new Storage(filePath, isJournalEnabled);
+        storage.setFileFormat(format);
+        storage.setLazyLoading(isLazyLoading);
+        return new TaskList(storage.loadTasks(), storage::getNextId);
+    }
+
+    @Test
+    public void loadTasks_fileWithoutIds_numbersTasksInFileOrder() throws DoobertException, IOException {
+        Path file = tempDir.resolve("legacy.txt");
+        Files.writeString(file, "    T | 0 | read book\n    D | 1 | return book | Dec 02 2019 1800\n");
+        Files.writeString(tempDir.resolve("legacy.txt.journal"), "ADD | T | 0 | borrow book\n");
+
+        Storage storage = new Storage(file.toString(), true);
+        assertEquals(List.of(1, 2, 3), ids(new TaskList(storage.loadTasks())));
+        storage.setLazyLoading(true);
+        assertEquals(List.of(1, 2, 3), ids(new TaskList(storage.loadTasks())));
+    }
+
+    private static List<String> fileStrings(List<Task> tasks) {
+        return tasks.stream().map(Task::toFileString).collect(Collectors.toList());
+    }
+
+    private static List<String> descriptions(List<Task> tasks) {
+        return tasks.stream().map(task -> task.description).collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(TaskList taskList) {
+        return taskList.getList().stream().map(Task::getId).collect(Collectors.toList());
+    }
+}
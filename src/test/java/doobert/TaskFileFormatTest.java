@@ -0,0 +1,75 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TaskFileFormatTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void readBinary_versionOneFile_loadsTasksWithoutIds() throws IOException, DoobertException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(TaskFileFormat.MAGIC);
+        out.writeByte(1);
+        out.writeInt(2);
+        out.writeByte('T');
+        out.writeByte(TaskFileFormat.FLAG_DONE);
+        writeDescription(out, "read book");
+        out.writeByte('D');
+        out.writeByte(TaskFileFormat.FLAG_HAS_TIME);
+        out.writeLong(TaskFileFormat.toEpochMinute(LocalDateTime.of(2019, 12, 2, 18, 0)));
+        writeDescription(out, "return book");
+        Path file = tempDir.resolve("version1.txt");
+        Files.write(file, bytes.toByteArray());
+
+        Task done = new Todo("read book");
+        done.markAsDone();
+        Task deadline = new Deadline("return book", LocalDateTime.of(2019, 12, 2, 18, 0));
+
+        List<Task> tasks = TaskFileFormat.readBinary(file);
+        assertEquals(List.of(done.toFileString(), deadline.toFileString()),
+                tasks.stream().map(Task::toFileString).collect(Collectors.toList()));
+        assertEquals(List.of(0, 0), tasks.stream().map(Task::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void readBinary_truncatedFile_keepsTasksBeforeTheCut() throws IOException, DoobertException {
+        Path file = tempDir.resolve("truncated.txt");
+        List<Task> written = List.of(new Todo("one"), new Todo("two"), new Todo("three"));
+        new TaskFileWriter().write(file, written, TaskFileFormat.BINARY);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+
+        List<Task> tasks = new ArrayList<>();
+        EOFException e = assertThrows(EOFException.class, () -> TaskFileFormat.readBinary(file, tasks));
+        assertEquals("Task file is truncated, loaded 2 of 3 tasks.", e.getMessage());
+        assertEquals(List.of("one", "two"), tasks.stream().map(task -> task.description)
+                .collect(Collectors.toList()));
+        assertEquals(2, new Storage(file.toString()).loadTasks().size());
+
+        Files.write(file, Arrays.copyOf(bytes, TaskFileFormat.MAGIC.length + 1));
+        assertThrows(EOFException.class, () -> TaskFileFormat.readBinary(file));
+        assertEquals(List.of(), new Storage(file.toString()).loadTasks());
+    }
+
+    private static void writeDescription(DataOutputStream out, String description) throws IOException {
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
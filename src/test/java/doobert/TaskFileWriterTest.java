@@ -0,0 +1,77 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class TaskFileWriterTest {
+    // Two-, three- and four-byte characters, and a surrogate without its pair
+    private static final String[] DESCRIPTIONS = { "café", "日本語のメモ", "party 🎉 time",
+        "broken \uD800 pair", "trailing \uDC00" };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void write_replacesTargetAndLeavesNoTemporaryFile() throws IOException {
+        Path file = tempDir.resolve("doobert.txt");
+        TaskFileWriter writer = new TaskFileWriter();
+        writer.write(file, List.of(new Todo("old task")));
+        writer.write(file, List.of(new Todo("new task")));
+
+        assertEquals(new Todo("new task").toFileString() + System.lineSeparator(), Files.readString(file));
+        assertFalse(Files.exists(tempDir.resolve("doobert.txt.tmp")));
+    }
+
+    @Test
+    public void write_moveFails_deletesTemporaryFileAndKeepsTarget() throws IOException {
+        // A directory that is not empty cannot be replaced by a file
+        Path target = tempDir.resolve("doobert.txt");
+        Files.createDirectories(target.resolve("child"));
+
+        assertThrows(IOException.class, () -> new TaskFileWriter().write(target, List.of(new Todo("task"))));
+        assertFalse(Files.exists(tempDir.resolve("doobert.txt.tmp")));
+        assertTrue(Files.isDirectory(target.resolve("child")));
+    }
+
+    @Test
+    public void write_text_encodesLikeStringGetBytes() throws IOException {
+        Path file = tempDir.resolve("text.txt");
+        List<Task> tasks = tasks();
+        new TaskFileWriter().write(file, tasks);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (Task task : tasks) {
+            expected.writeBytes((task.toFileString() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        }
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(file));
+    }
+
+    @Test
+    public void write_binary_roundTripsDescriptions() throws IOException, DoobertException {
+        Path file = tempDir.resolve("binary.txt");
+        new TaskFileWriter().write(file, tasks(), TaskFileFormat.BINARY);
+
+        List<Task> loaded = TaskFileFormat.readBinary(file);
+        assertEquals(DESCRIPTIONS.length, loaded.size());
+        for (int i = 0; i < DESCRIPTIONS.length; i++) {
+            // Unpaired surrogates become '?', as String.getBytes encodes them
+            String expected = new String(DESCRIPTIONS[i].getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            assertEquals(expected, loaded.get(i).description);
+        }
+    }
+
+    private static List<Task> tasks() {
+        return List.of(new Todo(DESCRIPTIONS[0]), new Deadline(DESCRIPTIONS[1], "2019-10-15"),
+                new Todo(DESCRIPTIONS[2]), new Todo(DESCRIPTIONS[3]), new Todo(DESCRIPTIONS[4]));
+    }
+}
@@ -0,0 +1,173 @@
+package doobert;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates realistic tasks for benchmarks and load tests: about half todos, a third deadlines and the rest
+ * events, with descriptions of two to eight common words, dates spread over two years and about a third of
+ * the tasks done. The spread of dates and the longest description can be changed. The same seed always gives
+ * the same tasks.
+ */
+public class TaskGenerator {
+    static final String[] WORDS = {"read", "book", "return", "paper", "submit", "report", "buy", "milk", "call",
+        "mum", "project", "meeting", "review", "draft", "email", "plan", "trip", "gym", "cook", "dinner", "pay",
+        "rent", "fix", "bike", "clean", "room", "study", "exam", "lecture", "notes", "water", "plants", "ticket",
+        "flight", "renew", "passport", "team", "lunch", "update", "slides"};
+    static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+    static final int DAYS = 730;
+    static final int MAX_WORDS = 8;
+    private static final DateTimeFormatter DEADLINE_FORMAT = DateTimeFormatter.ofPattern("d/M/yyyy HHmm");
+    private static final DateTimeFormatter EVENT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+
+    private final Random random;
+    private final int days;
+    private final int maxWords;
+    private int taskCount;
+
+    /**
+     * Constructs a {@code TaskGenerator} whose output is fixed by the seed.
+     *
+     * @param seed The seed of the random choices.
+     */
+    public TaskGenerator(long seed) {
+        this(seed, DAYS, MAX_WORDS);
+    }
+
+    /**
+     * Constructs a {@code TaskGenerator} with its own spread of dates and longest description.
+     *
+     * @param seed The seed of the random choices.
+     * @param days The number of days from 1 January 2024 that dates are spread over.
+     * @param maxWords The most words in a description, at least 2.
+     */
+    public TaskGenerator(long seed, int days, int maxWords) {
+        assert days > 0 && maxWords >= 2 : "Dates need at least one day and descriptions at least two words.";
+        this.random = new Random(seed);
+        this.days = days;
+        this.maxWords = maxWords;
+    }
+
+    /**
+     * Generates the given number of tasks.
+     *
+     * @param count The number of tasks.
+     * @return The tasks, without IDs.
+     */
+    public List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(nextTask());
+        }
+        return tasks;
+    }
+
+    /**
+     * Generates one task.
+     *
+     * @return A todo, deadline or event, done about a third of the time.
+     */
+    public Task nextTask() {
+        String description = nextDescription();
+        int kind = random.nextInt(10);
+        Task task;
+        if (kind < 5) {
+            task = new Todo(description);
+        } else if (kind < 8) {
+            LocalDateTime by = nextDateTime();
+            task = random.nextBoolean() ? new Deadline(description, by) : new Deadline(description, by.toLocalDate());
+        } else {
+            LocalDateTime from = nextDateTime().withHour(8 + random.nextInt(10));
+            try {
+                task = new Event(description, from, from.plusHours(1 + random.nextInt(4)));
+            } catch (DoobertException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (random.nextInt(3) == 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    /**
+     * Generates a description of two to eight words by default, most ending in a number that keeps them apart.
+     * Most descriptions have at most four words, and about one in four may be as long as the longest allowed.
+     *
+     * @return The description.
+     */
+    public String nextDescription() {
+        int wordCount = 2 + random.nextInt(random.nextInt(4) == 0 ? maxWords - 1 : Math.min(3, maxWords - 1));
+        StringBuilder description = new StringBuilder(nextWord());
+        for (int i = 1; i < wordCount; i++) {
+            description.append(' ').append(nextWord());
+        }
+        if (random.nextInt(4) != 0) {
+            description.append(' ').append(++taskCount);
+        }
+        return description.toString();
+    }
+
+    /**
+     * Returns one of the words descriptions are made of.
+     *
+     * @return The word.
+     */
+    public String nextWord() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    /**
+     * Returns a date within the days the tasks are spread over.
+     *
+     * @return The date.
+     */
+    public LocalDate nextDate() {
+        return FIRST_DATE.plusDays(random.nextInt(days));
+    }
+
+    /**
+     * Returns a date and time on the hour or half hour within the days the tasks are spread over.
+     *
+     * @return The date and time.
+     */
+    public LocalDateTime nextDateTime() {
+        return nextDate().atTime(random.nextInt(24), random.nextBoolean() ? 0 : 30);
+    }
+
+    /**
+     * Returns a due date as typed in a {@code deadline} command, such as {@code 5/3/2024 1800} or
+     * {@code 2024-03-05}.
+     *
+     * @return The due date.
+     */
+    public String nextDeadlineInput() {
+        LocalDateTime by = nextDateTime();
+        return random.nextBoolean() ? by.format(DEADLINE_FORMAT) : by.toLocalDate().toString();
+    }
+
+    /**
+     * Returns the start and end of an event as typed in an {@code event} command, such as
+     * {@code 2024-03-05 1400} and {@code 1600}.
+     *
+     * @return The start and the end.
+     */
+    public String[] nextEventInput() {
+        LocalDateTime from = nextDateTime().withHour(8 + random.nextInt(10));
+        LocalDateTime to = from.plusHours(1 + random.nextInt(4));
+        return new String[] {from.format(EVENT_FORMAT), String.format("%02d%02d", to.getHour(), to.getMinute())};
+    }
+
+    /**
+     * Returns a number from 0 (inclusive) to the bound (exclusive), from the same random sequence.
+     *
+     * @param bound The bound.
+     * @return The number.
+     */
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+}
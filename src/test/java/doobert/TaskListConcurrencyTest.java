@@ -0,0 +1,129 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TaskListConcurrencyTest {
+    private static final int WRITERS = 8;
+    private static final int TASKS_PER_WRITER = 1000;
+
+    @Test
+    public void addAndMark_concurrentWriters_loseNoUpdates() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.findTasks("warm"); // builds an index so that edits also have to keep it up to date
+
+        runConcurrently(WRITERS, writer -> {
+            for (int i = 0; i < TASKS_PER_WRITER; i++) {
+                // Nothing is deleted, so the position a task was added at stays its position
+                int position = taskList.addTask(new Todo("writer" + writer + " task" + i)) - 1;
+                if (i % 2 == 0) {
+                    taskList.markTask(position);
+                }
+            }
+        });
+
+        List<Task> tasks = taskList.getList();
+        assertEquals(WRITERS * TASKS_PER_WRITER, tasks.size());
+        Set<String> descriptions = new HashSet<>();
+        int doneCount = 0;
+        for (Task task : tasks) {
+            assertTrue(descriptions.add(task.getDescription()), task.getDescription());
+            doneCount += task.isDone ? 1 : 0;
+        }
+        assertEquals(WRITERS * TASKS_PER_WRITER / 2, doneCount);
+        assertEquals(tasks, taskList.findTasks("task*"));
+        assertEquals(TASKS_PER_WRITER, taskList.findTasks("writer3").size());
+    }
+
+    @Test
+    public void reads_duringEdits_seeConsistentState() throws Exception {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 500; i++) {
+            taskList.addTask(new Todo("base task " + i));
+        }
+        AtomicBoolean isEditing = new AtomicBoolean(true);
+        CountDownLatch writersDone = new CountDownLatch(2);
+
+        runConcurrently(6, thread -> {
+            Random random = new Random(thread);
+            if (thread < 2) {
+                // Each writer adds a task and then deletes one, so the list never drops below its base size
+                for (int i = 0; i < 1000; i++) {
+                    taskList.addTask(new Todo("extra task " + thread + " " + i));
+                    taskList.deleteTask(random.nextInt(500));
+                }
+                writersDone.countDown();
+                if (writersDone.getCount() == 0) {
+                    isEditing.set(false);
+                }
+                return;
+            }
+            while (isEditing.get()) {
+                int size = taskList.size();
+                assertTrue(size >= 500 && size <= 502, "size " + size);
+                Task task = taskList.getTask(random.nextInt(500));
+                assertTrue(task != null && task.getDescription().contains("task"));
+
+                // A listing sees no edits while it runs, so it counts exactly the tasks it started with
+                taskList.read(list -> {
+                    int listed = 0;
+                    for (Task listedTask : list) {
+                        assertTrue(listedTask != null);
+                        listed++;
+                    }
+                    assertEquals(list.size(), listed);
+                    return null;
+                });
+
+                List<Task> found = taskList.findTasksContaining("extra");
+                for (Task foundTask : found) {
+                    assertTrue(foundTask.getDescription().contains("extra"));
+                }
+            }
+        });
+
+        assertEquals(500, taskList.size());
+        assertEquals(taskList.getList(), taskList.findTasks("task"));
+    }
+
+    /**
+     * Runs the body on the given number of threads at once and rethrows the first failure.
+     */
+    private static void runConcurrently(int threadCount, ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                int thread = t;
+                Callable<Void> task = () -> {
+                    start.await();
+                    body.run(thread);
+                    return null;
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+}
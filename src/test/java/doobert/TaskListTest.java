@@ -0,0 +1,273 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TaskListTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void viewSchedule_afterAddsAndDeletes_matchesFullScan() {
+        Random random = new Random(7);
+        List<Task> initialTasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            initialTasks.add(randomTask(random, i));
+        }
+        TaskList taskList = new TaskList(initialTasks);
+        taskList.viewSchedule(LocalDate.of(2025, 3, 1)); // builds the index before the edits below
+
+        for (int i = 50; i < 300; i++) {
+            if (random.nextInt(3) == 0) {
+                taskList.deleteTask(random.nextInt(taskList.getList().size()));
+            } else {
+                taskList.addTask(randomTask(random, i));
+            }
+        }
+
+        for (int day = 1; day <= 10; day++) {
+            LocalDate date = LocalDate.of(2025, 3, day);
+            assertEquals(scanSchedule(taskList.getList(), date), taskList.viewSchedule(date));
+        }
+    }
+
+    @Test
+    public void viewSchedule_range_groupsTasksByDay() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Deadline("submit report", "2025-03-05"));
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Deadline("pay bills", "2025-03-01"));
+        taskList.addTask(new Deadline("file taxes", "2025-04-01"));
+        taskList.addTask(new Deadline("call mum", "2025-03-05"));
+
+        String expected = "Schedule from 01-03-2025 to 31-03-2025:\n"
+                + "01-03-2025:\n1. " + taskList.getList().get(2) + "\n"
+                + "05-03-2025:\n2. " + taskList.getList().get(0) + "\n3. " + taskList.getList().get(4) + "\n";
+        assertEquals(expected, taskList.viewSchedule(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31)));
+    }
+
+    @Test
+    public void viewSchedule_rangeToSink_writesOneDayAtATime() throws DoobertException {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Deadline("submit report", "2025-03-05"));
+        taskList.addTask(new Deadline("pay bills", "2025-03-01"));
+        taskList.addTask(new Deadline("call mum", "2025-03-05"));
+        taskList.addTask(new Deadline("file taxes", "2025-03-20"));
+
+        List<String> parts = new ArrayList<>();
+        new ViewScheduleCommand("01-03-2025 to 31-03-2025").execute(taskList, null, null,
+                part -> parts.add(part.toString()));
+        assertEquals(4, parts.size());
+        assertEquals("Schedule from 01-03-2025 to 31-03-2025:\n", parts.get(0));
+        assertTrue(parts.get(2).startsWith("05-03-2025:\n2. "), parts.get(2));
+        assertEquals(taskList.viewSchedule(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31)),
+                String.join("", parts));
+    }
+
+    @Test
+    public void deleteTask_mostTasks_renumbersIndexesAndKeepsThemCorrect() {
+        TaskOrder order = new TaskOrder(2000);
+        for (int i = 0; i < 1500; i++) {
+            order.remove(0);
+        }
+        assertFalse(order.isSparse());
+        order.remove(0);
+        assertTrue(order.isSparse());
+
+        Random random = new Random(3);
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 3000; i++) {
+            taskList.addTask(randomTask(random, i));
+        }
+        // Builds every index before the deletes below
+        taskList.indexOfId(1);
+        taskList.findTasks("task");
+        taskList.findTasksContaining("task");
+        taskList.viewSchedule(LocalDate.of(2025, 3, 1));
+
+        while (taskList.size() > 100) {
+            taskList.deleteTask(random.nextInt(taskList.size()));
+            if (taskList.size() % 500 == 0) {
+                taskList.findTasks("task"); // rebuilds the indexes part way through
+            }
+        }
+        taskList.addTask(new Deadline("task added", "2025-03-02"));
+
+        List<Task> tasks = taskList.getList();
+        assertEquals(tasks, taskList.findTasks("task"));
+        assertEquals(tasks, taskList.findTasksContaining("task"));
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(i, taskList.indexOfId(tasks.get(i).getId()));
+        }
+        for (int day = 1; day <= 10; day++) {
+            LocalDate date = LocalDate.of(2025, 3, day);
+            assertEquals(scanSchedule(tasks, date), taskList.viewSchedule(date));
+        }
+    }
+
+    @Test
+    public void findTasks_wordQueries_matchTermsAfterEdits() {
+        TaskList taskList = new TaskList(new ArrayList<>(List.of(new Todo("read book"), new Todo("return book"))));
+        taskList.findTasks("book*"); // builds the index before the edits below
+        taskList.addTask(new Todo("buy Bookshelf"));
+        taskList.addTask(new Todo("read paper"));
+        taskList.deleteTask(1);
+
+        List<Task> tasks = taskList.getList();
+        assertEquals(List.of(tasks.get(0), tasks.get(1)), taskList.findTasks("book*"));
+        assertEquals(List.of(tasks.get(0)), taskList.findTasks("read AND book"));
+        assertEquals(List.of(tasks.get(0), tasks.get(2)), taskList.findTasks("read book OR paper"));
+        assertEquals(List.of(), taskList.findTasks("return AND book"));
+    }
+
+    @Test
+    public void findTasksContaining_afterEdits_matchesLinearScan() {
+        Random random = new Random(11);
+        String[] words = {"read", "book", "Bookshelf", "return", "paper", "ÄPFEL", "o'neil", "a"};
+        TaskList taskList = new TaskList();
+        taskList.findTasksContaining("boo"); // builds the index before the edits below
+
+        for (int i = 0; i < 300; i++) {
+            if (random.nextInt(4) == 0 && !taskList.getList().isEmpty()) {
+                taskList.deleteTask(random.nextInt(taskList.getList().size()));
+            } else {
+                String description = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                taskList.addTask(new Todo(description));
+            }
+        }
+
+        for (String keyword : List.of("ook", "book", "k b", "äpf", "'ne", "d r", "a", "", "zzz", "read book")) {
+            List<Task> expected = new ArrayList<>();
+            for (Task task : taskList.getList()) {
+                if (task.getDescription().toLowerCase().contains(keyword)) {
+                    expected.add(task);
+                }
+            }
+            assertEquals(expected, taskList.findTasksContaining(keyword), keyword);
+        }
+    }
+
+    @Test
+    public void findTasksFuzzy_misspeltKeyword_ranksClosestFirst() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("return books"));
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Todo("buy milk"));
+        taskList.addTask(new Todo("cook dinner"));
+        taskList.findTasksFuzzy("bok"); // builds the index before the delete below
+        taskList.deleteTask(3);
+
+        List<Task> tasks = taskList.getList();
+        assertEquals(List.of(tasks.get(1)), taskList.findTasksFuzzy("bok"));
+        assertEquals(List.of(tasks.get(1), tasks.get(0)), taskList.findTasksFuzzy("boook"));
+        assertEquals(List.of(tasks.get(1)), taskList.findTasksFuzzy("reed boook"));
+        assertEquals(List.of(), taskList.findTasksFuzzy("dinner"));
+    }
+
+    @Test
+    public void markTask_afterRendering_rendersNewState() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Deadline("return book", "2/12/2019 1800"));
+        Task task = taskList.getList().get(0);
+        assertEquals("[D] [ ] return book (by: Dec 02 2019, 6:00 PM)", task.toString());
+        assertEquals("    D | 0 | return book | Dec 02 2019 1800 | #1", task.toFileString());
+
+        taskList.markTask(0);
+        assertEquals("[D] [X] return book (by: Dec 02 2019, 6:00 PM)", task.toString());
+        assertEquals("    D | 1 | return book | Dec 02 2019 1800 | #1", task.toFileString());
+
+        taskList.unmarkTask(0);
+        assertEquals("[D] [ ] return book (by: Dec 02 2019, 6:00 PM)", task.toString());
+        assertEquals("    D | 0 | return book | Dec 02 2019 1800 | #1", task.toFileString());
+    }
+
+    @Test
+    public void rollbackTransaction_afterEdits_restoresTasksIndexesAndPendingChanges() {
+        Random random = new Random(11);
+        List<Task> initialTasks = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            initialTasks.add(randomTask(random, i));
+        }
+        TaskList taskList = new TaskList(initialTasks);
+        taskList.addTask(new Todo("read book"));
+        taskList.findTasks("task"); // builds the index before the transaction
+        String before = taskList.getList().toString();
+
+        taskList.beginTransaction();
+        for (int i = 30; i < 100; i++) {
+            int action = random.nextInt(4);
+            if (action == 0) {
+                taskList.deleteTask(random.nextInt(taskList.getList().size()));
+            } else if (action == 1) {
+                taskList.markTask(random.nextInt(taskList.getList().size()));
+            } else if (action == 2) {
+                taskList.unmarkTask(random.nextInt(taskList.getList().size()));
+            } else {
+                taskList.addTask(randomTask(random, i));
+            }
+        }
+        taskList.rollbackTransaction();
+
+        assertEquals(before, taskList.getList().toString());
+        assertEquals(taskList.getList().subList(0, 30), taskList.findTasks("task"));
+        List<TaskChange> changes = taskList.drainChanges();
+        assertEquals(1, changes.size());
+        assertEquals(TaskChange.Type.ADD, changes.get(0).getType());
+    }
+
+    @Test
+    public void deleteAndMarkSelections_matchSingleEditsAndJournalReplay() throws DoobertException {
+        List<Task> initialTasks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            initialTasks.add(new Todo("task " + i));
+        }
+        TaskList taskList = new TaskList(initialTasks);
+        List<Task> expected = new ArrayList<>(taskList.snapshot());
+        taskList.findTasks("task"); // builds the indexes so that the bulk edits have to keep them up to date
+
+        String filePath = tempDir.resolve("doobert.txt").toString();
+        Storage storage = new Storage(filePath, true);
+        storage.saveTask(taskList); // writes the base file, so the edits below go to the journal
+        storage.awaitCompaction();
+        new MarkCommand("1,3, 5-9, #40").execute(taskList, null, storage);
+        new UnmarkCommand("6-7").execute(taskList, null, storage);
+        String response = new DeleteCommand("done").execute(taskList, null, storage);
+        new DeleteCommand("2-4, #20, 30").execute(taskList, null, storage);
+        assertTrue(response.startsWith("Noted. I've removed 6 tasks"), response);
+
+        for (int index : new int[] {39, 8, 7, 4, 2, 0}) {
+            expected.remove(index);
+        }
+        expected.removeIf(task -> task.getDescription().matches("task (3|5|6|19|34)"));
+        assertEquals(expected, taskList.getList());
+        assertEquals(expected, taskList.findTasks("task"));
+        assertEquals(List.of(expected.get(2)), taskList.findTasks("10"));
+
+        assertEquals(taskList.getList().toString(), new Storage(filePath, true).loadTasks().toString());
+    }
+
+    private static Task randomTask(Random random, int i) {
+        String date = "2025-03-" + String.format("%02d", 1 + random.nextInt(10));
+        return random.nextBoolean() ? new Deadline("task " + i, date) : new Todo("task " + i);
+    }
+
+    private static String scanSchedule(List<Task> tasks, LocalDate date) {
+        StringBuilder output = new StringBuilder();
+        int number = 1;
+        for (Task task : tasks) {
+            if (task instanceof Deadline && date.equals(((Deadline) task).byDate)) {
+                output.append(number++).append(". ").append(task).append("\n");
+            }
+        }
+        String header = date.format(DateTimeFormatter.ofPattern("dd-MM-yyyy"));
+        return number == 1 ? "No tasks scheduled for " + header : "Schedule for " + header + ":\n" + output;
+    }
+}
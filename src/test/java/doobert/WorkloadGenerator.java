@@ -0,0 +1,135 @@
+package doobert;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Generates a workload for {@code WorkloadReplay}: a task file of realistic tasks in {@code data/doobert.txt},
+ * and a script of commands in {@code commands.txt} that reads and edits those tasks. The share of reads, the
+ * spread of dates and the longest description can be chosen, and the same seed always gives the same workload.
+ * <p>
+ * Reads are {@code list} pages, {@code find} by words, by the number in a description or by a misspelt number,
+ * and {@code view} of a day.
+ * Writes add todos, deadlines and events, mark and unmark tasks or ranges of tasks, and delete tasks. The
+ * generator keeps track of the size of the list, so task numbers stay within it.
+ * Run with {@code java doobert.WorkloadGenerator directory [tasks] [commands] [readPercent] [days] [maxWords]
+ * [seed]}; defaults to 100000 tasks, 100000 commands, 80% reads, 730 days, 8 words and seed 42.
+ */
+public class WorkloadGenerator {
+    static final String TASK_FILE = "data/doobert.txt";
+    static final String COMMAND_FILE = "commands.txt";
+    private static final DateTimeFormatter VIEW_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_RANGE = 20;
+
+    private final TaskGenerator generator;
+    private final int readPercent;
+    private int size;
+
+    /**
+     * Constructs a {@code WorkloadGenerator}.
+     *
+     * @param seed The seed of the random choices.
+     * @param readPercent The percentage of commands that only read the list.
+     * @param days The number of days that dates are spread over.
+     * @param maxWords The most words in a description.
+     */
+    public WorkloadGenerator(long seed, int readPercent, int days, int maxWords) {
+        assert readPercent >= 0 && readPercent <= 100 : "The share of reads should be a percentage.";
+        this.generator = new TaskGenerator(seed, days, maxWords);
+        this.readPercent = readPercent;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "workload");
+        int taskCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int commandCount = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        int readPercent = args.length > 3 ? Integer.parseInt(args[3]) : 80;
+        int days = args.length > 4 ? Integer.parseInt(args[4]) : TaskGenerator.DAYS;
+        int maxWords = args.length > 5 ? Integer.parseInt(args[5]) : TaskGenerator.MAX_WORDS;
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 42;
+
+        new WorkloadGenerator(seed, readPercent, days, maxWords).write(directory, taskCount, commandCount);
+        System.out.printf("Wrote %d tasks to %s and %d commands (%d%% reads) to %s%n", taskCount,
+                directory.resolve(TASK_FILE), commandCount, readPercent, directory.resolve(COMMAND_FILE));
+    }
+
+    /**
+     * Writes the task file and the command script into the directory, replacing any earlier workload.
+     *
+     * @param directory The directory of the workload.
+     * @param taskCount The number of tasks in the task file.
+     * @param commandCount The number of commands in the script.
+     * @throws IOException If the files cannot be written.
+     */
+    public void write(Path directory, int taskCount, int commandCount) throws IOException {
+        Path taskFile = directory.resolve(TASK_FILE);
+        Files.createDirectories(taskFile.getParent());
+        Files.deleteIfExists(taskFile);
+        new Storage(taskFile.toString()).saveTask(new TaskList(generator.tasks(taskCount)));
+        size = taskCount;
+
+        try (BufferedWriter commands = Files.newBufferedWriter(directory.resolve(COMMAND_FILE),
+                StandardCharsets.UTF_8)) {
+            for (int i = 0; i < commandCount; i++) {
+                commands.write(generator.nextInt(100) < readPercent ? nextRead() : nextWrite());
+                commands.newLine();
+            }
+        }
+    }
+
+    private String nextRead() {
+        // Finds look for one task, as a user would, so each matches a handful of tasks rather than thousands
+        int kind = generator.nextInt(20);
+        if (kind < 6) {
+            return "list " + (1 + generator.nextInt(Math.max(1, (size + PAGE_SIZE - 1) / PAGE_SIZE))) + " "
+                    + PAGE_SIZE;
+        } else if (kind < 11) {
+            return "find " + generator.nextWord() + " AND " + generator.nextWord() + " AND " + generator.nextWord();
+        } else if (kind < 14) {
+            return "find " + nextDescriptionNumber();
+        } else if (kind < 15) {
+            return "find ~" + nextDescriptionNumber() + generator.nextWord().charAt(0);
+        } else {
+            return "view " + generator.nextDate().format(VIEW_FORMAT);
+        }
+    }
+
+    private int nextDescriptionNumber() {
+        // About three in four descriptions end in a number counting up from 1
+        return 1 + generator.nextInt(Math.max(1, size * 3 / 4));
+    }
+
+    private String nextWrite() {
+        int kind = generator.nextInt(20);
+        if (size < 2 || kind < 6) {
+            size++;
+            return "todo " + generator.nextDescription();
+        } else if (kind < 10) {
+            size++;
+            return "deadline " + generator.nextDescription() + " /by " + generator.nextDeadlineInput();
+        } else if (kind < 12) {
+            size++;
+            String[] event = generator.nextEventInput();
+            return "event " + generator.nextDescription() + " /from " + event[0] + " /to " + event[1];
+        } else if (kind < 14) {
+            return "mark " + nextTaskNumbers();
+        } else if (kind < 16) {
+            return "unmark " + nextTaskNumbers();
+        } else {
+            size--;
+            return "delete " + (1 + generator.nextInt(size + 1));
+        }
+    }
+
+    private String nextTaskNumbers() {
+        int first = 1 + generator.nextInt(size);
+        if (generator.nextInt(10) != 0) {
+            return String.valueOf(first);
+        }
+        return first + "-" + Math.min(size, first + generator.nextInt(MAX_RANGE));
+    }
+}
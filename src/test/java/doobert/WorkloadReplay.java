@@ -0,0 +1,191 @@
+package doobert;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Replays a workload written by {@code WorkloadGenerator} through {@code Doobert} in this process, and reports
+ * the throughput and the latency of each type of command.
+ * <p>
+ * The replay starts from a copy of the workload's task file, so it can be repeated. Like text-ui-test, each
+ * command and its response are written to {@code ACTUAL.TXT}, followed by the tasks as saved at the end, and
+ * compared against {@code EXPECTED.TXT}. The first replay of a workload has nothing to compare against, so its
+ * output becomes {@code EXPECTED.TXT}; keep one from a known good build to check later builds against.
+ * Run with {@code java doobert.WorkloadReplay directory}, with the same system properties as {@code Doobert},
+ * e.g. {@code -Ddoobert.format=binary}.
+ */
+public class WorkloadReplay {
+    static final String ACTUAL_FILE = "ACTUAL.TXT";
+    static final String EXPECTED_FILE = "EXPECTED.TXT";
+    private static final String COMMAND_PREFIX = "> ";
+    private static final String SAVED_TASKS_HEADER = "--- saved tasks ---";
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "workload");
+        if (!replay(directory, System.out)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Replays the workload in the directory and prints a report.
+     *
+     * @param directory The directory of the workload.
+     * @param out Where the report is printed.
+     * @return {@code false} if the output differs from the reference run.
+     * @throws IOException If the workload cannot be read or the output cannot be written.
+     */
+    public static boolean replay(Path directory, PrintStream out) throws IOException {
+        Path workingDirectory = Files.createTempDirectory("doobert-replay");
+        try {
+            Path taskFile = workingDirectory.resolve("doobert.txt");
+            Files.copy(directory.resolve(WorkloadGenerator.TASK_FILE), taskFile);
+            Path actual = directory.resolve(ACTUAL_FILE);
+            runCommands(taskFile, directory.resolve(WorkloadGenerator.COMMAND_FILE), actual, out);
+            return compare(actual, directory.resolve(EXPECTED_FILE), out);
+        } finally {
+            deleteDirectory(workingDirectory);
+        }
+    }
+
+    private static void runCommands(Path taskFile, Path commands, Path actual, PrintStream out) throws IOException {
+        long loadStart = System.nanoTime();
+        Doobert doobert = new Doobert(taskFile.toString());
+        out.printf("Loaded the task file in %.1f ms%n", (System.nanoTime() - loadStart) / 1e6);
+
+        Map<String, Latencies> latenciesByType = new TreeMap<>();
+        StringBuilder response = new StringBuilder();
+        long start = System.nanoTime();
+        try (BufferedReader script = Files.newBufferedReader(commands, StandardCharsets.UTF_8);
+                BufferedWriter transcript = Files.newBufferedWriter(actual, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = script.readLine()) != null) {
+                if (line.isBlank() || line.trim().equals("bye")) {
+                    continue;
+                }
+                response.setLength(0);
+                long commandStart = System.nanoTime();
+                doobert.getResponse(line, response::append);
+                long nanos = System.nanoTime() - commandStart;
+                latenciesByType.computeIfAbsent(typeOf(line), type -> new Latencies()).add(nanos);
+
+                transcript.write(COMMAND_PREFIX);
+                transcript.write(line);
+                transcript.newLine();
+                transcript.write(response.toString());
+                transcript.newLine();
+            }
+            long closeStart = System.nanoTime();
+            doobert.close();
+            long end = System.nanoTime();
+            writeSavedTasks(taskFile, transcript);
+            report(latenciesByType, end - start, end - closeStart, out);
+        }
+    }
+
+    private static String typeOf(String command) {
+        String trimmed = command.trim();
+        int space = trimmed.indexOf(' ');
+        return (space < 0 ? trimmed : trimmed.substring(0, space)).toLowerCase(Locale.ROOT);
+    }
+
+    private static void writeSavedTasks(Path taskFile, BufferedWriter transcript) throws IOException {
+        transcript.write(SAVED_TASKS_HEADER);
+        transcript.newLine();
+        try {
+            for (Task task : new Storage(taskFile.toString(), true).loadTasks()) {
+                transcript.write(task.toFileString().trim());
+                transcript.newLine();
+            }
+        } catch (DoobertException e) {
+            transcript.write("Error: " + e.getMessage());
+            transcript.newLine();
+        }
+    }
+
+    private static void report(Map<String, Latencies> latenciesByType, long totalNanos, long closeNanos,
+            PrintStream out) {
+        long commandCount = latenciesByType.values().stream().mapToLong(latencies -> latencies.count).sum();
+        out.printf("Replayed %d commands in %.0f ms: %.0f commands/s (the final save took %.1f ms)%n",
+                commandCount, totalNanos / 1e6, commandCount / (totalNanos / 1e9), closeNanos / 1e6);
+        out.printf("%-10s %9s %11s %11s %11s %11s%n", "command", "count", "p50 (us)", "p99 (us)", "p999 (us)",
+                "max (us)");
+        for (Map.Entry<String, Latencies> entry : latenciesByType.entrySet()) {
+            long[] sorted = entry.getValue().sorted();
+            out.printf("%-10s %9d %11.1f %11.1f %11.1f %11.1f%n", entry.getKey(), sorted.length,
+                    percentile(sorted, 0.50) / 1e3, percentile(sorted, 0.99) / 1e3, percentile(sorted, 0.999) / 1e3,
+                    sorted[sorted.length - 1] / 1e3);
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+
+    private static boolean compare(Path actual, Path expected, PrintStream out) throws IOException {
+        if (!Files.exists(expected)) {
+            Files.copy(actual, expected);
+            out.println("No reference run yet, so this output was saved as " + expected);
+            return true;
+        }
+
+        try (BufferedReader actualLines = Files.newBufferedReader(actual, StandardCharsets.UTF_8);
+                BufferedReader expectedLines = Files.newBufferedReader(expected, StandardCharsets.UTF_8)) {
+            String lastCommand = "";
+            for (int lineNumber = 1; ; lineNumber++) {
+                String actualLine = actualLines.readLine();
+                String expectedLine = expectedLines.readLine();
+                if (actualLine == null && expectedLine == null) {
+                    out.println("Test result: PASSED (output matches " + expected + ")");
+                    return true;
+                }
+                if (actualLine == null || !actualLine.equals(expectedLine)) {
+                    out.printf("Test result: FAILED at line %d of %s, after '%s'%n  expected: %s%n  actual:   %s%n",
+                            lineNumber, actual, lastCommand, expectedLine, actualLine);
+                    return false;
+                }
+                if (actualLine.startsWith(COMMAND_PREFIX)) {
+                    lastCommand = actualLine.substring(COMMAND_PREFIX.length());
+                }
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted((a, b) -> b.compareTo(a))::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * The latencies of one type of command, in nanoseconds.
+     */
+    private static class Latencies {
+        private long[] nanos = new long[1024];
+        private int count;
+
+        void add(long value) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = value;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
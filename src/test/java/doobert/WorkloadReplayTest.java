@@ -0,0 +1,38 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class WorkloadReplayTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void replay_sameWorkloadTwice_matchesReferenceRun() throws IOException {
+        new WorkloadGenerator(7, 50, 30, 4).write(tempDir, 300, 2000);
+        PrintStream report = new PrintStream(new ByteArrayOutputStream(), true);
+
+        assertTrue(WorkloadReplay.replay(tempDir, report));
+        List<String> expected = Files.readAllLines(tempDir.resolve(WorkloadReplay.EXPECTED_FILE));
+        assertTrue(WorkloadReplay.replay(tempDir, report));
+        assertEquals(expected, Files.readAllLines(tempDir.resolve(WorkloadReplay.ACTUAL_FILE)));
+
+        // Every generated command is valid for the list it runs against
+        assertFalse(expected.stream().anyMatch(line -> line.startsWith("Error:")), "a command failed");
+        int savedTasks = expected.size() - expected.indexOf("--- saved tasks ---") - 1;
+        assertTrue(savedTasks > 300, "saved " + savedTasks + " tasks");
+
+        expected.set(1, expected.get(1) + " changed");
+        Files.write(tempDir.resolve(WorkloadReplay.EXPECTED_FILE), expected, StandardCharsets.UTF_8);
+        assertFalse(WorkloadReplay.replay(tempDir, report));
+    }
+}
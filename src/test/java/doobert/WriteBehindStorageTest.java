@@ -0,0 +1,119 @@
+package doobert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class WriteBehindStorageTest {
+    // Long enough that the flusher never runs on its own during a test
+    private static final String NEVER = "interval-600000";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void saveTask_intervalMode_mergesSavesUntilFlush() throws DoobertException {
+        for (boolean isJournalEnabled : new boolean[] { false, true }) {
+            String filePath = tempDir.resolve("interval-" + isJournalEnabled + ".txt").toString();
+            WriteBehindStorage storage = WriteBehindStorage.of(filePath, isJournalEnabled, NEVER);
+            TaskList taskList = new TaskList();
+
+            taskList.addTask(new Todo("read book"));
+            storage.saveTask(taskList);
+            taskList.addTask(new Todo("return book"));
+            storage.saveTask(taskList);
+            taskList.markTask(0);
+            storage.saveTask(taskList);
+
+            assertEquals(3, storage.getQueueDepth());
+            assertFalse(new File(filePath).exists());
+
+            storage.flush();
+            assertEquals(0, storage.getQueueDepth());
+            assertTrue(storage.getFlushStatistics().contains("flushes: 1,"));
+            assertTrue(storage.getFlushStatistics().endsWith("queue depth: 0 (max 3)"));
+            storage.close();
+            assertEquals(List.of("[T] [X] read book", "[T] [ ] return book"),
+                    display(new Storage(filePath, isJournalEnabled).loadTasks()));
+        }
+    }
+
+    @Test
+    public void close_asyncMode_writesEveryQueuedSave() throws DoobertException {
+        String filePath = tempDir.resolve("async.txt").toString();
+        WriteBehindStorage storage = WriteBehindStorage.of(filePath, true, "async");
+        TaskList taskList = new TaskList();
+
+        for (int i = 0; i < 50; i++) {
+            taskList.addTask(new Todo("task " + i));
+            storage.saveTask(taskList);
+        }
+        taskList.deleteTask(0);
+        storage.saveTask(taskList);
+        storage.close();
+
+        assertEquals(0, storage.getQueueDepth());
+        assertEquals(display(taskList.getList()), display(new Storage(filePath, true).loadTasks()));
+    }
+
+    @Test
+    public void saveTask_afterClose_writesBeforeReturning() throws DoobertException {
+        String filePath = tempDir.resolve("closed.txt").toString();
+        WriteBehindStorage storage = WriteBehindStorage.of(filePath, true, "async");
+        TaskList taskList = new TaskList();
+
+        taskList.addTask(new Todo("read book"));
+        storage.saveTask(taskList);
+        storage.close();
+        taskList.addTask(new Todo("return book"));
+        storage.saveTask(taskList);
+
+        assertEquals(0, storage.getQueueDepth());
+        assertEquals(display(taskList.getList()), display(new Storage(filePath, true).loadTasks()));
+        storage.close();
+    }
+
+    @Test
+    public void saveTask_syncMode_writesBeforeReturning() throws DoobertException {
+        String filePath = tempDir.resolve("sync.txt").toString();
+        WriteBehindStorage storage = WriteBehindStorage.of(filePath, true, "sync");
+        TaskList taskList = new TaskList();
+
+        taskList.addTask(new Todo("read book"));
+        storage.saveTask(taskList);
+        storage.awaitCompaction();
+        taskList.addTask(new Todo("return book"));
+        storage.saveTask(taskList);
+
+        assertEquals(0, storage.getQueueDepth());
+        assertTrue(storage.getFlushStatistics().startsWith("Durability: sync, flushes: 2,"));
+        assertEquals(display(taskList.getList()), display(new Storage(filePath, true).loadTasks()));
+        storage.close();
+    }
+
+    @Test
+    public void of_parsesDurabilitySettings() {
+        String filePath = tempDir.resolve("of.txt").toString();
+        String[][] settings = { { " ASYNC ", "async" }, { "interval-250", "interval-250" },
+            { "interval-0", "interval-1" } };
+        for (String[] setting : settings) {
+            WriteBehindStorage storage = WriteBehindStorage.of(filePath, true, setting[0]);
+            assertTrue(storage.getFlushStatistics().startsWith("Durability: " + setting[1] + ","));
+            storage.close();
+        }
+
+        for (String setting : new String[] { "fast", "interval-", "interval-soon", "interval--5", "interval 5" }) {
+            assertThrows(IllegalArgumentException.class, () -> WriteBehindStorage.of(filePath, true, setting));
+        }
+    }
+
+    private static List<String> display(List<Task> tasks) {
+        return tasks.stream().map(Task::toString).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,79 @@
+package doobert;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Drives a running {@code DoobertServer} from several concurrent connections and reports the latency seen by
+ * the clients alongside the server's own counters. Each client adds, lists and finds tasks, so run the server
+ * from a scratch directory, e.g. {@code java doobert.Doobert --server} in a temporary folder.
+ * Run with {@code ./gradlew loadClient -PloadClientArgs="[port] [clients] [requestsPerClient]"};
+ * defaults to port 4242, 8 clients and 2000 requests each.
+ */
+public class ServerLoadClient {
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DoobertServer.DEFAULT_PORT;
+        int clientCount = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int requestsPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+        long[][] latencies = new long[clientCount][requestsPerClient];
+        List<Thread> clients = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int c = 0; c < clientCount; c++) {
+            int client = c;
+            Thread thread = new Thread(() -> runClient(port, client, start, latencies[client]), "load-client-" + c);
+            thread.start();
+            clients.add(thread);
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread thread : clients) {
+            thread.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%d clients x %d requests in %.0f ms: %.0f requests/s%n", clientCount, requestsPerClient,
+                elapsedNanos / 1e6, all.length / (elapsedNanos / 1e9));
+        System.out.printf("client latency p50 %.3f ms  p99 %.3f ms  max %.3f ms%n", percentile(all, 0.50) / 1e6,
+                percentile(all, 0.99) / 1e6, all[all.length - 1] / 1e6);
+        try (DoobertClient client = new DoobertClient(port)) {
+            System.out.println("server: " + client.send(DoobertServer.STATS_REQUEST));
+        }
+    }
+
+    private static void runClient(int port, int client, CountDownLatch start, long[] latencies) {
+        try (DoobertClient connection = new DoobertClient(port)) {
+            start.await();
+            for (int i = 0; i < latencies.length; i++) {
+                String command;
+                switch (i % 4) {
+                case 0:
+                    command = "todo load test " + client + " " + i;
+                    break;
+                case 1:
+                    command = "list 1 10";
+                    break;
+                case 2:
+                    command = "find load test " + client;
+                    break;
+                default:
+                    command = "deadline load deadline " + client + " " + i + " /by 2030-01-01";
+                }
+                long requestStart = System.nanoTime();
+                connection.send(command);
+                latencies[i] = System.nanoTime() - requestStart;
+            }
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+}